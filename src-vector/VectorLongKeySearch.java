@@ -0,0 +1,42 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized search of a key in a node of a {@link LongBTree}, with the incubating Vector API.
+ * <p>
+ * Since the keys are sorted, the position of the key is the number of keys smaller than it. Each step compares the
+ * key against a whole vector of keys (4 with AVX2, 8 with AVX-512, more with wider SVE) and counts the lanes that are smaller, stopping at
+ * the first vector where not all of them are. The padding after the keys is {@link Long#MAX_VALUE}, never smaller.
+ * <p>
+ * Don't use it directly, {@link LongKeySearch#best()} loads it only if the module is enabled.
+ */
+final class VectorLongKeySearch implements LongKeySearch {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public int search( long[] keys, int count, long key ) {
+        int lanes = SPECIES.length();
+        int smaller = 0;
+
+        for ( int i = 0; i < count; i += lanes ) {
+            int n = LongVector.fromArray(SPECIES, keys, i).compare(VectorOperators.LT, key).trueCount();
+
+            smaller += n;
+            if ( n < lanes ) break;
+        }
+
+        return smaller < count && keys[smaller] == key ? smaller : -(smaller + 1);
+    }
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public String toString() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+}
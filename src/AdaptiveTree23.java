@@ -0,0 +1,198 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A set that keeps small amounts of elements in a sorted array and switches to a {@link Tree23} when it grows.
+ * <p>
+ * For a few elements a 2-3 Tree costs more than it gives: a node per one or two elements, splits and a reference to
+ * follow per level. Up to the threshold, the elements are kept in a compact sorted array and searched with a binary
+ * search. When an add goes over the threshold, the array is turned into a {@link Tree23} in linear time with
+ * {@link Tree23#fromSorted(Comparable[], int)}. When the tree shrinks to half the threshold, it is turned back into an
+ * array. The gap between both sizes keeps a set around the threshold from switching on every operation.
+ * <p>
+ * It is designed to be used as millions of small per-entity indexes: an empty instance doesn't allocate anything
+ * else, and the array grows as needed.
+ *
+ * @param <T> Generic element
+ */
+public class AdaptiveTree23<T extends Comparable<T>> implements SortedTree<T> {
+
+    public static final int DEFAULT_THRESHOLD = 32;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int threshold;
+
+    private T[] elements;        // The sorted elements while the set is compact, null if empty or a tree
+    private int size;            // Number of elements in the array
+    private Tree23<T> tree;      // The elements once the threshold has been crossed
+
+    public AdaptiveTree23() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold The max number of elements kept in the array, at least 2
+     */
+    public AdaptiveTree23( int threshold ) {
+        if ( threshold < 2 ) throw new IllegalArgumentException("The threshold must be at least 2: " + threshold);
+
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return The max number of elements kept in the array
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return true while the elements are kept in the sorted array, false once they are in a tree
+     */
+    public boolean isCompact() {
+        return tree == null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean add( T element ) {
+        if ( tree != null ) return tree.add(element);
+
+        int i = search(element);
+
+        if ( i >= 0 ) return false; // Already exists
+
+        i = -i - 1;
+
+        if ( size == threshold ) { // Time to become a tree
+            T[] all = (T[]) new Comparable<?>[size + 1];
+            System.arraycopy(elements, 0, all, 0, i);
+            all[i] = element;
+            System.arraycopy(elements, i, all, i + 1, size - i);
+
+            tree = Tree23.fromSorted(all, all.length);
+            elements = null;
+            size = 0;
+            return true;
+        }
+
+        if ( elements == null ) elements = (T[]) new Comparable<?>[Math.min(INITIAL_CAPACITY, threshold)];
+        else if ( size == elements.length ) elements = Arrays.copyOf(elements, Math.min(size * 2, threshold));
+
+        System.arraycopy(elements, i, elements, i + 1, size - i);
+        elements[i] = element;
+        size++;
+
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove( T element ) {
+        if ( tree != null ) {
+            if ( !tree.remove(element) ) return false;
+
+            if ( tree.size() <= threshold / 2 ) { // Back to the array
+                T[] compact = (T[]) new Comparable<?>[Math.max(tree.size(), 1)];
+                int[] i = { 0 };
+                tree.forEach(e -> compact[i[0]++] = e);
+
+                elements = tree.isEmpty() ? null : compact;
+                size = tree.size();
+                tree = null;
+            }
+            return true;
+        }
+
+        int i = search(element);
+
+        if ( i < 0 ) return false;
+
+        System.arraycopy(elements, i + 1, elements, i, size - i - 1);
+        elements[--size] = null;
+        if ( size == 0 ) elements = null;
+
+        return true;
+    }
+
+    @Override
+    public T find( T element ) {
+        if ( tree != null ) return tree.find(element);
+
+        int i = search(element);
+        return i >= 0 ? elements[i] : null;
+    }
+
+    // Binary search in the array, same result as Arrays.binarySearch
+    private int search( T element ) {
+        int low = 0, high = size - 1;
+
+        while ( low <= high ) {
+            int mid = (low + high) >>> 1;
+            int cmp = elements[mid].compareTo(element);
+
+            if ( cmp < 0 ) low = mid + 1;
+            else if ( cmp > 0 ) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public T findMin() {
+        if ( tree != null ) return tree.findMin();
+        return size == 0 ? null : elements[0];
+    }
+
+    @Override
+    public T findMax() {
+        if ( tree != null ) return tree.findMax();
+        return size == 0 ? null : elements[size - 1];
+    }
+
+    /**
+     * @return the number of levels of the tree, or 1 while the elements are in the array (0 if it is empty)
+     */
+    @Override
+    public long getLevel() {
+        if ( tree != null ) return tree.getLevel();
+        return size == 0 ? 0 : 1;
+    }
+
+    @Override
+    public int size() {
+        return tree != null ? tree.size() : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        elements = null;
+        size = 0;
+        tree = null;
+    }
+
+    /**
+     * Performs an action for each element, in order.
+     *
+     * @param action The action to perform
+     */
+    public void forEach( Consumer<? super T> action ) {
+        if ( tree != null ) tree.forEach(action);
+        else for ( int i = 0; i < size; i++ ) action.accept(elements[i]);
+    }
+
+    /**
+     * Prints the elements in order.
+     */
+    public void inOrder() {
+        if ( isEmpty() ) System.out.print("The tree is empty");
+        else forEach(e -> System.out.print(e + " "));
+        System.out.println();
+    }
+}
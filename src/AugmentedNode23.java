@@ -0,0 +1,25 @@
+/**
+ * A node of an {@link AugmentedTree23}, which also keeps the summary of all the elements of its subtree.
+ * <p>
+ * The plain trees use {@link Node23}, so they don't pay for this field.
+ */
+public class AugmentedNode23<T> extends Node23<T> {
+
+    Object summary;
+
+    public AugmentedNode23() {
+        super();
+    }
+
+    public AugmentedNode23( T leftElement, T rightElement ) {
+        super(leftElement, rightElement);
+    }
+
+    public AugmentedNode23( T leftElement, T rightElement, Node23<T> left, Node23<T> mid ) {
+        super(leftElement, rightElement, left, mid);
+    }
+
+    public Object getSummary() {
+        return summary;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Collection;
+
+/**
+ * A 2-3 Tree where every node keeps the summary of its subtree, so the summary of any range of elements (their count,
+ * the sum of a field, its max...) is computed in O(log n) instead of scanning the range.
+ * <p>
+ * The summary is a {@link Summary}: an associative operation with a neutral element. The nodes keep it current on
+ * every add and remove, computing it again only for the nodes on the path that has changed.
+ * <p>
+ * Example, the sum of the amounts of the orders between two dates:
+ * <pre>
+ *     AugmentedTree23&lt;Order, Long&gt; orders = new AugmentedTree23&lt;&gt;(Summary.sum(Order::amount));
+ *     long total = orders.aggregate(firstDay, lastDay);
+ * </pre>
+ *
+ * @param <T> Generic element
+ * @param <S> The type of the summary
+ */
+public class AugmentedTree23<T extends Comparable<T>, S> extends Tree23<T> {
+
+    private final Summary<T, S> summary;
+
+    public AugmentedTree23( Summary<T, S> summary ) {
+        super(summary);
+        this.summary = summary;
+    }
+
+    public AugmentedTree23( Summary<T, S> summary, Collection<T> elements ) {
+        this(summary);
+        elements.forEach(this::add);
+    }
+
+    /**
+     * @return The summary kept by the nodes
+     */
+    public Summary<T, S> getSummary() {
+        return summary;
+    }
+
+    /**
+     * @return The summary of all the elements of the tree, in O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public S aggregate() {
+        Node23<T> root = getRoot();
+        if ( root == null || root.getLeftElement() == null ) return summary.identity();
+        return (S) ((AugmentedNode23<T>) root).summary;
+    }
+
+    /**
+     * @param from The lower bound, included
+     * @param to   The upper bound, included
+     *
+     * @return The summary of the elements between both bounds, in O(log n)
+     */
+    @SuppressWarnings("unchecked")
+    public S aggregate( T from, T to ) {
+        if ( from.compareTo(to) > 0 ) return summary.identity();
+        return (S) aggregate(getRoot(), from, to, false, false);
+    }
+
+    /**
+     * Creates a copy of this tree, with the same summary.
+     *
+     * @return A copy of this AugmentedTree23 instance
+     */
+    @Override
+    public AugmentedTree23<T, S> clone() {
+        AugmentedTree23<T, S> clone = new AugmentedTree23<>(summary);
+        forEach(clone::add);
+        return clone;
+    }
+}
@@ -0,0 +1,340 @@
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A B-Tree of configurable order, with the same operations as {@link Tree23}.
+ * <p>
+ * A 2-3 Tree is a B-Tree of order 3: each node has at most 3 children, so a tree with millions of elements is 15-20
+ * levels deep and every level of a search is a dependent memory access. In a B-Tree of order m each node keeps up to
+ * m - 1 elements sorted in an array, searched with a binary search, so the tree is log<sub>m/2</sub>(n) levels deep at
+ * most and each node visit reads a few contiguous cache lines. Orders between 16 and 128 are usually the best
+ * trade-off, {@code tst/TreeBenchmark} compares them with {@link Tree23} for a given workload.
+ * <p>
+ * Every node but the root has between ceil(m/2) - 1 and m - 1 elements, and every leaf is at the same level.
+ *
+ * @param <T> Generic element
+ */
+public class BTree<T extends Comparable<T>> implements SortedTree<T> {
+
+    public static final int DEFAULT_ORDER = 32;
+
+    private final int order;         // Max number of children of a node
+    private final int minElements;   // Min number of elements of a node, but the root
+
+    private BTreeNode<T> root;
+    private int size;
+
+    private boolean addition;        // A flag to know if the last element has been added correctly or not
+    private T promoted;              // The element going up after a split
+
+    public BTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order The max number of children of a node, at least 3
+     */
+    public BTree( int order ) {
+        if ( order < 3 ) throw new IllegalArgumentException("The order of a B-Tree must be at least 3: " + order);
+
+        this.order = order;
+        this.minElements = (order + 1) / 2 - 1;
+    }
+
+    public BTree( int order, Collection<T> elements ) {
+        this(order);
+        elements.forEach(this::add);
+    }
+
+    /**
+     * @return The max number of children of a node
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public boolean add( T element ) {
+        if ( root == null ) root = new BTreeNode<>(order, true);
+
+        addition = false;
+
+        BTreeNode<T> right = addElement(root, element);
+
+        if ( right != null ) { // The root has been split, the tree grows one level
+            BTreeNode<T> newRoot = new BTreeNode<>(order, false);
+            newRoot.elements[0] = promoted;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+        promoted = null;
+
+        if ( addition ) size++;
+
+        return addition;
+    }
+
+    /**
+     * Adds the element in the leaf where it belongs. On the bottom up, a node that has overflowed is split in two and
+     * the element in the middle goes up to the parent.
+     *
+     * @return The new node on the right if the current node has been split (the element going up is in 'promoted'),
+     *         or null if not
+     */
+    private BTreeNode<T> addElement( BTreeNode<T> current, T element ) {
+        int i = current.search(element);
+
+        if ( i >= 0 ) return null; // Already exists
+
+        i = -i - 1;
+
+        if ( current.isLeaf() ) {
+            current.insert(i, element, null);
+            addition = true;
+        } else {
+            BTreeNode<T> right = addElement(current.children[i], element);
+
+            if ( right == null ) return null;
+
+            current.insert(i, promoted, right);
+        }
+
+        return current.count == order ? split(current) : null;
+    }
+
+    // Moves the upper half of an overflowed node to a new node, leaving the element in the middle in 'promoted'
+    private BTreeNode<T> split( BTreeNode<T> current ) {
+        int mid = order / 2;
+        BTreeNode<T> right = new BTreeNode<>(order, current.isLeaf());
+
+        right.count = current.count - mid - 1;
+        System.arraycopy(current.elements, mid + 1, right.elements, 0, right.count);
+        if ( !current.isLeaf() ) {
+            System.arraycopy(current.children, mid + 1, right.children, 0, right.count + 1);
+            Arrays.fill(current.children, mid + 1, current.count + 1, null);
+        }
+
+        promoted = current.elements[mid];
+        Arrays.fill(current.elements, mid, current.count, null);
+        current.count = mid;
+
+        return right;
+    }
+
+    @Override
+    public boolean remove( T element ) {
+        if ( isEmpty() ) return false;
+
+        boolean deleted = remove(root, element);
+
+        // The root has been left empty, its only child (if any) is the new root
+        if ( root.count == 0 ) root = root.isLeaf() ? null : root.children[0];
+
+        if ( deleted ) size--;
+
+        return deleted;
+    }
+
+    /**
+     * Removes the element from the subtree. If it is in an internal node, it is replaced by the max element of its
+     * left subtree, which is always in a leaf. On the bottom up, the nodes with less than the min number of elements
+     * are repaired taking an element from a sibling or merging them with one.
+     */
+    private boolean remove( BTreeNode<T> current, T element ) {
+        int i = current.search(element);
+
+        if ( current.isLeaf() ) {
+            if ( i < 0 ) return false;
+            current.delete(i);
+            return true;
+        }
+
+        boolean deleted;
+        int child;
+
+        if ( i >= 0 ) {
+            child = i;
+            current.elements[i] = removeMax(current.children[i]);
+            deleted = true;
+        } else {
+            child = -i - 1;
+            deleted = remove(current.children[child], element);
+        }
+
+        if ( current.children[child].count < minElements ) rebalance(current, child);
+
+        return deleted;
+    }
+
+    private T removeMax( BTreeNode<T> current ) {
+        if ( current.isLeaf() ) {
+            T max = current.elements[current.count - 1];
+            current.delete(current.count - 1);
+            return max;
+        }
+
+        int child = current.count;
+        T max = removeMax(current.children[child]);
+
+        if ( current.children[child].count < minElements ) rebalance(current, child);
+
+        return max;
+    }
+
+    // Repairs the child at the position given, which has one element less than the min
+    private void rebalance( BTreeNode<T> parent, int i ) {
+        BTreeNode<T> current = parent.children[i];
+
+        if ( i > 0 && parent.children[i - 1].count > minElements ) { // Take the max element of the left sibling
+            BTreeNode<T> left = parent.children[i - 1];
+
+            System.arraycopy(current.elements, 0, current.elements, 1, current.count);
+            current.elements[0] = parent.elements[i - 1];
+            if ( !current.isLeaf() ) {
+                System.arraycopy(current.children, 0, current.children, 1, current.count + 1);
+                current.children[0] = left.children[left.count];
+                left.children[left.count] = null;
+            }
+            current.count++;
+
+            parent.elements[i - 1] = left.elements[left.count - 1];
+            left.elements[left.count - 1] = null;
+            left.count--;
+
+        } else if ( i < parent.count && parent.children[i + 1].count > minElements ) { // Take the min of the right sibling
+            BTreeNode<T> right = parent.children[i + 1];
+
+            current.elements[current.count] = parent.elements[i];
+            if ( !current.isLeaf() ) current.children[current.count + 1] = right.children[0];
+            current.count++;
+
+            parent.elements[i] = right.elements[0];
+
+            System.arraycopy(right.elements, 1, right.elements, 0, right.count - 1);
+            right.elements[right.count - 1] = null;
+            if ( !right.isLeaf() ) {
+                System.arraycopy(right.children, 1, right.children, 0, right.count);
+                right.children[right.count] = null;
+            }
+            right.count--;
+
+        } else merge(parent, i > 0 ? i - 1 : i);
+    }
+
+    // Merges the child at the position given, the element on its right in the parent and its right sibling
+    private void merge( BTreeNode<T> parent, int i ) {
+        BTreeNode<T> left = parent.children[i];
+        BTreeNode<T> right = parent.children[i + 1];
+
+        left.elements[left.count] = parent.elements[i];
+        System.arraycopy(right.elements, 0, left.elements, left.count + 1, right.count);
+        if ( !left.isLeaf() ) System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+        left.count += right.count + 1;
+
+        parent.delete(i);
+    }
+
+    @Override
+    public T find( T element ) {
+        BTreeNode<T> current = root;
+
+        while ( current != null ) {
+            int i = current.search(element);
+
+            if ( i >= 0 ) return current.elements[i];
+            if ( current.isLeaf() ) return null;
+
+            current = current.children[-i - 1];
+        }
+        return null;
+    }
+
+    @Override
+    public T findMin() {
+        if ( isEmpty() ) return null;
+
+        BTreeNode<T> current = root;
+        while ( !current.isLeaf() ) current = current.children[0];
+        return current.elements[0];
+    }
+
+    @Override
+    public T findMax() {
+        if ( isEmpty() ) return null;
+
+        BTreeNode<T> current = root;
+        while ( !current.isLeaf() ) current = current.children[current.count];
+        return current.elements[current.count - 1];
+    }
+
+    @Override
+    public long getLevel() {
+        BTreeNode<T> current = root;
+        int level = 0;
+
+        while ( current != null ) {
+            level++;
+            current = current.isLeaf() ? null : current.children[0];
+        }
+        return level;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == null || root.count == 0;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Creates a copy of this BTree instance, node by node.
+     *
+     * @return A copy of this BTree instance
+     */
+    @Override
+    public BTree<T> clone() {
+        BTree<T> clone = new BTree<>(order);
+        if ( root != null ) clone.root = clone(root);
+        clone.size = size;
+        return clone;
+    }
+
+    private BTreeNode<T> clone( BTreeNode<T> current ) {
+        BTreeNode<T> copy = new BTreeNode<>(order, current.isLeaf());
+
+        System.arraycopy(current.elements, 0, copy.elements, 0, current.count);
+        copy.count = current.count;
+        if ( !current.isLeaf() ) {
+            for ( int i = 0; i <= current.count; i++ ) copy.children[i] = clone(current.children[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Prints the elements of the tree in order.
+     */
+    public void inOrder() {
+        if ( !isEmpty() ) inOrder(root);
+        else System.out.print("The tree is empty");
+        System.out.println();
+    }
+
+    private void inOrder( BTreeNode<T> current ) {
+        for ( int i = 0; i < current.count; i++ ) {
+            if ( !current.isLeaf() ) inOrder(current.children[i]);
+            System.out.print(current.elements[i] + " ");
+        }
+        if ( !current.isLeaf() ) inOrder(current.children[current.count]);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * A node of a {@link BTree}.
+ * <p>
+ * The elements are kept sorted in an array, so visiting a node reads a few contiguous cache lines instead of
+ * following a reference per element. A node of a tree of order m holds up to m - 1 elements and, if it isn't a leaf,
+ * one child more than elements. The arrays have room for one extra element (and child) so a node can overflow
+ * for a moment before being split.
+ */
+public class BTreeNode<T extends Comparable<T>> {
+
+    final T[] elements;
+    BTreeNode<T>[] children;     // null in the leaves
+    int count;                   // Number of elements in the node
+
+    @SuppressWarnings("unchecked")
+    BTreeNode( int order, boolean leaf ) {
+        elements = (T[]) new Comparable<?>[order];
+        if ( !leaf ) children = (BTreeNode<T>[]) new BTreeNode<?>[order + 1];
+    }
+
+    public boolean isLeaf() {
+        return children == null;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public T getElement( int i ) {
+        return elements[i];
+    }
+
+    public BTreeNode<T> getChild( int i ) {
+        return children[i];
+    }
+
+    /**
+     * Binary search of an element in the node.
+     *
+     * @param element The element to find
+     *
+     * @return The position of the element if it is in the node, or (-(insertion point) - 1) if not, where the
+     *         insertion point is also the child where the element would be
+     */
+    int search( T element ) {
+        int low = 0, high = count - 1;
+
+        while ( low <= high ) {
+            int mid = (low + high) >>> 1;
+            int cmp = elements[mid].compareTo(element);
+
+            if ( cmp < 0 ) low = mid + 1;
+            else if ( cmp > 0 ) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Inserts an element, and the child on its right if this isn't a leaf, at the position given.
+     */
+    void insert( int i, T element, BTreeNode<T> right ) {
+        System.arraycopy(elements, i, elements, i + 1, count - i);
+        elements[i] = element;
+
+        if ( children != null ) {
+            System.arraycopy(children, i + 1, children, i + 2, count - i);
+            children[i + 1] = right;
+        }
+        count++;
+    }
+
+    /**
+     * Deletes the element at the position given and, if this isn't a leaf, the child on its right.
+     */
+    void delete( int i ) {
+        System.arraycopy(elements, i + 1, elements, i, count - i - 1);
+        elements[count - 1] = null;
+
+        if ( children != null ) {
+            System.arraycopy(children, i + 2, children, i + 1, count - i - 1);
+            children[count] = null;
+        }
+        count--;
+    }
+}
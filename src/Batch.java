@@ -0,0 +1,352 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The batch mode of {@link Main}: runs the operations of a list of files over a {@code Tree23<Integer>} without
+ * prompts or output per operation, and reports the time and throughput of each file and the final tree.
+ * <p>
+ * Each file is read whole (memory mapped through NIO, in windows for the files over the size of a window) and parsed
+ * before its clock starts, so the time reported is only the one spent in the tree. The files are run in the order
+ * given.
+ * <p>
+ * Usage: {@code java Main --option=file [--option=file]... [--metrics]}
+ * <pre>
+ *   --load=keys.txt      replaces the tree with the keys of the file, built in linear time
+ *   --insert=keys.txt    adds each key
+ *   --delete=keys.txt    removes each key
+ *   --lookup=keys.txt    finds each key
+ *   --range=pairs.txt    counts the keys between each pair "from to" (both included)
+ *   --script=ops.txt     runs one operation per line: "insert k", "delete k", "lookup k" or "range from to"
+ *                        (only the first letter of the operation counts, and + - ? work too)
+ *   --metrics            enables the tree metrics and prints them at the end, with the shape of the tree
+ * </pre>
+ * The keys are integers separated by whitespace or commas, and a '#' comments out the rest of the line.
+ */
+final class Batch {
+
+    private static final String USAGE = "Usage: java Main [--load=file] [--insert=file] [--delete=file] [--lookup=file]"
+            + " [--range=file] [--script=file] [--metrics]";
+
+    private static final byte INSERT = 'i', DELETE = 'd', LOOKUP = 'l', RANGE = 'r';
+
+    private Tree23<Integer> tree = new Tree23<>();
+    private boolean metrics;
+
+    private Batch() {
+    }
+
+    /**
+     * Runs the files given in the arguments.
+     *
+     * @return The exit code: 0 if everything went fine, 1 if an argument or a file is wrong
+     */
+    static int run( String[] args ) {
+        Batch batch = new Batch();
+        List<String[]> steps = new ArrayList<>();
+
+        for ( String arg : args ) {
+            if ( arg.equals("--metrics") ) {
+                batch.metrics = true;
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            String option = equals < 0 ? arg : arg.substring(0, equals);
+
+            if ( equals < 0 || !Arrays.asList("--load", "--insert", "--delete", "--lookup", "--range", "--script").contains(option) ) {
+                System.err.println("Unknown option " + arg);
+                System.err.println(USAGE);
+                return 1;
+            }
+            steps.add(new String[]{ option.substring(2), arg.substring(equals + 1) });
+        }
+
+        if ( batch.metrics ) batch.tree.enableMetrics();
+
+        long start = System.nanoTime();
+        try {
+            for ( String[] step : steps ) batch.step(step[0], Path.of(step[1]));
+        } catch ( NoSuchFileException e ) {
+            System.err.println("Error: file not found " + e.getMessage());
+            return 1;
+        } catch ( IOException | IllegalArgumentException e ) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        batch.report(System.nanoTime() - start);
+
+        return 0;
+    }
+
+    private void step( String operation, Path file ) throws IOException {
+        long read = System.nanoTime();
+        String result;
+        long ops, elapsed;
+
+        if ( operation.equals("script") ) {
+            Script script = Script.read(file);
+            read = System.nanoTime() - read;
+            elapsed = System.nanoTime();
+            result = run(script);
+            ops = script.count;
+        } else {
+            int[] keys = readKeys(file);
+            read = System.nanoTime() - read;
+            elapsed = System.nanoTime();
+
+            switch ( operation ) {
+                case "load":
+                    result = load(keys);
+                    break;
+                case "insert":
+                case "delete":
+                case "lookup":
+                    result = apply((byte) operation.charAt(0), keys);
+                    break;
+                default:
+                    if ( keys.length % 2 != 0 ) throw new IllegalArgumentException(file + ": the ranges must be pairs of keys");
+                    result = ranges(keys);
+            }
+            ops = operation.equals("range") ? keys.length / 2 : keys.length;
+        }
+        elapsed = System.nanoTime() - elapsed;
+
+        System.out.printf(Locale.ROOT, "%-6s %s: %,d ops in %.1f ms (%,.0f ops/s, read in %.1f ms), %s%n", operation, file,
+                ops, elapsed / 1e6, ops * 1e9 / Math.max(elapsed, 1), read / 1e6, result);
+    }
+
+    // Replaces the tree with the keys, sorted and without duplicates
+    private String load( int[] keys ) {
+        Arrays.sort(keys);
+
+        Integer[] sorted = new Integer[keys.length];
+        int count = 0;
+        for ( int i = 0; i < keys.length; i++ ) {
+            if ( i == 0 || keys[i] != keys[i - 1] ) sorted[count++] = keys[i];
+        }
+
+        tree = Tree23.fromSorted(sorted, count);
+        if ( metrics ) tree.enableMetrics();
+
+        return count + " distinct keys";
+    }
+
+    private String apply( byte operation, int[] keys ) {
+        long changed = 0;
+
+        for ( int key : keys ) {
+            if ( apply(operation, key) ) changed++;
+        }
+        return changed + (operation == LOOKUP ? " found" : operation == INSERT ? " added" : " removed");
+    }
+
+    private boolean apply( byte operation, int key ) {
+        switch ( operation ) {
+            case INSERT: return tree.add(key);
+            case DELETE: return tree.remove(key);
+            default: return tree.find(key) != null;
+        }
+    }
+
+    private String ranges( int[] pairs ) {
+        long found = 0;
+
+        for ( int i = 0; i < pairs.length; i += 2 ) found += range(pairs[i], pairs[i + 1]);
+
+        return found + " keys in the ranges";
+    }
+
+    // Number of keys between both bounds, included
+    private long range( int from, int to ) {
+        long found = 0;
+
+        for ( Integer key = tree.ceiling(from); key != null && key <= to; key = tree.higher(key) ) found++;
+
+        return found;
+    }
+
+    private String run( Script script ) {
+        long changed = 0, found = 0;
+
+        for ( int i = 0; i < script.count; i++ ) {
+            byte operation = script.operations[i];
+
+            if ( operation == RANGE ) found += range(script.keys[2 * i], script.keys[2 * i + 1]);
+            else if ( apply(operation, script.keys[2 * i]) ) {
+                if ( operation == LOOKUP ) found++;
+                else changed++;
+            }
+        }
+        return changed + " changed, " + found + " found";
+    }
+
+    private void report( long elapsed ) {
+        System.out.printf(Locale.ROOT, "Total: %.1f ms. Tree: %,d elements, %d levels, min %s, max %s%n", elapsed / 1e6,
+                tree.size(), tree.getLevel(), tree.findMin(), tree.findMax());
+
+        if ( metrics ) {
+            System.out.println(tree.getMetrics());
+            System.out.println("shape: " + tree.getStats());
+        }
+    }
+
+    private static int[] readKeys( Path file ) throws IOException {
+        try ( Tokens tokens = new Tokens(file) ) {
+            int[] keys = new int[1024];
+            int count = 0;
+
+            while ( tokens.hasNext() ) {
+                if ( count == keys.length ) keys = Arrays.copyOf(keys, count * 2);
+                keys[count++] = tokens.nextInt();
+            }
+            return Arrays.copyOf(keys, count);
+        }
+    }
+
+    /**
+     * The operations of a script file: the operation i works with the keys 2i and 2i + 1 (only ranges use the second).
+     */
+    private static final class Script {
+        byte[] operations = new byte[1024];
+        int[] keys = new int[2048];
+        int count;
+
+        static Script read( Path file ) throws IOException {
+            Script script = new Script();
+
+            try ( Tokens tokens = new Tokens(file) ) {
+                while ( tokens.hasNext() ) {
+                    byte operation = tokens.nextOperation();
+
+                    if ( script.count == script.operations.length ) {
+                        script.operations = Arrays.copyOf(script.operations, script.count * 2);
+                        script.keys = Arrays.copyOf(script.keys, script.count * 4);
+                    }
+                    script.operations[script.count] = operation;
+                    script.keys[2 * script.count] = tokens.nextInt();
+                    if ( operation == RANGE ) script.keys[2 * script.count + 1] = tokens.nextInt();
+                    script.count++;
+                }
+            }
+            return script;
+        }
+    }
+
+    /**
+     * Reads the tokens of a file, mapped in memory a window at a time.
+     */
+    private static final class Tokens implements Closeable {
+
+        private static final long WINDOW = 1 << 26;   // 64 MB
+
+        private final Path file;
+        private final FileChannel channel;
+        private final long length;
+
+        private MappedByteBuffer buffer;
+        private long position;          // Position in the file of the start of the window
+        private int next = -2;          // The byte read ahead, -1 at the end of the file, -2 if none
+
+        Tokens( Path file ) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.length = channel.size();
+            map(0);
+        }
+
+        private void map( long from ) throws IOException {
+            position = from;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, length - from));
+        }
+
+        private int peek() throws IOException {
+            if ( next == -2 ) {
+                if ( !buffer.hasRemaining() && position + buffer.capacity() < length ) map(position + buffer.capacity());
+                next = buffer.hasRemaining() ? buffer.get() : -1;
+            }
+            return next;
+        }
+
+        private int read() throws IOException {
+            int b = peek();
+            next = -2;
+            return b;
+        }
+
+        private static boolean isSeparator( int b ) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',';
+        }
+
+        /**
+         * @return true if there is another token, skipping the separators and comments before it
+         */
+        boolean hasNext() throws IOException {
+            while ( true ) {
+                int b = peek();
+
+                if ( b == '#' ) {
+                    while ( b != '\n' && b != -1 ) b = read();
+                } else if ( isSeparator(b) ) read();
+                else return b != -1;
+            }
+        }
+
+        int nextInt() throws IOException {
+            if ( !hasNext() ) throw error("a key expected at the end of the file");
+
+            int b = read();
+            boolean negative = b == '-';
+            if ( negative || b == '+' ) b = read();
+
+            long value = 0;
+            int digits = 0;
+
+            while ( b >= '0' && b <= '9' ) {
+                value = value * 10 + (b - '0');
+                if ( value > (long) Integer.MAX_VALUE + 1 ) throw error("key out of the int range");
+                digits++;
+                b = peek() == -1 || isSeparator(peek()) || peek() == '#' ? -1 : read();
+            }
+            if ( digits == 0 || b != -1 ) throw error("invalid key");
+
+            value = negative ? -value : value;
+            if ( value > Integer.MAX_VALUE ) throw error("key out of the int range");
+
+            return (int) value;
+        }
+
+        byte nextOperation() throws IOException {
+            int b = read();
+            byte operation;
+
+            switch ( Character.toLowerCase(b) ) {
+                case 'i': case 'a': case '+': operation = INSERT; break;
+                case 'd': case '-': operation = DELETE; break;
+                case 'l': case 'f': case '?': operation = LOOKUP; break;
+                case 'r': operation = RANGE; break;
+                default: throw error("unknown operation");
+            }
+            while ( peek() != -1 && !isSeparator(peek()) ) read(); // The rest of the word
+
+            return operation;
+        }
+
+        private IllegalArgumentException error( String message ) {
+            long offset = position + buffer.position() - (next >= 0 ? 1 : 0);
+            return new IllegalArgumentException(file + " near byte " + offset + ": " + message);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -11,6 +11,19 @@ public record Card(Rank rank, Suit suit) implements ComparablePlus<Card> {
     static final Suit[] allSuits = Suit.values();
     static final int DECK_COUNT = allRanks.length * allSuits.length;
 
+    private static final Card[] allCards = new Card[DECK_COUNT];
+    static {
+        for (Suit suit : allSuits)
+            for (Rank rank : allRanks) allCards[suit.ordinal() * allRanks.length + rank.ordinal()] = new Card(rank, suit);
+    }
+
+    /** The 52 cards, numbered in the order of compareTo: by suit and then by rank */
+    public static final OrdinalDomain<Card> DECK = new OrdinalDomain<>() {
+        public int size() { return DECK_COUNT; }
+        public int ordinal(Card card) { return card.ordinal(); }
+        public Card fromOrdinal(int ordinal) { return allCards[ordinal]; }
+    };
+
     @Override
     public String toString() {
         return  this.rank + " of " + this.suit;
@@ -19,6 +32,9 @@ public record Card(Rank rank, Suit suit) implements ComparablePlus<Card> {
     public static Rank fromRankOrdinal(int n) {return allRanks[n];}
     public static Suit fromSuitOrdinal(int n) {return allSuits[n];}
 
+    /** @return The position of the card in {@link #DECK}, between 0 and 51 */
+    public int ordinal() {return suit.ordinal() * allRanks.length + rank.ordinal();}
+
     //@Override
     public int compareTo(Card card) {
         if(this.suit == card.suit) return this.rank.ordinal() - card.rank.ordinal();
@@ -0,0 +1,210 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A set of values of a small {@link OrdinalDomain}, like a hand of {@link Card}s, stored as a bitset.
+ * <p>
+ * Bit i says whether the value with ordinal i is in the set. Since the ordinals follow the order of compareTo, every
+ * operation is a few bit operations instead of a search through the nodes of a tree: add, find and remove set, test
+ * or clear a bit; min and max are the lowest and highest bit; and the iteration goes from one bit to the next.
+ * Domains of up to 64 values (the 52 cards) use a single long, larger ones an array of longs.
+ *
+ * @param <T> Generic element
+ */
+public class DenseTree<T extends Comparable<T>> implements SortedTree<T>, Iterable<T> {
+
+    private final OrdinalDomain<T> domain;
+
+    private long bits;           // The set when the domain has up to 64 values
+    private final long[] words;  // The set when the domain is bigger, null if not
+
+    public DenseTree( OrdinalDomain<T> domain ) {
+        this.domain = domain;
+        this.words = domain.size() > 64 ? new long[(domain.size() + 63) >>> 6] : null;
+    }
+
+    /**
+     * @return The domain of the elements of the set
+     */
+    public OrdinalDomain<T> getDomain() {
+        return domain;
+    }
+
+    private int ordinal( T element ) {
+        int ordinal = domain.ordinal(element);
+
+        if ( ordinal < 0 || ordinal >= domain.size() )
+            throw new IllegalArgumentException(element + " is out of the domain, ordinal " + ordinal);
+        return ordinal;
+    }
+
+    @Override
+    public boolean add( T element ) {
+        int ordinal = ordinal(element);
+
+        if ( words == null ) {
+            long old = bits;
+            bits |= 1L << ordinal;
+            return bits != old;
+        }
+
+        long old = words[ordinal >>> 6];
+        words[ordinal >>> 6] |= 1L << ordinal;
+        return words[ordinal >>> 6] != old;
+    }
+
+    @Override
+    public boolean remove( T element ) {
+        int ordinal = ordinal(element);
+
+        if ( words == null ) {
+            long old = bits;
+            bits &= ~(1L << ordinal);
+            return bits != old;
+        }
+
+        long old = words[ordinal >>> 6];
+        words[ordinal >>> 6] &= ~(1L << ordinal);
+        return words[ordinal >>> 6] != old;
+    }
+
+    @Override
+    public boolean contains( T element ) {
+        int ordinal = ordinal(element);
+
+        if ( words == null ) return (bits & 1L << ordinal) != 0;
+        return (words[ordinal >>> 6] & 1L << ordinal) != 0;
+    }
+
+    /**
+     * @return the element of the domain equal to the one given if it is in the set, or null if not
+     */
+    @Override
+    public T find( T element ) {
+        return contains(element) ? domain.fromOrdinal(domain.ordinal(element)) : null;
+    }
+
+    @Override
+    public T findMin() {
+        int ordinal = next(0);
+        return ordinal < 0 ? null : domain.fromOrdinal(ordinal);
+    }
+
+    @Override
+    public T findMax() {
+        if ( words == null ) return bits == 0 ? null : domain.fromOrdinal(63 - Long.numberOfLeadingZeros(bits));
+
+        for ( int w = words.length - 1; w >= 0; w-- ) {
+            if ( words[w] != 0 ) return domain.fromOrdinal((w << 6) + 63 - Long.numberOfLeadingZeros(words[w]));
+        }
+        return null;
+    }
+
+    // The lowest ordinal in the set from the one given, or -1 if there isn't any
+    private int next( int from ) {
+        if ( words == null ) {
+            if ( from >= 64 ) return -1;
+            long rest = bits & (-1L << from);
+            return rest == 0 ? -1 : Long.numberOfTrailingZeros(rest);
+        }
+
+        int w = from >>> 6;
+        if ( w >= words.length ) return -1;
+
+        long rest = words[w] & (-1L << from);
+        while ( rest == 0 ) {
+            if ( ++w == words.length ) return -1;
+            rest = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(rest);
+    }
+
+    /**
+     * @return 1 if there are elements, 0 if not. The set has no levels, this is kept for compatibility with the trees
+     */
+    @Override
+    public long getLevel() {
+        return isEmpty() ? 0 : 1;
+    }
+
+    @Override
+    public int size() {
+        if ( words == null ) return Long.bitCount(bits);
+
+        int size = 0;
+        for ( long word : words ) size += Long.bitCount(word);
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return next(0) < 0;
+    }
+
+    @Override
+    public void clear() {
+        bits = 0;
+        if ( words != null ) java.util.Arrays.fill(words, 0);
+    }
+
+    /**
+     * Performs an action for each element of the set, in order.
+     *
+     * @param action The action to perform
+     */
+    @Override
+    public void forEach( Consumer<? super T> action ) {
+        if ( words == null ) {
+            for ( long rest = bits; rest != 0; rest &= rest - 1 ) action.accept(domain.fromOrdinal(Long.numberOfTrailingZeros(rest)));
+            return;
+        }
+
+        for ( int w = 0; w < words.length; w++ ) {
+            for ( long rest = words[w]; rest != 0; rest &= rest - 1 )
+                action.accept(domain.fromOrdinal((w << 6) + Long.numberOfTrailingZeros(rest)));
+        }
+    }
+
+    /**
+     * @return An iterator over the elements of the set, in order
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int next = DenseTree.this.next(0);
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public T next() {
+                if ( next < 0 ) throw new NoSuchElementException();
+
+                last = next;
+                next = next + 1 < domain.size() ? DenseTree.this.next(next + 1) : -1;
+                return domain.fromOrdinal(last);
+            }
+
+            @Override
+            public void remove() {
+                if ( last < 0 ) throw new IllegalStateException();
+
+                DenseTree.this.remove(domain.fromOrdinal(last));
+                last = -1;
+            }
+        };
+    }
+
+    /**
+     * Prints the elements of the set in order.
+     */
+    public void inOrder() {
+        if ( isEmpty() ) System.out.print("The tree is empty");
+        else forEach(e -> System.out.print(e + " "));
+        System.out.println();
+    }
+}
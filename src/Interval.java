@@ -0,0 +1,36 @@
+/**
+ * A half-open interval [start, end) of an {@link IntervalTree23}.
+ *
+ * @param <P> The type of the points
+ */
+public interface Interval<P extends Comparable<P>> {
+
+    /**
+     * @return The first point of the interval, included
+     */
+    P getStart();
+
+    /**
+     * @return The point where the interval ends, excluded
+     */
+    P getEnd();
+
+    /**
+     * @param point A point
+     *
+     * @return true if the point is inside the interval
+     */
+    default boolean contains( P point ) {
+        return getStart().compareTo(point) <= 0 && getEnd().compareTo(point) > 0;
+    }
+
+    /**
+     * @param from The start of the other interval, included
+     * @param to   The end of the other interval, excluded
+     *
+     * @return true if both intervals share at least a point, never for an empty range
+     */
+    default boolean overlaps( P from, P to ) {
+        return from.compareTo(to) < 0 && getStart().compareTo(to) < 0 && getEnd().compareTo(from) > 0;
+    }
+}
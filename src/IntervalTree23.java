@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A 2-3 Tree of intervals that finds the ones overlapping a point or a range without scanning all of them.
+ * <p>
+ * The intervals are ordered by their start (their compareTo must order them by start first), and every node keeps the
+ * max end of its subtree as its summary (see {@link AugmentedTree23}), which the 2-3 adds and removes keep current.
+ * A search goes through the intervals in order, skipping every subtree whose max end is before the range, and stops at
+ * the first interval starting after it. Each subtree it goes into holds an interval found or the one where it stops,
+ * but the intervals found can be spread over the tree, a path each, so a search costs O(min(n, (k + 1) log n)), k
+ * being the number of intervals found: O(log n) for a few of them, never more than a full scan.
+ *
+ * @param <P> The type of the points
+ * @param <I> The type of the intervals
+ */
+public class IntervalTree23<P extends Comparable<P>, I extends Interval<P> & Comparable<I>> extends AugmentedTree23<I, P> {
+
+    public IntervalTree23() {
+        super(Summary.of(null, Interval::getEnd, IntervalTree23::maxEnd));
+    }
+
+    // The max of two ends, null being no end at all
+    private static <P extends Comparable<P>> P maxEnd( P a, P b ) {
+        if ( a == null ) return b;
+        if ( b == null ) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    /**
+     * @return The max end of all the intervals, or null if the tree is empty
+     */
+    public P maxEnd() {
+        return aggregate();
+    }
+
+    /**
+     * @param point A point
+     *
+     * @return The intervals that contain the point, ordered by start
+     */
+    public List<I> overlapping( P point ) {
+        List<I> found = new ArrayList<>();
+        if ( !isEmpty() ) overlapping(getRoot(), point, point, true, found);
+        return found;
+    }
+
+    /**
+     * @param from The start of the range, included
+     * @param to   The end of the range, excluded
+     *
+     * @return The intervals that share at least a point with the range [from, to), ordered by start
+     */
+    public List<I> overlapping( P from, P to ) {
+        List<I> found = new ArrayList<>();
+        if ( !isEmpty() && from.compareTo(to) < 0 ) overlapping(getRoot(), from, to, false, found);
+        return found;
+    }
+
+    /**
+     * Adds to the list the intervals of the subtree that overlap the range, in order.
+     *
+     * @param inclusive true if the range ends at 'to' included (a point), false if it ends before it
+     *
+     * @return false once an interval starting after the range has been reached, so nothing else can overlap it
+     */
+    @SuppressWarnings("unchecked")
+    private boolean overlapping( Node23<I> current, P from, P to, boolean inclusive, List<I> found ) {
+        if ( current == null ) return true;
+
+        P maxEnd = (P) ((AugmentedNode23<I>) current).summary;
+        if ( maxEnd.compareTo(from) <= 0 ) return true; // Everything here ends before the range
+
+        if ( !overlapping(current.getLeft(), from, to, inclusive, found) ) return false;
+        if ( !visit(current.getLeftElement(), from, to, inclusive, found) ) return false;
+        if ( !overlapping(current.getMid(), from, to, inclusive, found) ) return false;
+
+        if ( current.getRightElement() != null ) {
+            if ( !visit(current.getRightElement(), from, to, inclusive, found) ) return false;
+            return overlapping(current.getRight(), from, to, inclusive, found);
+        }
+        return true;
+    }
+
+    // Adds the interval if it overlaps the range, returns false if it starts after the range
+    private boolean visit( I interval, P from, P to, boolean inclusive, List<I> found ) {
+        int start = interval.getStart().compareTo(to);
+        if ( inclusive ? start > 0 : start >= 0 ) return false;
+
+        if ( interval.getEnd().compareTo(from) > 0 ) found.add(interval);
+        return true;
+    }
+
+    /**
+     * Creates a copy of this tree.
+     *
+     * @return A copy of this IntervalTree23 instance
+     */
+    @Override
+    public IntervalTree23<P, I> clone() {
+        IntervalTree23<P, I> clone = new IntervalTree23<>();
+        forEach(clone::add);
+        return clone;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * A compact log-linear histogram of latencies measured in nanoseconds.
+ * <p>
+ * Every power of two is split in {@value #SUB_BUCKETS} linear sub-buckets, so the value reported for a percentile is
+ * at most 1/{@value #SUB_BUCKETS} away from the real one, using a fixed array of counters whatever the range of the
+ * values recorded is. Recording a value is a couple of bit operations and an increment, it never allocates.
+ * <p>
+ * This class is not thread safe. Concurrent writers should record into their own instance and {@link #add(LatencyHistogram) add}
+ * them together when reporting.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records a new value.
+     *
+     * @param nanos The latency to record, negative values are recorded as 0
+     */
+    public void record( long nanos ) {
+        if ( nanos < 0 ) nanos = 0;
+
+        counts[bucket(nanos)]++;
+        count++;
+        total += nanos;
+        if ( nanos < min ) min = nanos;
+        if ( nanos > max ) max = nanos;
+    }
+
+    /**
+     * Adds all the values recorded by another histogram to this one.
+     *
+     * @param other The histogram to add
+     */
+    public void add( LatencyHistogram other ) {
+        for ( int i = 0; i < counts.length; i++ ) counts[i] += other.counts[i];
+        count += other.count;
+        total += other.total;
+        if ( other.min < min ) min = other.min;
+        if ( other.max > max ) max = other.max;
+    }
+
+    /**
+     * Removes all the values recorded.
+     */
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * @param percentile The percentile to look for, between 0 and 100
+     *
+     * @return The highest value of the bucket holding the percentile given, or 0 if the histogram is empty
+     */
+    public long getPercentile( double percentile ) {
+        if ( count == 0 ) return 0;
+
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        if ( rank < 1 ) rank = 1;
+
+        long seen = 0;
+        for ( int i = 0; i < counts.length; i++ ) {
+            seen += counts[i];
+            if ( seen >= rank ) return Math.min(max, Math.max(min, highestValue(i)));
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + Math.round(getMean()) + "ns, p50=" + getPercentile(50) +
+               "ns, p99=" + getPercentile(99) + "ns, p99.9=" + getPercentile(99.9) + "ns, max=" + max + "ns";
+    }
+
+    // Values below SUB_BUCKETS get a bucket each, the rest are grouped by their highest bit and the SUB_BITS below it
+    private static int bucket( long value ) {
+        if ( value < SUB_BUCKETS ) return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long highestValue( int bucket ) {
+        if ( bucket < SUB_BUCKETS ) return bucket;
+
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long base = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return base + (1L << shift) - 1;
+    }
+}
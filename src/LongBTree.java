@@ -0,0 +1,325 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A B-Tree of primitive long keys, like timestamps, with a vectorized search inside the nodes.
+ * <p>
+ * It works as {@link BTree} but the keys are stored unboxed in the arrays of the nodes, so a node visit doesn't follow
+ * any reference to the keys and the search in a node can compare a key against several of them with a single SIMD
+ * instruction. The search used is {@link LongKeySearch#best()}: the Vector API one if {@code src-vector} has been
+ * compiled and the JVM runs with {@code --add-modules jdk.incubator.vector}, a binary search if not.
+ * <p>
+ * Every node but the root has between ceil(m/2) - 1 and m - 1 keys, and every leaf is at the same level.
+ */
+public class LongBTree {
+
+    public static final int DEFAULT_ORDER = 32;
+
+    private final int order;         // Max number of children of a node
+    private final int minKeys;       // Min number of keys of a node, but the root
+    private final LongKeySearch search;
+
+    private LongBTreeNode root;
+    private int size;
+
+    private boolean addition;        // A flag to know if the last key has been added correctly or not
+    private long promoted;           // The key going up after a split
+
+    public LongBTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order The max number of children of a node, at least 3
+     */
+    public LongBTree( int order ) {
+        this(order, LongKeySearch.best());
+    }
+
+    /**
+     * @param order  The max number of children of a node, at least 3
+     * @param search The search of a key inside a node
+     */
+    public LongBTree( int order, LongKeySearch search ) {
+        if ( order < 3 ) throw new IllegalArgumentException("The order of a B-Tree must be at least 3: " + order);
+
+        this.order = order;
+        this.minKeys = (order + 1) / 2 - 1;
+        this.search = search;
+    }
+
+    /**
+     * @return The max number of children of a node
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * @return The search used inside the nodes
+     */
+    public LongKeySearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Adds a new key to the tree keeping it balanced.
+     *
+     * @param key The key to add
+     *
+     * @return If the key has been added (true) or not because it already exists (false)
+     */
+    public boolean add( long key ) {
+        if ( root == null ) root = new LongBTreeNode(order, search.lanes(), true);
+
+        addition = false;
+
+        LongBTreeNode right = addKey(root, key);
+
+        if ( right != null ) { // The root has been split, the tree grows one level
+            LongBTreeNode newRoot = new LongBTreeNode(order, search.lanes(), false);
+            newRoot.keys[0] = promoted;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.count = 1;
+            root = newRoot;
+        }
+
+        if ( addition ) size++;
+
+        return addition;
+    }
+
+    // Same as BTree.addElement: returns the new node on the right if the current one has been split
+    private LongBTreeNode addKey( LongBTreeNode current, long key ) {
+        int i = search.search(current.keys, current.count, key);
+
+        if ( i >= 0 ) return null; // Already exists
+
+        i = -i - 1;
+
+        if ( current.isLeaf() ) {
+            current.insert(i, key, null);
+            addition = true;
+        } else {
+            LongBTreeNode right = addKey(current.children[i], key);
+
+            if ( right == null ) return null;
+
+            current.insert(i, promoted, right);
+        }
+
+        return current.count == order ? split(current) : null;
+    }
+
+    private LongBTreeNode split( LongBTreeNode current ) {
+        int mid = order / 2;
+        LongBTreeNode right = new LongBTreeNode(order, search.lanes(), current.isLeaf());
+
+        right.count = current.count - mid - 1;
+        System.arraycopy(current.keys, mid + 1, right.keys, 0, right.count);
+        if ( !current.isLeaf() ) {
+            System.arraycopy(current.children, mid + 1, right.children, 0, right.count + 1);
+            Arrays.fill(current.children, mid + 1, current.count + 1, null);
+        }
+
+        promoted = current.keys[mid];
+        Arrays.fill(current.keys, mid, current.count, Long.MAX_VALUE);
+        current.count = mid;
+
+        return right;
+    }
+
+    /**
+     * Deletes a key from the tree.
+     *
+     * @param key The key to delete
+     *
+     * @return True if the key has been deleted, false if not (the key was not in the tree)
+     */
+    public boolean remove( long key ) {
+        if ( isEmpty() ) return false;
+
+        boolean deleted = remove(root, key);
+
+        if ( root.count == 0 ) root = root.isLeaf() ? null : root.children[0];
+
+        if ( deleted ) size--;
+
+        return deleted;
+    }
+
+    private boolean remove( LongBTreeNode current, long key ) {
+        int i = search.search(current.keys, current.count, key);
+
+        if ( current.isLeaf() ) {
+            if ( i < 0 ) return false;
+            current.delete(i);
+            return true;
+        }
+
+        boolean deleted;
+        int child;
+
+        if ( i >= 0 ) {
+            child = i;
+            current.keys[i] = removeMax(current.children[i]);
+            deleted = true;
+        } else {
+            child = -i - 1;
+            deleted = remove(current.children[child], key);
+        }
+
+        if ( current.children[child].count < minKeys ) rebalance(current, child);
+
+        return deleted;
+    }
+
+    private long removeMax( LongBTreeNode current ) {
+        if ( current.isLeaf() ) {
+            long max = current.keys[current.count - 1];
+            current.delete(current.count - 1);
+            return max;
+        }
+
+        int child = current.count;
+        long max = removeMax(current.children[child]);
+
+        if ( current.children[child].count < minKeys ) rebalance(current, child);
+
+        return max;
+    }
+
+    // Same as BTree.rebalance: takes a key from a sibling or merges with one
+    private void rebalance( LongBTreeNode parent, int i ) {
+        LongBTreeNode current = parent.children[i];
+
+        if ( i > 0 && parent.children[i - 1].count > minKeys ) {
+            LongBTreeNode left = parent.children[i - 1];
+
+            System.arraycopy(current.keys, 0, current.keys, 1, current.count);
+            current.keys[0] = parent.keys[i - 1];
+            if ( !current.isLeaf() ) {
+                System.arraycopy(current.children, 0, current.children, 1, current.count + 1);
+                current.children[0] = left.children[left.count];
+                left.children[left.count] = null;
+            }
+            current.count++;
+
+            parent.keys[i - 1] = left.keys[left.count - 1];
+            left.keys[left.count - 1] = Long.MAX_VALUE;
+            left.count--;
+
+        } else if ( i < parent.count && parent.children[i + 1].count > minKeys ) {
+            LongBTreeNode right = parent.children[i + 1];
+
+            current.keys[current.count] = parent.keys[i];
+            if ( !current.isLeaf() ) current.children[current.count + 1] = right.children[0];
+            current.count++;
+
+            parent.keys[i] = right.keys[0];
+
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            right.keys[right.count - 1] = Long.MAX_VALUE;
+            if ( !right.isLeaf() ) {
+                System.arraycopy(right.children, 1, right.children, 0, right.count);
+                right.children[right.count] = null;
+            }
+            right.count--;
+
+        } else merge(parent, i > 0 ? i - 1 : i);
+    }
+
+    private void merge( LongBTreeNode parent, int i ) {
+        LongBTreeNode left = parent.children[i];
+        LongBTreeNode right = parent.children[i + 1];
+
+        left.keys[left.count] = parent.keys[i];
+        System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+        if ( !left.isLeaf() ) System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+        left.count += right.count + 1;
+
+        parent.delete(i);
+    }
+
+    /**
+     * @param key The key to find
+     *
+     * @return true if this tree contains the key, false if not
+     */
+    public boolean contains( long key ) {
+        LongBTreeNode current = root;
+
+        while ( current != null ) {
+            int i = search.search(current.keys, current.count, key);
+
+            if ( i >= 0 ) return true;
+            if ( current.isLeaf() ) return false;
+
+            current = current.children[-i - 1];
+        }
+        return false;
+    }
+
+    /**
+     * @return The min key of the tree
+     *
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long findMin() {
+        if ( isEmpty() ) throw new NoSuchElementException("The tree is empty");
+
+        LongBTreeNode current = root;
+        while ( !current.isLeaf() ) current = current.children[0];
+        return current.keys[0];
+    }
+
+    /**
+     * @return The max key of the tree
+     *
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long findMax() {
+        if ( isEmpty() ) throw new NoSuchElementException("The tree is empty");
+
+        LongBTreeNode current = root;
+        while ( !current.isLeaf() ) current = current.children[current.count];
+        return current.keys[current.count - 1];
+    }
+
+    /**
+     * @return the number of levels of the tree (max deep)
+     */
+    public long getLevel() {
+        LongBTreeNode current = root;
+        int level = 0;
+
+        while ( current != null ) {
+            level++;
+            current = current.isLeaf() ? null : current.children[0];
+        }
+        return level;
+    }
+
+    /**
+     * @return The number of keys inside of the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if the tree is empty, false if not
+     */
+    public boolean isEmpty() {
+        return root == null || root.count == 0;
+    }
+
+    /**
+     * Removes all of the keys.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+/**
+ * A node of a {@link LongBTree}.
+ * <p>
+ * The keys are primitive longs sorted in an array. The array is longer than the max number of keys, up to a multiple
+ * of the lanes of the search, and every slot after the last key holds {@link Long#MAX_VALUE}, so the search can
+ * compare whole vectors of keys (see {@link LongKeySearch}).
+ */
+public class LongBTreeNode {
+
+    final long[] keys;
+    LongBTreeNode[] children;    // null in the leaves
+    int count;                   // Number of keys in the node
+
+    LongBTreeNode( int order, int lanes, boolean leaf ) {
+        keys = new long[(order + lanes - 1) / lanes * lanes];
+        Arrays.fill(keys, Long.MAX_VALUE);
+        if ( !leaf ) children = new LongBTreeNode[order + 1];
+    }
+
+    public boolean isLeaf() {
+        return children == null;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getKey( int i ) {
+        return keys[i];
+    }
+
+    public LongBTreeNode getChild( int i ) {
+        return children[i];
+    }
+
+    /**
+     * Inserts a key, and the child on its right if this isn't a leaf, at the position given.
+     */
+    void insert( int i, long key, LongBTreeNode right ) {
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        keys[i] = key;
+
+        if ( children != null ) {
+            System.arraycopy(children, i + 1, children, i + 2, count - i);
+            children[i + 1] = right;
+        }
+        count++;
+    }
+
+    /**
+     * Deletes the key at the position given and, if this isn't a leaf, the child on its right.
+     */
+    void delete( int i ) {
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        keys[count - 1] = Long.MAX_VALUE;
+
+        if ( children != null ) {
+            System.arraycopy(children, i + 2, children, i + 1, count - i - 1);
+            children[count] = null;
+        }
+        count--;
+    }
+}
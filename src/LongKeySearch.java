@@ -0,0 +1,55 @@
+import java.util.Arrays;
+
+/**
+ * Search of a key inside the sorted keys of a node of a {@link LongBTree}.
+ * <p>
+ * The keys of a node are in {@code keys[0 .. count - 1]} and every slot after them holds {@link Long#MAX_VALUE}, up
+ * to the length of the array, which is a multiple of {@link #lanes()}. That padding lets a vectorized implementation
+ * compare whole vectors without masking the tail.
+ */
+public interface LongKeySearch {
+
+    /**
+     * @param keys  The keys of the node, sorted
+     * @param count The number of keys in the node
+     * @param key   The key to find
+     *
+     * @return The position of the key if it is in the node, or (-(insertion point) - 1) if not, as
+     *         {@link Arrays#binarySearch(long[], int, int, long)} does
+     */
+    int search( long[] keys, int count, long key );
+
+    /**
+     * @return The number of keys compared at once, the key arrays of the nodes are padded to a multiple of it
+     */
+    default int lanes() {
+        return 1;
+    }
+
+    /**
+     * @return A binary search
+     */
+    static LongKeySearch scalar() {
+        return ( keys, count, key ) -> Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    /**
+     * The vectorized search is in the optional source root {@code src-vector}, compiled apart with
+     * {@code --add-modules jdk.incubator.vector}, and needs the module enabled when running too. Without it, or with
+     * the system property {@code tree23.vector=false}, the binary search is used.
+     *
+     * @return The fastest search available in this JVM
+     */
+    static LongKeySearch best() {
+        if ( !Boolean.parseBoolean(System.getProperty("tree23.vector", "true")) ) return scalar();
+
+        if ( ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() ) {
+            try {
+                return (LongKeySearch) Class.forName("VectorLongKeySearch").getDeclaredConstructor().newInstance();
+            } catch ( ReflectiveOperationException | LinkageError e ) {
+                // src-vector not compiled, the binary search will do
+            }
+        }
+        return scalar();
+    }
+}
@@ -1,14 +1,34 @@
+import java.io.IOException;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
 /**
  * Using the menu, we have access to the functions for processing a 2-3-tree.
+ * <p>
+ * With arguments, it runs in batch mode instead: the operations are read from files and run without the menu, see
+ * {@link Batch}. With {@code --serve[=port]} it serves a tree to other processes of the host, see {@link Tree23Server}.
  *
  * @author Nicholas
  */
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        if (args.length == 1 && args[0].startsWith("--serve")) {
+            int port = args[0].startsWith("--serve=") ? Tree23Server.parsePort(args[0].substring(8)) : Tree23Server.DEFAULT_PORT;
+            if (port < 0 || !args[0].equals("--serve") && !args[0].startsWith("--serve=")) {
+                System.err.println("Invalid option " + args[0]);
+                System.err.println("Usage: java Main --serve[=port], with a port from 0 to 65535");
+                System.exit(1);
+            }
+            Tree23Server.serve(port);
+            return;
+        }
+        if (args.length > 0) {
+            int status = Batch.run(args);
+            if (status != 0) System.exit(status);
+            return;
+        }
 
         Tree23<Integer> tree = new Tree23<>();
         Scanner scanner = new Scanner(System.in);
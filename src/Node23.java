@@ -152,191 +152,112 @@ public class Node23<T> {
     }
 
 
-    public T replaceMax() {
-
-        T max;
-
-        if ( !isLeaf() ) { // Recursive case, we are not on the deepest level
-
-            if ( getRightElement() != null )
-                 max = right.replaceMax(); // If there is an element on the right, we continue on the right
-            else max = mid.replaceMax();  // else, we continue on the mid
-
-        } else {    // Trivial case, we are on the deepest level of the tree
-
-            if ( getRightElement() != null ) {
-
-                max = getRightElement();
-
-                setRightElement(null);
-                // We are luck, we don't need to rebalance anything
-            } else {
-
-                max = getLeftElement();
-
-                setLeftElement(null);
-
-                // On the first up of the recursive function, there will be a rebalance
-            }
-        }
-
-        if ( !isBalanced() ) rebalance(); // Keep calm and rebalance
-
-        return max;
-    }
-
-    public T replaceMin() {
-
-        T min;
-
-        if ( !isLeaf() ) { // Recursive case, as long as we do not reach the deepest level we always go down to the left
-
-            min = left.replaceMin();
-
-        } else { // Trivial case, we take the item and try to leave it all pretty
-
-            min = leftElement;
-
-            leftElement = null;
-
-            if ( rightElement != null ) { // There was element on the right, we passed it on the left and nothing happened here!
-
-                leftElement = rightElement;
-
-                rightElement = null;
-
-            }
-        }
-
-        if ( !isBalanced() ) { // This situation occurs when there was no element on the right, in the 1st rebalancing rise
-
-            rebalance();
-        }
-
-        return min;
-    }
-
-
     /**
-     * Rebalances the deepest level of the tree from the second deepest.
+     * Repairs a child of this node that has been left empty by a removal (its left element is null). An empty
+     * internal child keeps its only remaining subtree on the left.
      * <p>
-     * The algorithm tries to put one element in each child, but there is a critical case where we must balance the
-     * tree from a higher level removing the current level.
+     * If an adjacent sibling is a 3 Node, one of its elements rotates through this node into the empty child and
+     * nothing else changes. If not, the empty child is merged with a 2 Node sibling and the element that separates them
+     * in this node. A merge takes one element from this node, so when this node was a 2 Node it becomes empty itself
+     * and the caller has to repair it one level up.
+     *
+     * @return true if the repair merged two children (this node lost an element), false if a rotation was enough
      */
-    public void rebalance() {
-
-        while (!isBalanced()) {
+    public boolean rebalance() {
 
-            if ( getLeft().getLeftElement() == null ) { // The unbalance is in the left child
+        int empty = 0;
 
-                // We put the left element of current node as the left element of the left child
-                getLeft().setLeftElement(getLeftElement());
+        while ( child(empty).getLeftElement() != null ) empty++;
 
-                // Now we replace the left element of the mid child as the left element of the current node
-                setLeftElement(getMid().getLeftElement());
-
-                // If a right element on the mid child exists, we shift it to the left
-                if ( getMid().getRightElement() != null ) {
-
-                    getMid().setLeftElement(getMid().getRightElement());
-
-                    getMid().setRightElement(null);
-                }
-
-                // Else, we let the mid child EMPTY, so the next iteration may solve this situation
-                // if not, the party of the critical case starts here!
-                else {
-
-                    getMid().setLeftElement(null);
-                }
+        // A 3 Node sibling can give us one element, we try the left one first
+        if ( empty > 0 && child(empty - 1).is3Node() ) {
 
-            } else if ( getMid().getLeftElement() == null ) { // The unbalance is in the right child
+            Node23<T> sibling = child(empty - 1);
+            Node23<T> current = child(empty);
 
-                // CRITICAL CASE, each node (child) of the deepest level have just one element (the right is empty)
-                // the algorithm will have to rebalance from a higher level of the tree
-                if ( getRightElement() == null ) {
+            current.setLeftElement(element(empty - 1));
+            current.setMid(current.getLeft());
+            current.setLeft(sibling.getRight());
 
-                    if ( getLeft().getLeftElement() != null && getLeft().getRightElement() == null && getMid().getLeftElement() == null ) {
+            setElement(empty - 1, sibling.getRightElement());
 
-                        setRightElement(getLeftElement());
+            sibling.setRightElement(null);
+            sibling.setRight(null);
 
-                        setLeftElement(getLeft().getLeftElement());
-
-                        // Let the party starts, we remove the current child
-                        setLeft(null);
-                        setMid(null);
-                        setRight(null);
-                    } else {
-                        getMid().setLeftElement(getLeftElement());
-
-                        if ( getLeft().getRightElement() == null ) {
+            return false;
+        }
 
-                            setLeftElement(getLeft().getLeftElement());
+        if ( empty < 2 && child(empty + 1) != null && child(empty + 1).is3Node() ) {
 
-                            getLeft().setLeftElement(null);
+            Node23<T> sibling = child(empty + 1);
+            Node23<T> current = child(empty);
 
-                        } else {
+            current.setLeftElement(element(empty));
+            current.setMid(sibling.getLeft());
 
-                            setLeftElement(getLeft().getRightElement());
+            setElement(empty, sibling.getLeftElement());
 
-                            getLeft().setRightElement(null);
-                        }
+            sibling.setLeftElement(sibling.getRightElement());
+            sibling.setRightElement(null);
+            sibling.setLeft(sibling.getMid());
+            sibling.setMid(sibling.getRight());
+            sibling.setRight(null);
 
-                        if ( getLeft().getLeftElement() == null && getMid().getLeftElement() == null ) {
+            return false;
+        }
 
-                            // The other but same case the party starts
-                            setLeft(null);
-                            setMid(null);
-                            setRight(null);
-                        }
-                    }
-                } else {
+        // Every sibling is a 2 Node, so the empty child is merged with one of them
+        if ( empty > 0 ) {
 
-                    // We put the right element of the current node as the left element of the mid son
-                    getMid().setLeftElement(getRightElement());
+            Node23<T> sibling = child(empty - 1);
 
-                    // We put the left element of the right child as the right element of the current node
-                    setRightElement(getRight().getLeftElement());
+            sibling.setRightElement(element(empty - 1));
+            sibling.setRight(child(empty).getLeft());
 
-                    // If the right child, where we have taken the last element has a right element, we move it
-                    // into the left of the same child
-                    if ( getRight().getRightElement() != null ) {
+            removeChild(empty, empty - 1);
+        } else {
 
-                        getRight().setLeftElement(getRight().getRightElement());
+            Node23<T> sibling = child(1);
 
-                        getRight().setRightElement(null);
-                    } else { // Else, we let the right child EMPTY
+            sibling.setRightElement(sibling.getLeftElement());
+            sibling.setLeftElement(element(0));
+            sibling.setRight(sibling.getMid());
+            sibling.setMid(sibling.getLeft());
+            sibling.setLeft(child(0).getLeft());
 
-                        getRight().setLeftElement(null);
-                    }
-                }
+            removeChild(0, 0);
+        }
 
-                // Unbalance in the right child
-            } else if ( getRightElement() != null && getRight().getLeftElement() == null ) {
+        return true;
+    }
 
+    // Removes the child at the position given and one of the elements of the node, shifting the rest to the left.
+    // A 2 Node is left empty with its only child on the left
+    private void removeChild( int child, int element ) {
 
-                /*
-                 * In this case we can have two situations:
-                 *
-                 * (1) The mid child is full, so we have to do a shift of the elements to the right
-                 *
-                 * (2) The mid child only has the left element, then we have to put the right element
-                 * 	   of the current node as the right element of the mid child
-                 */
-                if ( getMid().getRightElement() != null ) { // (1)
+        for ( int i = child; i < 2; i++ ) setChild(i, child(i + 1));
+        setChild(2, null);
 
-                    getRight().setLeftElement(getRightElement());
+        if ( element == 0 ) setLeftElement(getRightElement());
+        setRightElement(null);
+    }
 
-                    setRightElement(getMid().getRightElement());
+    private Node23<T> child( int i ) {
+        return i == 0 ? left : i == 1 ? mid : right;
+    }
 
-                    getMid().setRightElement(null);
-                } else { // (2)
+    private void setChild( int i, Node23<T> child ) {
+        if ( i == 0 ) left = child;
+        else if ( i == 1 ) mid = child;
+        else right = child;
+    }
 
-                    getMid().setRightElement(getRightElement());
+    private T element( int i ) {
+        return i == 0 ? leftElement : rightElement;
+    }
 
-                    setRightElement(null);
-                }
-            }
-        }
+    private void setElement( int i, T element ) {
+        if ( i == 0 ) leftElement = element;
+        else rightElement = element;
     }
 }
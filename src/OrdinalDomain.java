@@ -0,0 +1,45 @@
+/**
+ * A small finite set of values numbered from 0 to size - 1 in the same order as their compareTo method, like the 52
+ * cards of a deck or the constants of an enum.
+ * <p>
+ * It lets a {@link DenseTree} store a set of those values as a bitset.
+ *
+ * @param <T> The type of the values
+ */
+public interface OrdinalDomain<T extends Comparable<T>> {
+
+    /**
+     * @return The number of values of the domain
+     */
+    int size();
+
+    /**
+     * @param value A value of the domain
+     *
+     * @return Its position, between 0 and size - 1. For two values a and b, a.compareTo(b) < 0 if and only if
+     *         ordinal(a) < ordinal(b)
+     */
+    int ordinal( T value );
+
+    /**
+     * @param ordinal A position between 0 and size - 1
+     *
+     * @return The value at that position
+     */
+    T fromOrdinal( int ordinal );
+
+    /**
+     * @param type The class of the enum
+     *
+     * @return The domain of the constants of an enum, in declaration order
+     */
+    static <E extends Enum<E>> OrdinalDomain<E> ofEnum( Class<E> type ) {
+        E[] constants = type.getEnumConstants();
+
+        return new OrdinalDomain<>() {
+            public int size() { return constants.length; }
+            public int ordinal( E value ) { return value.ordinal(); }
+            public E fromOrdinal( int ordinal ) { return constants[ordinal]; }
+        };
+    }
+}
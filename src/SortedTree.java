@@ -0,0 +1,108 @@
+import java.util.Collection;
+
+/**
+ * The operations shared by the balanced search trees of this project, so code using them (and the benchmarks) can
+ * switch from one implementation to another.
+ * <p>
+ * Elements are unique and ordered by their compareTo method.
+ *
+ * @param <T> Generic element
+ */
+public interface SortedTree<T extends Comparable<T>> {
+
+    /**
+     * Adds a new element to the tree keeping it balanced.
+     *
+     * @param element The element to add
+     *
+     * @return If the element has been added (true) or not because it already exists (false)
+     */
+    boolean add( T element );
+
+    /**
+     * Adds all the elements into the tree.
+     *
+     * @param elements the collection of elements to add
+     *
+     * @return true if all the elements have been inserted, false if one or more elements could not be inserted because
+     *         they already exists
+     */
+    default boolean addAll( Collection<T> elements ) {
+        boolean ok = true;
+        for ( T e : elements ) {
+            if ( !add(e) ) ok = false;
+        }
+        return ok;
+    }
+
+    /**
+     * Deletes an element from the tree.
+     *
+     * @param element The element to delete
+     *
+     * @return True if the element has been deleted, false if not (the element was not in the tree)
+     */
+    boolean remove( T element );
+
+    /**
+     * Searches an element inside of the tree.
+     *
+     * @param element The element to find
+     *
+     * @return the element found or null if it doesn't exist
+     */
+    T find( T element );
+
+    /**
+     * @param element The element to find
+     *
+     * @return true if this tree contains the specified element, false if not
+     */
+    default boolean contains( T element ) {
+        return find(element) != null;
+    }
+
+    /**
+     * Finds an element inside the tree and replaces it with another one.
+     *
+     * @param which  The element to be modified
+     * @param update The update of the element
+     *
+     * @return true if the element has been found, false if not
+     */
+    default boolean modify( T which, T update ) {
+        if ( !remove(which) ) return false;
+        add(update);
+        return true;
+    }
+
+    /**
+     * @return The min element of the tree, or null if it is empty
+     */
+    T findMin();
+
+    /**
+     * @return The max element of the tree, or null if it is empty
+     */
+    T findMax();
+
+    /**
+     * @return the number of levels of the tree (max deep)
+     */
+    long getLevel();
+
+    /**
+     * @return The number of elements inside of the tree
+     */
+    int size();
+
+    /**
+     * @return True if the tree is empty, false if not
+     */
+    boolean isEmpty();
+
+    /**
+     * Removes all of the elements.
+     */
+    void clear();
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/**
+ * A node of a {@link StringTree23}.
+ * <p>
+ * The keys are UTF-8 bytes, compressed by prefix: every key of the subtree of a node starts with the prefixes of the
+ * node and of all its ancestors, so the node only stores the bytes its own prefix adds to the one of its parent, and
+ * its keys without the whole prefix. The prefix of a node is a common prefix of its subtree, not always the longest
+ * one: it gets shorter when a key that doesn't share it comes in, and longer only when the node is split, not when
+ * keys leave.
+ * <p>
+ * The byte arrays are never changed once stored, so several nodes can share the same one.
+ */
+final class StringNode23 {
+
+    static final byte[] EMPTY = new byte[0];
+
+    byte[] prefix;                  // The bytes added to the prefix of the parent
+    byte[] left, right;             // The keys after the prefix, right is null in a 2-node and left in an empty node
+    StringNode23 leftChild, mid, rightChild;
+
+    StringNode23( byte[] prefix, byte[] left ) {
+        this.prefix = prefix;
+        this.left = left;
+    }
+
+    StringNode23( byte[] prefix, byte[] left, StringNode23 leftChild, StringNode23 mid ) {
+        this(prefix, left);
+        this.leftChild = leftChild;
+        this.mid = mid;
+    }
+
+    boolean isLeaf() {
+        return leftChild == null;
+    }
+
+    static byte[] concat( byte[] a, byte[] b ) {
+        if ( a.length == 0 ) return b;
+        if ( b.length == 0 ) return a;
+
+        byte[] bytes = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, bytes, a.length, b.length);
+        return bytes;
+    }
+
+    /**
+     * Cuts the prefix of the node to its first bytes, moving the rest to the front of its keys and the prefixes of its
+     * children.
+     */
+    void shorten( int length ) {
+        byte[] cut = Arrays.copyOfRange(prefix, length, prefix.length);
+        prefix = length == 0 ? EMPTY : Arrays.copyOf(prefix, length);
+
+        if ( left != null ) left = concat(cut, left);
+        if ( right != null ) right = concat(cut, right);
+        if ( leftChild != null ) leftChild.prefix = concat(cut, leftChild.prefix);
+        if ( mid != null ) mid.prefix = concat(cut, mid.prefix);
+        if ( rightChild != null ) rightChild.prefix = concat(cut, rightChild.prefix);
+    }
+
+    /**
+     * Moves to the prefix of the node the bytes its keys and the prefixes of its children all start with, the inverse
+     * of {@link #shorten(int)}. Used on the two halves of a split node, whose keys are closer than the ones of the
+     * node they come from.
+     */
+    void lengthen() {
+        byte[] first = left;
+        int length = first.length;
+
+        for ( byte[] bytes : new byte[][]{ right, leftChild == null ? null : leftChild.prefix,
+                                           mid == null ? null : mid.prefix, rightChild == null ? null : rightChild.prefix } ) {
+            if ( bytes == null ) continue;
+            length = Math.min(length, bytes.length);
+            int mismatch = Arrays.mismatch(first, 0, length, bytes, 0, length);
+            if ( mismatch >= 0 ) length = mismatch;
+        }
+        if ( length == 0 ) return;
+
+        prefix = concat(prefix, Arrays.copyOf(first, length));
+        left = Arrays.copyOfRange(left, length, left.length);
+        if ( right != null ) right = Arrays.copyOfRange(right, length, right.length);
+        if ( leftChild != null ) leftChild.prefix = Arrays.copyOfRange(leftChild.prefix, length, leftChild.prefix.length);
+        if ( mid != null ) mid.prefix = Arrays.copyOfRange(mid.prefix, length, mid.prefix.length);
+        if ( rightChild != null ) rightChild.prefix = Arrays.copyOfRange(rightChild.prefix, length, rightChild.prefix.length);
+    }
+
+    /**
+     * Gets a key or a prefix relative to the parent ready to be stored in this node, shortening the prefix of the node
+     * if the bytes don't start with it.
+     *
+     * @return The bytes after the prefix of the node
+     */
+    byte[] relative( byte[] bytes ) {
+        int length = Math.min(prefix.length, bytes.length);
+        int matched = Arrays.mismatch(prefix, 0, length, bytes, 0, length);
+        if ( matched < 0 ) matched = length;
+
+        if ( matched < prefix.length ) shorten(matched);
+
+        return matched == 0 ? bytes : Arrays.copyOfRange(bytes, matched, bytes.length);
+    }
+
+    /**
+     * Hangs a subtree whose prefix is relative to the parent of this node from this node.
+     */
+    StringNode23 adopt( StringNode23 child ) {
+        if ( child != null ) child.prefix = relative(child.prefix);
+        return child;
+    }
+
+    /**
+     * Repairs the empty child of this node, borrowing a key from a 3-node sibling or merging it with a 2-node sibling.
+     * The keys and subtrees that move between the node and its children are stored again relative to their new node.
+     *
+     * @return true if two children have been merged, this node has one key less and may be left empty too
+     */
+    boolean rebalance() {
+        int empty = 0;
+        while ( child(empty).left != null ) empty++;
+
+        // The empty child takes the prefix of this node, its only subtree (if any) keeps its own
+        StringNode23 current = child(empty);
+        if ( current.leftChild != null ) current.leftChild.prefix = concat(current.prefix, current.leftChild.prefix);
+        current.prefix = EMPTY;
+
+        if ( empty > 0 && child(empty - 1).right != null ) {
+            StringNode23 sibling = child(empty - 1);
+
+            current.left = key(empty - 1);
+            current.mid = current.leftChild;
+            current.leftChild = up(sibling, sibling.rightChild);
+
+            setKey(empty - 1, concat(sibling.prefix, sibling.right));
+
+            sibling.right = null;
+            sibling.rightChild = null;
+            return false;
+        }
+
+        if ( empty < 2 && child(empty + 1) != null && child(empty + 1).right != null ) {
+            StringNode23 sibling = child(empty + 1);
+
+            current.left = key(empty);
+            current.mid = up(sibling, sibling.leftChild);
+
+            setKey(empty, concat(sibling.prefix, sibling.left));
+
+            sibling.left = sibling.right;
+            sibling.right = null;
+            sibling.leftChild = sibling.mid;
+            sibling.mid = sibling.rightChild;
+            sibling.rightChild = null;
+            return false;
+        }
+
+        // Every sibling is a 2-node, so the empty child is merged with one of them
+        if ( empty > 0 ) {
+            StringNode23 sibling = child(empty - 1);
+
+            sibling.right = sibling.relative(key(empty - 1));
+            sibling.rightChild = sibling.adopt(current.leftChild);
+
+            removeChild(empty, empty - 1);
+        }
+        else {
+            StringNode23 sibling = child(1);
+
+            // Shifted first, so shortening the prefix of the sibling doesn't reach the same child twice
+            sibling.right = sibling.left;
+            sibling.rightChild = sibling.mid;
+            sibling.mid = sibling.leftChild;
+            sibling.leftChild = null;
+            sibling.left = sibling.relative(key(0));
+            sibling.leftChild = sibling.adopt(current.leftChild);
+
+            removeChild(0, 0);
+        }
+        return true;
+    }
+
+    // A subtree of a child moved up to hang from another child: its prefix becomes relative to this node
+    private static StringNode23 up( StringNode23 from, StringNode23 subtree ) {
+        if ( subtree != null ) subtree.prefix = concat(from.prefix, subtree.prefix);
+        return subtree;
+    }
+
+    // Removes the child at the position given and one of the keys of the node, shifting the rest to the left
+    private void removeChild( int child, int key ) {
+        for ( int i = child; i < 2; i++ ) setChild(i, child(i + 1));
+        setChild(2, null);
+
+        if ( key == 0 ) left = right;
+        right = null;
+    }
+
+    private StringNode23 child( int i ) {
+        return i == 0 ? leftChild : i == 1 ? mid : rightChild;
+    }
+
+    private void setChild( int i, StringNode23 child ) {
+        if ( i == 0 ) leftChild = child;
+        else if ( i == 1 ) mid = child;
+        else rightChild = child;
+    }
+
+    private byte[] key( int i ) {
+        return i == 0 ? left : right;
+    }
+
+    private void setKey( int i, byte[] key ) {
+        if ( i == 0 ) left = key;
+        else right = key;
+    }
+}
@@ -0,0 +1,539 @@
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A 2-3 Tree of strings, for keys that share long prefixes like paths or URLs.
+ * <p>
+ * The keys are stored as UTF-8 bytes compressed by prefix (see {@link StringNode23}): each node keeps only the bytes
+ * its subtree adds to the prefix of its parent's, so a prefix shared by many keys is stored once per subtree instead
+ * of once per key. A search matches each byte of the key against those prefixes only once on the way down: once the
+ * prefix of a node has been matched, the keys of the node are compared from the first byte after it, instead of from
+ * the start as {@code String.compareTo} does at every level. If the key doesn't share the prefix of a subtree, it
+ * isn't in it, and the search stops there.
+ * <p>
+ * The keys are ordered by their UTF-8 bytes, which is the order of their code points: the same as
+ * {@link String#compareTo} but for the characters outside of the BMP, which go after U+E000 - U+FFFF instead of before.
+ * Strings with unpaired surrogates can't be encoded, they get a '?' in their place. Optionally, the keys are brought
+ * to a Unicode normal form before encoding them, so canonically equivalent strings are the same key; the tree then
+ * returns the normalized strings.
+ * <p>
+ * Like {@link Tree23}, this class is not thread safe.
+ */
+public class StringTree23 implements SortedTree<String>, Iterable<String> {
+
+    private final Normalizer.Form form;
+
+    private StringNode23 root;
+    private int size;
+
+    private boolean addition;       // A flag to know if the last key has been added correctly or not
+    private byte[] promoted;        // The key going up after a split, relative to the parent of the node split
+    private StringNode23 promotedNode; // The node split off on its right
+
+    public StringTree23() {
+        this(null);
+    }
+
+    /**
+     * @param form The Unicode normal form the keys are brought to, or null to store them as they are
+     */
+    public StringTree23( Normalizer.Form form ) {
+        this.form = form;
+    }
+
+    private byte[] encode( String key ) {
+        if ( form != null ) key = Normalizer.normalize(key, form);
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode( byte[] key ) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    // The number of bytes of a prefix matched by the key from the position given
+    private static int matched( byte[] key, int from, byte[] prefix ) {
+        int length = Math.min(prefix.length, key.length - from);
+        int mismatch = Arrays.mismatch(key, from, from + length, prefix, 0, length);
+        return mismatch < 0 ? length : mismatch;
+    }
+
+    // Compares the key from the position given with a key stored after the prefix of a node
+    private static int compare( byte[] key, int from, byte[] stored ) {
+        return Arrays.compareUnsigned(key, from, key.length, stored, 0, stored.length);
+    }
+
+    /**
+     * Adds a new key to the tree keeping it balanced.
+     *
+     * @param key The key to add
+     *
+     * @return If the key has been added (true) or not because it already exists (false)
+     */
+    @Override
+    public boolean add( String key ) {
+        byte[] bytes = encode(key);
+
+        if ( root == null ) {
+            // A single key is all prefix
+            root = new StringNode23(bytes, StringNode23.EMPTY);
+            size = 1;
+            return true;
+        }
+
+        addition = false;
+
+        if ( add(root, bytes, 0) ) {
+            // The root has been split, the tree grows one level
+            root = new StringNode23(StringNode23.EMPTY, promoted, root, promotedNode);
+            promoted = null;
+            promotedNode = null;
+        }
+
+        if ( addition ) size++;
+        return addition;
+    }
+
+    /**
+     * Goes down to the leaf where the key belongs, shortening on the way the prefixes that the key doesn't share, and
+     * splits the full nodes on the way up.
+     *
+     * @param from The number of bytes of the key matched by the prefixes of the ancestors of the node
+     *
+     * @return true if the node has been split: the key going up is in 'promoted' and the new node in 'promotedNode'
+     */
+    private boolean add( StringNode23 current, byte[] key, int from ) {
+        int matched = matched(key, from, current.prefix);
+        if ( matched < current.prefix.length ) current.shorten(matched);
+        from += matched;
+
+        int left = compare(key, from, current.left);
+        int right = current.right == null ? -1 : compare(key, from, current.right);
+
+        if ( left == 0 || right == 0 ) return false;
+
+        byte[] element;
+        StringNode23 subtree = null;
+
+        if ( current.isLeaf() ) {
+            addition = true;
+            element = Arrays.copyOfRange(key, from, key.length);
+        }
+        else {
+            StringNode23 child = left < 0 ? current.leftChild : right < 0 ? current.mid : current.rightChild;
+
+            if ( !add(child, key, from) ) return false;
+
+            element = promoted;
+            subtree = promotedNode;
+        }
+
+        // The new key (and the node on its right) goes after the key compared greater, or at the start
+        int position = left < 0 ? 0 : right < 0 ? 1 : 2;
+
+        if ( current.right == null ) {
+            if ( position == 0 ) {
+                current.right = current.left;
+                current.left = element;
+                current.rightChild = current.mid;
+                current.mid = subtree;
+            }
+            else {
+                current.right = element;
+                current.rightChild = subtree;
+            }
+            return false;
+        }
+
+        // Full: the node keeps the first key, the last one goes to a new node on its right and the middle one goes up
+        byte[] first, middle, last;
+        StringNode23 c0 = current.leftChild, c1 = current.mid, c2 = current.rightChild, c3 = subtree;
+
+        if ( position == 0 ) {
+            first = element; middle = current.left; last = current.right;
+            c3 = c2; c2 = c1; c1 = subtree;
+        }
+        else if ( position == 1 ) {
+            first = current.left; middle = element; last = current.right;
+            c3 = c2; c2 = subtree;
+        }
+        else {
+            first = current.left; middle = current.right; last = element;
+        }
+
+        current.left = first;
+        current.right = null;
+        current.leftChild = c0;
+        current.mid = c1;
+        current.rightChild = null;
+
+        promotedNode = new StringNode23(current.prefix, last, c2, c3);
+        promoted = StringNode23.concat(current.prefix, middle);
+
+        current.lengthen();
+        promotedNode.lengthen();
+        return true;
+    }
+
+    /**
+     * Deletes a key from the tree.
+     *
+     * @param key The key to delete
+     *
+     * @return True if the key has been deleted, false if not (the key was not in the tree)
+     */
+    @Override
+    public boolean remove( String key ) {
+        if ( root == null ) return false;
+
+        if ( !remove(root, encode(key), 0) ) return false;
+
+        size--;
+
+        if ( root.left == null ) {
+            // The root has been left empty, its only child (if any) is the new root
+            StringNode23 child = root.leftChild;
+            if ( child != null ) child.prefix = StringNode23.concat(root.prefix, child.prefix);
+            root = child;
+        }
+        return true;
+    }
+
+    private boolean remove( StringNode23 current, byte[] key, int from ) {
+        if ( matched(key, from, current.prefix) < current.prefix.length ) return false;
+        from += current.prefix.length;
+
+        int left = compare(key, from, current.left);
+        int right = current.right == null ? -1 : compare(key, from, current.right);
+
+        if ( current.isLeaf() ) {
+            if ( left == 0 ) {
+                current.left = current.right;
+                current.right = null;
+            }
+            else if ( right == 0 ) current.right = null;
+
+            return left == 0 || right == 0;
+        }
+
+        StringNode23 child;
+        boolean deleted = true;
+
+        // A key of an inner node is replaced by the max key on its left, which is always in a leaf
+        if ( left == 0 ) {
+            child = current.leftChild;
+            current.left = removeMax(child);
+        }
+        else if ( right == 0 ) {
+            child = current.mid;
+            current.right = removeMax(child);
+        }
+        else {
+            child = left < 0 ? current.leftChild : right < 0 ? current.mid : current.rightChild;
+            deleted = remove(child, key, from);
+        }
+
+        if ( child.left == null ) current.rebalance();
+
+        return deleted;
+    }
+
+    /**
+     * Removes the max key of a subtree, repairing the nodes left empty on the way up.
+     *
+     * @return The key, relative to the parent of the node
+     */
+    private byte[] removeMax( StringNode23 current ) {
+        byte[] max;
+
+        if ( current.isLeaf() ) {
+            if ( current.right != null ) {
+                max = current.right;
+                current.right = null;
+            }
+            else {
+                max = current.left;
+                current.left = null;
+            }
+        }
+        else {
+            StringNode23 child = current.right != null ? current.rightChild : current.mid;
+
+            max = removeMax(child);
+
+            if ( child.left == null ) current.rebalance();
+        }
+
+        return StringNode23.concat(current.prefix, max);
+    }
+
+    /**
+     * @param key The key to find
+     *
+     * @return true if the key is in the tree
+     */
+    public boolean contains( String key ) {
+        byte[] bytes = encode(key);
+        StringNode23 current = root;
+        int from = 0;
+
+        while ( current != null ) {
+            byte[] prefix = current.prefix;
+            if ( matched(bytes, from, prefix) < prefix.length ) return false;
+            from += prefix.length;
+
+            int left = compare(bytes, from, current.left);
+            if ( left == 0 ) return true;
+
+            if ( left < 0 ) current = current.leftChild;
+            else if ( current.right == null ) current = current.mid;
+            else {
+                int right = compare(bytes, from, current.right);
+                if ( right == 0 ) return true;
+                current = right < 0 ? current.mid : current.rightChild;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The key if it is in the tree (normalized if the tree normalizes its keys), or null if not
+     */
+    @Override
+    public String find( String key ) {
+        if ( !contains(key) ) return null;
+        return form == null ? key : Normalizer.normalize(key, form);
+    }
+
+    /**
+     * @param prefix The start of the keys
+     *
+     * @return The keys that start with the prefix given, in order
+     */
+    public List<String> prefix( String prefix ) {
+        byte[] bytes = encode(prefix);
+        List<String> keys = new ArrayList<>();
+
+        for ( Cursor cursor = new Cursor(bytes); cursor.hasNext(); ) {
+            byte[] key = cursor.nextKey();
+            if ( key.length < bytes.length || Arrays.mismatch(key, 0, bytes.length, bytes, 0, bytes.length) >= 0 ) break;
+            keys.add(decode(key));
+        }
+        return keys;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Cursor(null);
+    }
+
+    /**
+     * @param from The key to start from, it doesn't need to be in the tree
+     *
+     * @return The keys equal to or greater than the one given, in order
+     */
+    public Iterator<String> iterator( String from ) {
+        return new Cursor(encode(from));
+    }
+
+    /**
+     * Iterates the keys in order, keeping the path to the next key like {@link Tree23Iterator}, and the bytes of the
+     * prefixes of that path one after another in a buffer: each key is that buffer up to the prefix of its node,
+     * followed by the bytes of the key in the node.
+     */
+    private final class Cursor implements Iterator<String> {
+        private StringNode23[] nodes = new StringNode23[16];
+        private byte[] elements = new byte[16];   // The key of each node that comes next: 0 the left one, 1 the right one
+        private int[] ends = new int[16];         // The length of the prefix of each node
+        private int depth;
+
+        private byte[] buffer = new byte[64];
+
+        Cursor( byte[] from ) {
+            if ( root == null ) return;
+
+            if ( from == null ) pushFirst(root, 0);
+            else seek(root, 0, from, 0);
+        }
+
+        // Appends the prefix of a node after the one of its parent
+        private int enter( StringNode23 node, int end ) {
+            int length = end + node.prefix.length;
+            if ( length > buffer.length ) buffer = Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+            System.arraycopy(node.prefix, 0, buffer, end, node.prefix.length);
+            return length;
+        }
+
+        private void push( StringNode23 node, int element, int end ) {
+            if ( depth == nodes.length ) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                elements = Arrays.copyOf(elements, depth * 2);
+                ends = Arrays.copyOf(ends, depth * 2);
+            }
+            nodes[depth] = node;
+            elements[depth] = (byte) element;
+            ends[depth++] = end;
+        }
+
+        private void pushFirst( StringNode23 node, int end ) {
+            while ( node != null ) {
+                end = enter(node, end);
+                push(node, 0, end);
+                node = node.leftChild;
+            }
+        }
+
+        /**
+         * Goes down to the first key equal to or greater than 'from'. A subtree whose prefix goes before 'from' is
+         * skipped, and one whose prefix goes after it is taken whole.
+         */
+        private void seek( StringNode23 node, int end, byte[] from, int matched ) {
+            while ( node != null ) {
+                byte[] prefix = node.prefix;
+                int common = matched(from, matched, prefix);
+
+                if ( common < prefix.length ) {
+                    // 'from' ends inside the prefix or is lower at the first different byte: every key goes after it
+                    if ( matched + common == from.length || Byte.toUnsignedInt(from[matched + common]) < Byte.toUnsignedInt(prefix[common]) ) {
+                        pushFirst(node, end);
+                    }
+                    return;
+                }
+
+                end = enter(node, end);
+                matched += prefix.length;
+
+                int left = compare(from, matched, node.left);
+                if ( left <= 0 ) {
+                    push(node, 0, end);
+                    if ( left == 0 ) return;
+                    node = node.leftChild;
+                    continue;
+                }
+
+                int right = node.right == null ? 1 : compare(from, matched, node.right);
+                if ( right <= 0 ) {
+                    push(node, 1, end);
+                    if ( right == 0 ) return;
+                    node = node.mid;
+                }
+                else node = node.right == null ? node.mid : node.rightChild;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        byte[] nextKey() {
+            if ( depth == 0 ) throw new NoSuchElementException();
+
+            StringNode23 node = nodes[--depth];
+            int end = ends[depth];
+            nodes[depth] = null;
+
+            byte[] stored = elements[depth] == 0 ? node.left : node.right;
+            byte[] key = Arrays.copyOf(buffer, end + stored.length);
+            System.arraycopy(stored, 0, key, end, stored.length);
+
+            // The subtrees after the key write their prefixes past the end of this one, once it has been copied
+            if ( elements[depth] == 0 ) {
+                if ( node.right != null ) push(node, 1, end);
+                pushFirst(node.mid, end);
+            }
+            else pushFirst(node.rightChild, end);
+
+            return key;
+        }
+
+        @Override
+        public String next() {
+            return decode(nextKey());
+        }
+    }
+
+    /**
+     * @return The min key of the tree, or null if it is empty
+     */
+    @Override
+    public String findMin() {
+        if ( root == null ) return null;
+
+        byte[] key = StringNode23.EMPTY;
+        StringNode23 current = root;
+        for ( ; !current.isLeaf(); current = current.leftChild ) key = StringNode23.concat(key, current.prefix);
+
+        return decode(StringNode23.concat(StringNode23.concat(key, current.prefix), current.left));
+    }
+
+    /**
+     * @return The max key of the tree, or null if it is empty
+     */
+    @Override
+    public String findMax() {
+        if ( root == null ) return null;
+
+        byte[] key = StringNode23.EMPTY;
+        StringNode23 current = root;
+        while ( !current.isLeaf() ) {
+            key = StringNode23.concat(key, current.prefix);
+            current = current.right != null ? current.rightChild : current.mid;
+        }
+
+        key = StringNode23.concat(key, current.prefix);
+        return decode(StringNode23.concat(key, current.right != null ? current.right : current.left));
+    }
+
+    @Override
+    public long getLevel() {
+        long level = 0;
+        for ( StringNode23 current = root; current != null; current = current.leftChild ) level++;
+        return level;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Walks the whole tree, so it is meant for diagnostics.
+     *
+     * @return The number of bytes stored in the nodes, prefixes and keys, counting once the arrays shared by several
+     *         nodes. Compared with the UTF-8 length of all the keys, it tells the memory saved by the prefixes
+     */
+    public long getStoredBytes() {
+        Set<byte[]> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        return storedBytes(root, counted);
+    }
+
+    private static long storedBytes( StringNode23 node, Set<byte[]> counted ) {
+        if ( node == null ) return 0;
+
+        long bytes = 0;
+        if ( counted.add(node.prefix) ) bytes += node.prefix.length;
+        if ( counted.add(node.left) ) bytes += node.left.length;
+        if ( node.right != null && counted.add(node.right) ) bytes += node.right.length;
+
+        return bytes + storedBytes(node.leftChild, counted) + storedBytes(node.mid, counted) + storedBytes(node.rightChild, counted);
+    }
+}
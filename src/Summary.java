@@ -0,0 +1,82 @@
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An associative summary of a group of elements, like their count, the sum of a field or its max.
+ * <p>
+ * An {@link AugmentedTree23} keeps the summary of every subtree in its root node, combining the summaries of the
+ * children with the ones of the elements of the node, so the summary of any range of elements is computed combining
+ * O(log n) of them. For that, {@link #combine} must be associative and {@link #identity} must be its neutral element
+ * (a monoid). It doesn't need to be commutative: the summaries are always combined in the order of the elements.
+ *
+ * @param <T> The type of the elements
+ * @param <S> The type of the summary
+ */
+public interface Summary<T, S> {
+
+    /**
+     * @return The summary of no elements, neutral for combine
+     */
+    S identity();
+
+    /**
+     * @param element An element
+     *
+     * @return The summary of the element alone
+     */
+    S of( T element );
+
+    /**
+     * @param left  The summary of some elements
+     * @param right The summary of the elements following them
+     *
+     * @return The summary of all the elements
+     */
+    S combine( S left, S right );
+
+    /**
+     * @return The number of elements
+     */
+    static <T> Summary<T, Long> count() {
+        return of(0L, e -> 1L, Long::sum);
+    }
+
+    /**
+     * @param field The field to add up
+     *
+     * @return The sum of a numeric field of the elements
+     */
+    static <T> Summary<T, Long> sum( ToLongFunction<? super T> field ) {
+        return of(0L, field::applyAsLong, Long::sum);
+    }
+
+    /**
+     * @param field The field
+     *
+     * @return The min value of a numeric field of the elements, {@link Long#MAX_VALUE} if there are none
+     */
+    static <T> Summary<T, Long> min( ToLongFunction<? super T> field ) {
+        return of(Long.MAX_VALUE, field::applyAsLong, Math::min);
+    }
+
+    /**
+     * @param field The field
+     *
+     * @return The max value of a numeric field of the elements, {@link Long#MIN_VALUE} if there are none
+     */
+    static <T> Summary<T, Long> max( ToLongFunction<? super T> field ) {
+        return of(Long.MIN_VALUE, field::applyAsLong, Math::max);
+    }
+
+    /**
+     * @return A summary made of its three functions
+     */
+    static <T, S> Summary<T, S> of( S identity, Function<? super T, S> of, BinaryOperator<S> combine ) {
+        return new Summary<>() {
+            public S identity() { return identity; }
+            public S of( T element ) { return of.apply(element); }
+            public S combine( S left, S right ) { return combine.apply(left, right); }
+        };
+    }
+}
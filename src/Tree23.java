@@ -1,7 +1,17 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -37,30 +47,344 @@ import java.util.function.Predicate;
  * @version 1.2.2 : Search enhanced and other minor improvements
  */
 
-public class Tree23<T extends Comparable<T>> {
+public class Tree23<T extends Comparable<T>> implements SortedTree<T>, Iterable<T> {
 
 	private Node23<T> root;              // The root of the tree
 	
 	private int size;              // Number of elements inside of the tree
+
+	private int nodes;              // Number of nodes and leaves, kept by every change for the statistics
+	private int leaves;
+
+	private int compaction;         // Elements repacked after each change while the tree is sparse, 0 if disabled
+	private double compactionFill;  // The fill factor under which the tree is repacked
+	private T compacted;            // The last element repacked, null to start again from the first one
 	
 	private boolean addition;       // A flag to know if the last element has been added correctly or not
 
+	private T promoted;             // The element going up after a split while joining subtrees
+	private Node23<T> promotedNode; // The node split off with it
+	private Subtree<T> splitRight;  // The right part of the last subtree split
+
+	// Batches of at least size / BULK_DIVISOR elements are removed building the tree again instead of one by one
+	private static final int BULK_DIVISOR = 16;
+
+	// Batches of keys of at least this size are split among the threads of the common pool by findAllParallel
+	private static final int PARALLEL_PROBES = 1024;
+
+	// Runs of keys of up to this size are sorted by insertion by findAll and containsAll
+	private static final int INSERTION_SORT = 8;
+
+	// Bulk loads are built in subtrees of up to this many elements, each one in a thread of the common pool
+	private static final int PARALLEL_BUILD = 1 << 14;
+
+	/**
+	 * A subtree and its height, to split and join subtrees. An empty subtree has a null root and height 0.
+	 */
+	private static final class Subtree<T> {
+		final Node23<T> root;
+		final int height;
+
+		Subtree(Node23<T> root, int height) {
+			this.root = root;
+			this.height = height;
+		}
+	}
+
+	private Tree23Metrics metrics;  // Internal counters, null while the metrics are disabled
+
+	private Tree23ChangeFeed<T> changes;  // The change feed, null while it is disabled
+
+	private T min;                  // The min and max elements, cached for first/last and the poll methods
+	private T max;
+
+	private final Summary<T, Object> summary;  // The summary kept by each node, null if the tree isn't augmented
+
 	public Tree23() {
 		
-		this.root = new Node23<>();
-
-		size = 0;
+		this((Summary<T, ?>) null);
 	}
 
+	/**
+	 * Creates a tree with the elements of a collection, taking once the ones repeated (the first one, like adding them
+	 * one by one would). Instead of adding them one by one, the elements are sorted with a parallel sort, the repeated
+	 * ones dropped in parallel chunks and the tree built in linear time, the large subtrees in the threads of the
+	 * common fork-join pool, so a large initial load takes every core.
+	 *
+	 * @param elements The elements, in any order
+	 */
     public Tree23(Collection<T> elements) {
 
-        this.root = new Node23<>();
-
-        this.size = 0;
+        this((Summary<T, ?>) null);
 
-		elements.forEach(this::add);	// Java 8
+		load(elements);
     }
 
+	/**
+	 * Creates a tree whose nodes keep a summary of their subtrees, see {@link AugmentedTree23}.
+	 *
+	 * @param summary The summary, or null for a plain tree
+	 */
+	@SuppressWarnings("unchecked")
+	Tree23(Summary<T, ?> summary) {
+
+		this.summary = (Summary<T, Object>) summary;
+
+		this.root = summary == null ? new Node23<>() : new AugmentedNode23<>();
+
+		this.size = 0;
+	}
+
+	/**
+	 * Builds a tree from sorted elements in linear time, creating the nodes level by level instead of adding the
+	 * elements one by one.
+	 *
+	 * @param sorted The elements, in strictly ascending order
+	 * @param count  The number of elements to take from the start of the array
+	 *
+	 * @return A balanced tree with the elements given
+	 *
+	 * @throws IllegalArgumentException if the elements are not in strictly ascending order
+	 */
+	public static <T extends Comparable<T>> Tree23<T> fromSorted(T[] sorted, int count) {
+		for(int i = 1; i < count; i++) {
+
+			if(sorted[i - 1].compareTo(sorted[i]) >= 0)
+				throw new IllegalArgumentException("The elements are not in strictly ascending order at position " + i);
+		}
+
+		Tree23<T> tree = new Tree23<>();
+
+		if(count > 0) tree.rebuild(sorted, count, false);
+
+		return tree;
+	}
+
+	/**
+	 * Replaces the elements of the tree with the ones given, building it again in linear time.
+	 *
+	 * @param sorted The elements, in strictly ascending order
+	 * @param count  The number of elements to take from the start of the array
+	 * @param packed true to fill the nodes as much as possible, false to leave room for new elements
+	 */
+	private void rebuild(T[] sorted, int count, boolean packed) {
+		int height = heightFor(count);
+
+		nodes = 0;
+		leaves = 0;
+
+		root = count > 0 ? build(sorted, 0, count, height, packed) : null;
+		size = count;
+		min = count > 0 ? sorted[0] : null;
+		max = count > 0 ? sorted[count - 1] : null;
+
+		if(metrics != null) metrics.height = height;
+	}
+
+	// The lowest height where a number of elements fit, a full tree of 3-nodes of height h holds 3^h - 1 elements
+	private static int heightFor(int count) {
+		int height = 0;
+		if(count > 0) {
+
+			height = 1;
+			for(long capacity = 2; capacity < count; capacity = capacity * 3 + 2) height++;
+		}
+
+		return height;
+	}
+
+	/**
+	 * Builds a subtree of the height given with the elements from the position given. A subtree of height h holds
+	 * between 2^h - 1 and 3^h - 1 elements, so the elements are shared out as evenly as possible between two children
+	 * or, if they don't fit in two, three.
+	 *
+	 * Packed, the node takes three children whenever they can have the min elements of their height, and the children
+	 * on the left are filled up first, so most of the nodes end up as 3-nodes.
+	 */
+	private Node23<T> build(T[] sorted, int from, int count, int height, boolean packed) {
+		if(height == 1) {
+
+			Node23<T> leaf = newNode(sorted[from]);
+			if(count == 2) leaf.setRightElement(sorted[from + 1]);
+			if(summary != null) update(leaf);
+			nodes++;
+			leaves++;
+			return leaf;
+		}
+
+		int[] share = share(count, height, packed);
+		int children = share[0], left = share[1], mid = share[2];
+
+		Node23<T> node = newNode(sorted[from + left],
+				build(sorted, from, left, height - 1, packed),
+				build(sorted, from + left + 1, mid, height - 1, packed));
+
+		if(children == 3) {
+
+			node.setRightElement(sorted[from + left + 1 + mid]);
+			node.setRight(build(sorted, from + left + mid + 2, count - left - mid - 2, height - 1, packed));
+		}
+
+		if(summary != null) update(node);
+
+		nodes++;
+
+		return node;
+	}
+
+	/**
+	 * Shares out the elements of a subtree built by {@link #build} between the children of its root.
+	 *
+	 * @return The number of children, and the elements of the left child and of the mid one. The root takes one
+	 *         element after each child but the last one, and the right child (if any) the rest
+	 */
+	private static int[] share(int count, int height, boolean packed) {
+		long childCapacity = 1;
+		for(int i = 1; i < height; i++) childCapacity *= 3;
+		childCapacity--;
+
+		int children, left, mid;
+
+		if(packed) {
+
+			long childMin = (1L << (height - 1)) - 1;
+
+			children = count - 2 >= 3 * childMin ? 3 : 2;
+			int inChildren = count - (children - 1);
+
+			left = (int) Math.min(childCapacity, inChildren - (children - 1) * childMin);
+			mid = children == 2 ? inChildren - left : (int) Math.min(childCapacity, inChildren - left - childMin);
+		}
+		else {
+
+			children = count - 1 <= 2 * childCapacity ? 2 : 3;
+			int inChildren = count - (children - 1);
+
+			left = (inChildren + children - 1) / children;
+			mid = children == 2 ? inChildren - left : (inChildren - left + 1) / 2;
+		}
+
+		return new int[]{ children, left, mid };
+	}
+
+	/**
+	 * Loads the elements of a collection into the empty tree: sorts them in parallel, drops the repeated ones and
+	 * builds the tree with {@link Build}.
+	 */
+	@SuppressWarnings("unchecked")
+	private void load(Collection<? extends T> elements) {
+		T[] sorted = (T[]) elements.toArray(new Comparable<?>[0]);
+
+		Arrays.parallelSort(sorted);	// Stable, so the first of the repeated elements comes first
+		sorted = distinct(sorted);
+
+		if(sorted.length == 0) return;
+
+		Build build = new Build(sorted, 0, sorted.length, heightFor(sorted.length));
+		root = ForkJoinPool.commonPool().invoke(build);
+
+		nodes = build.nodes;
+		leaves = build.leaves;
+		size = sorted.length;
+		min = sorted[0];
+		max = sorted[sorted.length - 1];
+	}
+
+	/**
+	 * Drops the repeated elements of a sorted array, keeping the first one of each run. The array is cut in chunks that
+	 * count their distinct elements and copy them in parallel, each one to its place after the ones of the chunks on
+	 * its left.
+	 *
+	 * @return The distinct elements, the same array if there are no repeated ones
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends Comparable<T>> T[] distinct(T[] sorted) {
+		int chunks = (sorted.length + PARALLEL_BUILD - 1) / PARALLEL_BUILD;
+		int[] offsets = new int[chunks + 1];
+
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int distinct = 0;
+			for(int i = c * PARALLEL_BUILD, end = Math.min(sorted.length, i + PARALLEL_BUILD); i < end; i++) {
+				if(i == 0 || sorted[i - 1].compareTo(sorted[i]) != 0) distinct++;
+			}
+			offsets[c + 1] = distinct;
+		});
+
+		for(int c = 0; c < chunks; c++) offsets[c + 1] += offsets[c];
+		if(offsets[chunks] == sorted.length) return sorted;
+
+		T[] distinct = (T[]) new Comparable<?>[offsets[chunks]];
+
+		IntStream.range(0, chunks).parallel().forEach(c -> {
+			int to = offsets[c];
+			for(int i = c * PARALLEL_BUILD, end = Math.min(sorted.length, i + PARALLEL_BUILD); i < end; i++) {
+				if(i == 0 || sorted[i - 1].compareTo(sorted[i]) != 0) distinct[to++] = sorted[i];
+			}
+		});
+
+		return distinct;
+	}
+
+	/**
+	 * Builds a subtree like {@link #build}, leaving room for new elements, forking a task per child while the subtree
+	 * has at least PARALLEL_BUILD elements. Each task counts its own nodes, since the counters of the tree can't be
+	 * shared between threads.
+	 */
+	@SuppressWarnings("serial")
+	private final class Build extends RecursiveTask<Node23<T>> {
+		private final T[] sorted;
+		private final int from, count, height;
+
+		int nodes, leaves;
+
+		Build(T[] sorted, int from, int count, int height) {
+			this.sorted = sorted;
+			this.from = from;
+			this.count = count;
+			this.height = height;
+		}
+
+		@Override
+		protected Node23<T> compute() {
+			if(count < PARALLEL_BUILD || height == 1) {
+
+				// A small subtree is built in this thread by a tree of its own, which counts the nodes
+				Tree23<T> part = new Tree23<>(summary);
+				Node23<T> node = part.build(sorted, from, count, height, false);
+
+				nodes = part.nodes;
+				leaves = part.leaves;
+				return node;
+			}
+
+			int[] share = share(count, height, false);
+			int children = share[0], left = share[1], mid = share[2];
+
+			List<Build> tasks = new ArrayList<>(3);
+			tasks.add(new Build(sorted, from, left, height - 1));
+			tasks.add(new Build(sorted, from + left + 1, mid, height - 1));
+			if(children == 3) tasks.add(new Build(sorted, from + left + mid + 2, count - left - mid - 2, height - 1));
+			invokeAll(tasks);
+
+			Node23<T> node = newNode(sorted[from + left], tasks.get(0).join(), tasks.get(1).join());
+
+			if(children == 3) {
+
+				node.setRightElement(sorted[from + left + 1 + mid]);
+				node.setRight(tasks.get(2).join());
+			}
+
+			if(summary != null) update(node);
+
+			nodes = 1;
+			for(Build task : tasks) {
+				nodes += task.nodes;
+				leaves += task.leaves;
+			}
+			return node;
+		}
+	}
+
 	/**
 	 * Adds a new element to the tree keeping it balanced.
 	 *
@@ -70,26 +394,59 @@ public class Tree23<T extends Comparable<T>> {
 	 */
 	public boolean add(T element) {
 
+		if(metrics != null) metrics.begin();
+
 		size++;
 
 		addition = false;
 
 		if(root == null || root.getLeftElement() == null) { // first case
 
-			if(root == null) root = new Node23<>();
+			if(root == null) root = summary == null ? new Node23<>() : new AugmentedNode23<>();
 
 			root.setLeftElement(element);
 
+			if(summary != null) update(root);
+
 			addition = true;
+
+			min = element;
+			max = element;
+
+			nodes = 1;
+			leaves = 1;
+
+			if(metrics != null) metrics.height = 1;
 		}
 		else {
 
 			Node23<T> newRoot = addElement(root, element); // Immersion
 
-			if(newRoot != null) root = newRoot;
+			if(newRoot != null) {
+
+				root = newRoot;
+
+				nodes++;
+
+				if(metrics != null) metrics.height++;
+			}
+
+			if(addition) {
+
+				if(compare(element, min) < 0) min = element;
+				else if(compare(element, max) > 0) max = element;
+			}
 		}
 
 		if(!addition) size--;
+		else {
+
+			if(changes != null) changes.publish(Tree23Change.Type.ADD, element, null);
+
+			compactIfSparse();
+		}
+
+		if(metrics != null) metrics.end(Tree23Metrics.Operation.ADD);
 
 		return addition;
 	}
@@ -171,13 +528,13 @@ public class Tree23<T extends Comparable<T>> {
 
 		    Node23<T> sonAscended;
 
-			if  (current.getLeftElement().compareTo(element) == 0 ||
-				(current.is3Node() && current.getRightElement().compareTo(element) == 0)) {
+			if  (compare(current.getLeftElement(), element) == 0 ||
+				(current.is3Node() && compare(current.getRightElement(), element) == 0)) {
 
 				// Already exists. This condition can be modified for the particular needs of any programmer
 			}
 			// The new element is smaller than the left element
-			else if (current.getLeftElement().compareTo(element) > 0) {
+			else if (compare(current.getLeftElement(), element) > 0) {
 
 				sonAscended = addElement(current.getLeft(), element);
 
@@ -196,15 +553,15 @@ public class Tree23<T extends Comparable<T>> {
 					else { // In this case we have a new split, so the current element in the left will go up
 
 						// We copy the right part of the subtree
-						Node23<T> rightCopy = new Node23<>(current.getRightElement(), null, current.getMid(), current.getRight());
+						Node23<T> rightCopy = newNode(current.getRightElement(), current.getMid(), current.getRight());
 
 						// Now we create the new "structure", pasting the right part
-						newParent = new Node23<>(current.getLeftElement(), null, sonAscended, rightCopy);
+						newParent = newNode(current.getLeftElement(), sonAscended, rightCopy);
 					}
 				}
 
 				// Case: the ascended element is bigger than the left element and less than the right element
-			} else if (current.is2Node() || (current.is3Node() && current.getRightElement().compareTo(element) > 0)) {
+			} else if (current.is2Node() || (current.is3Node() && compare(current.getRightElement(), element) > 0)) {
 
 				sonAscended = addElement(current.getMid(), element);
 
@@ -219,20 +576,20 @@ public class Tree23<T extends Comparable<T>> {
 					}
 					else { // Another case we have to split again
 
-						Node23<T> leftNode 	= new Node23<>(current.getLeftElement(), null, current.getLeft(), sonAscended.getLeft());
-						Node23<T> midNode 	= new Node23<>(current.getRightElement(), null, sonAscended.getMid(), current.getRight());
-						newParent 	= new Node23<>(sonAscended.getLeftElement(), null, leftNode, midNode);
+						Node23<T> leftNode 	= newNode(current.getLeftElement(), current.getLeft(), sonAscended.getLeft());
+						Node23<T> midNode 	= newNode(current.getRightElement(), sonAscended.getMid(), current.getRight());
+						newParent 	= newNode(sonAscended.getLeftElement(), leftNode, midNode);
 					}
 				}
 				// The new element is bigger than the right element
-			} else if (current.is3Node() && current.getRightElement().compareTo(element) < 0) {
+			} else if (current.is3Node() && compare(current.getRightElement(), element) < 0) {
 
 				sonAscended = addElement(current.getRight(), element);
 
 				if (sonAscended != null) { // Split, the right element goes up
 
-					Node23<T> leftCopy   = new Node23<>(current.getLeftElement(), null, current.getLeft(), current.getMid());
-					newParent       = new Node23<>(current.getRightElement(), null, leftCopy, sonAscended);
+					Node23<T> leftCopy   = newNode(current.getLeftElement(), current.getLeft(), current.getMid());
+					newParent       = newNode(current.getRightElement(), leftCopy, sonAscended);
 				}
 			}
 		}
@@ -241,25 +598,44 @@ public class Tree23<T extends Comparable<T>> {
 			addition = true;
 
 			// The element already exists
-			if (current.getLeftElement().compareTo(element) == 0 || (current.is3Node() && current.getRightElement().compareTo(element) == 0)) {
+			if (compare(current.getLeftElement(), element) == 0 || (current.is3Node() && compare(current.getRightElement(), element) == 0)) {
 
 				addition = false;
 			}
 			else if (current.is2Node()) { // an easy case, there is not a right element
 
 				// if the current left element is bigger than the new one --> we shift the left element to the right
-				if (current.getLeftElement().compareTo(element) > 0) {
+				if (compare(current.getLeftElement(), element) > 0) {
 
 					current.setRightElement( current.getLeftElement());
 					current.setLeftElement( element);
 				}
 				// if the new element is bigger, we add it in the right directly
-				else if (current.getLeftElement().compareTo(element) < 0) current.setRightElement(element);
+				else if (compare(current.getLeftElement(), element) < 0) current.setRightElement(element);
 			}
 			// Case 3-node: there are 2 elements in the node and we want to add another one. We have to split the node
 			else newParent = split(current, element);
 		}
 
+		// A split leaves one node more
+		if(newParent != null) {
+
+			nodes++;
+			if(current.isLeaf()) leaves++;
+		}
+
+		// On the bottom up, the summaries of the nodes that have changed or have been created are computed again
+		if(summary != null && addition) {
+
+			if(newParent != null) {
+
+				update(newParent.getLeft());
+				update(newParent.getMid());
+				update(newParent);
+			}
+			else update(current);
+		}
+
 		return newParent;
 	}
 
@@ -273,39 +649,132 @@ public class Tree23<T extends Comparable<T>> {
 	private Node23<T> split(Node23<T> current, T element) {
         Node23<T> newParent = null;
 
+        if(metrics != null) metrics.splits++;
+
         // The left element is bigger, so it will go up letting the new element on the left
-        if (current.getLeftElement().compareTo(element) > 0) {
+        if (compare(current.getLeftElement(), element) > 0) {
 
-            Node23<T> left   = new Node23<>(element, null);
-            Node23<T> right  = new Node23<>(current.getRightElement(), null);
-            newParent   = new Node23<>(current.getLeftElement(), null, left, right);
+            Node23<T> left   = newNode(element);
+            Node23<T> right  = newNode(current.getRightElement());
+            newParent   = newNode(current.getLeftElement(), left, right);
 
-        } else if (current.getLeftElement().compareTo(element) < 0) {
+        } else if (compare(current.getLeftElement(), element) < 0) {
 
             // The new element is bigger than the current on the right and less than the right element
             // The new element goes up
-            if (current.getRightElement().compareTo(element) > 0) {
+            if (compare(current.getRightElement(), element) > 0) {
 
-                Node23<T> left   = new Node23<>(current.getLeftElement(), null);
-                Node23<T> right  = new Node23<>(current.getRightElement(), null);
-                newParent   = new Node23<>(element, null, left, right);
+                Node23<T> left   = newNode(current.getLeftElement());
+                Node23<T> right  = newNode(current.getRightElement());
+                newParent   = newNode(element, left, right);
 
             } else { // The new element is the biggest one, so the current right element goes up
 
-                Node23<T> left   = new Node23<>(current.getLeftElement(), null);
-                Node23<T> right  = new Node23<>(element, null);
-                newParent   = new Node23<>(current.getRightElement(), null, left, right);
+                Node23<T> left   = newNode(current.getLeftElement());
+                Node23<T> right  = newNode(element);
+                newParent   = newNode(current.getRightElement(), left, right);
             }
         }
         return newParent;
     }
 
+	// Creates a leaf with one element
+	private Node23<T> newNode(T element) {
+		if(metrics != null) metrics.nodeAllocations++;
+		if(summary != null) return new AugmentedNode23<>(element, null);
+		return new Node23<>(element, null);
+	}
+
+	// Creates a 2-node with its two children
+	private Node23<T> newNode(T element, Node23<T> left, Node23<T> mid) {
+		if(metrics != null) metrics.nodeAllocations++;
+		if(summary != null) return new AugmentedNode23<>(element, null, left, mid);
+		return new Node23<>(element, null, left, mid);
+	}
+
+	// Computes again the summary of a node of an augmented tree from its elements and the summaries of its children
+	private void update(Node23<T> node) {
+		Object s = summary.identity();
+
+		if(node.getLeft() != null) s = summary.combine(s, ((AugmentedNode23<T>) node.getLeft()).summary);
+		if(node.getLeftElement() != null) s = summary.combine(s, summary.of(node.getLeftElement()));
+		if(node.getMid() != null) s = summary.combine(s, ((AugmentedNode23<T>) node.getMid()).summary);
+		if(node.getRightElement() != null) s = summary.combine(s, summary.of(node.getRightElement()));
+		if(node.getRight() != null) s = summary.combine(s, ((AugmentedNode23<T>) node.getRight()).summary);
+
+		((AugmentedNode23<T>) node).summary = s;
+	}
+
+	/**
+	 * Combines the summaries of the elements between two bounds, both included. Only the nodes on the paths to both
+	 * bounds are visited, any subtree between them is taken as a whole with the summary of its root.
+	 *
+	 * @param current   The current node
+	 * @param from      The lower bound, ignored if fromOpen
+	 * @param to        The upper bound, ignored if toOpen
+	 * @param fromOpen  true if every element of the subtree is at least the lower bound
+	 * @param toOpen    true if every element of the subtree is at most the upper bound
+	 *
+	 * @return The summary of the elements of the subtree inside the bounds
+	 */
+	Object aggregate(Node23<T> current, T from, T to, boolean fromOpen, boolean toOpen) {
+		if(current == null || current.getLeftElement() == null) return summary.identity();
+
+		if(fromOpen && toOpen) return ((AugmentedNode23<T>) current).summary;
+
+		Object s = summary.identity();
+		T left = current.getLeftElement(), right = current.getRightElement();
+
+		// Position of each element regarding the bounds
+		int leftFrom = fromOpen ? 1 : compare(left, from), leftTo = toOpen ? -1 : compare(left, to);
+		int rightFrom = fromOpen || right == null ? 1 : compare(right, from);
+		int rightTo = toOpen || right == null ? -1 : compare(right, to);
+
+		// The left child holds the elements below the left element
+		if(leftFrom > 0) s = summary.combine(s, aggregate(current.getLeft(), from, to, fromOpen, toOpen || leftTo <= 0));
+
+		if(leftFrom >= 0 && leftTo <= 0) s = summary.combine(s, summary.of(left));
+
+		// The mid child holds the elements between the left and the right element
+		if(leftTo < 0 && (right == null || rightFrom > 0))
+			s = summary.combine(s, aggregate(current.getMid(), from, to, fromOpen || leftFrom >= 0, toOpen || (right != null && rightTo <= 0)));
+
+		if(right != null) {
+
+			if(rightFrom >= 0 && rightTo <= 0) s = summary.combine(s, summary.of(right));
+
+			if(rightTo < 0) s = summary.combine(s, aggregate(current.getRight(), from, to, fromOpen || rightFrom >= 0, toOpen));
+		}
+
+		return s;
+	}
+
+	/**
+	 * @return The root of the tree, for the subclasses that walk it
+	 */
+	Node23<T> getRoot() {
+		return root;
+	}
+
+	// Every comparison between elements goes through here, so the metrics can count them
+	private int compare(T a, T b) {
+		if(metrics != null) metrics.comparisons++;
+		return a.compareTo(b);
+	}
+
 	/**
 	 * Removes all of the elements from this Tree23 instance.
 	 */
 	public void clear() {
 		this.size = 0;
 		this.root = null;	// GC do the rest
+		this.nodes = 0;
+		this.leaves = 0;
+		this.compacted = null;
+		this.min = null;
+		this.max = null;
+		if(metrics != null) metrics.height = 0;
+		if(changes != null) changes.publish(Tree23Change.Type.CLEAR, null, null);
 	}
 
 	/**
@@ -356,13 +825,18 @@ public class Tree23<T extends Comparable<T>> {
 	 * @return the element found or null if it doesn't exist
 	 */
 	public T find(T element) {
-		return find(root, element);
+		if(metrics == null) return find(root, element);
+
+		metrics.begin();
+		T found = find(root, element);
+		metrics.end(Tree23Metrics.Operation.FIND);
+		return found;
 	}
 
 	private T find(Node23<T> current, T element) {
 		T found = null;
 
-		if(current != null) {
+		if(current != null && current.getLeftElement() != null) {	// The root of an empty tree has no elements
 			// Trivial case, we have found the element
 			if (current.getLeftElement() != null && current.getLeftElement().equals(element))
 				found = current.getLeftElement();
@@ -372,13 +846,13 @@ public class Tree23<T extends Comparable<T>> {
 					found = current.getRightElement();
 				else {
 					// Recursive cases
-					if(current.getLeftElement().compareTo(element) > 0) {
+					if(compare(current.getLeftElement(), element) > 0) {
 						found = find(current.getLeft(), element);
 					}
-					else if(current.getRight() == null || current.getRightElement().compareTo(element) > 0) {
+					else if(current.getRight() == null || compare(current.getRightElement(), element) > 0) {
 						found = find(current.getMid(), element);
 					}
-					else if (current.getRightElement().compareTo(element) < 0) {
+					else if (compare(current.getRightElement(), element) < 0) {
 						found = find(current.getRight(), element);
 					}
 					else return null;
@@ -389,88 +863,525 @@ public class Tree23<T extends Comparable<T>> {
 	}
 
 	/**
-	 * @return The min element of the tree
+	 * Searches many elements at once. The elements are sorted and go down the tree together, each node splitting them
+	 * among its children with a binary search, so the upper levels are visited once for the whole batch instead of once
+	 * per element. Sorting costs up to k log k comparisons, counted in the metrics like the ones of the descent: a
+	 * batch of k close elements costs fewer than the k log n comparisons of k calls to find, down to a few per element
+	 * if they are given in order, while k elements scattered over the whole tree cost about as many.
+	 *
+	 * @param elements The elements to find
+	 *
+	 * @return The element found for each one given, in the order of the collection, or null for the ones not in the tree
 	 */
-	public T findMin() {
-		if (isEmpty()) return null;
-		return findMin(root);
+	public List<T> findAll(Collection<? extends T> elements) {
+		return findAll(elements, false);
 	}
 
-	// Immersion
-	private T findMin(Node23<T> current) {
-		if(current.getLeft() == null) return current.getLeftElement();	// trivial case
-		else return findMin(current.getLeft());						// recursive case
+	/**
+	 * Like {@link #findAll(Collection)}, but sorting the elements and going down the subtrees with large batches in
+	 * the threads of the common fork-join pool. Meant for batches of many thousands of elements; the comparisons done
+	 * by the threads are not counted in the metrics.
+	 *
+	 * @param elements The elements to find
+	 *
+	 * @return The element found for each one given, in the order of the collection, or null for the ones not in the tree
+	 */
+	public List<T> findAllParallel(Collection<? extends T> elements) {
+		return findAll(elements, true);
 	}
 
 	/**
-	 * @return The max element of the tree
+	 * Checks many elements at once in a single descent, like {@link #findAll(Collection)}, stopping at the first one
+	 * missing.
+	 *
+	 * @param elements The elements to look for
+	 *
+	 * @return true if every element is in the tree
 	 */
-	public T findMax() {
-		if (isEmpty()) return null;
-		return findMax(root);
+	public boolean containsAll(Collection<? extends T> elements) {
+		@SuppressWarnings("unchecked")
+		T[] keys = (T[]) elements.toArray(new Comparable<?>[0]);
+		sort(keys, null, keys.clone(), null, 0, keys.length, true);
+
+		return keys.length == 0 || !isEmpty() && findAll(root, keys, 0, keys.length, null, null, true);
 	}
 
-	// Immersion
-	private T findMax(Node23<T> current) {
-		// Recursive case
-		if(current.getRightElement() != null && current.getRight() != null)
-			return findMax(current.getRight());
-		else if(current.getMid() != null) return findMax(current.getMid());
+	@SuppressWarnings("unchecked")
+	private List<T> findAll(Collection<? extends T> elements, boolean parallel) {
+		T[] keys = (T[]) elements.toArray(new Comparable<?>[0]);
+		T[] found = (T[]) new Comparable<?>[keys.length];
 
-		// Trivial case
-		if(current.getRightElement() != null) return current.getRightElement();
-		else return current.getLeftElement();
-	}
+		if(isEmpty() || keys.length == 0) return Arrays.asList(found);
 
-    /**
-     * @return the number of levels of the tree (max deep)
-     */
-	public long getLevel() {
-		Node23<T> aux = root;
-        int level = 0;
+		// Sorts the elements along with their positions, to give back each element found in the place of the one looked for
+		int[] index = new int[keys.length];
+		for(int i = 0; i < index.length; i++) index[i] = i;
 
-        while(aux != null) {
-            aux = aux.getLeft();
-            level++;
-        }
+		if(parallel) {
+			ForkJoinPool.commonPool().invoke(new Sort(keys, index, keys.clone(), new int[keys.length], 0, keys.length));
+			ForkJoinPool.commonPool().invoke(new FindAll(root, keys, 0, keys.length, index, found));
+		}
+		else {
+			sort(keys, index, keys.clone(), new int[keys.length], 0, keys.length, true);
+			findAll(root, keys, 0, keys.length, index, found, true);
+		}
 
-        return level;
+		return Arrays.asList(found);
 	}
 
 	/**
-	 * Prints the elements of the tree in order.
+	 * Sorts the keys between 'from' and 'to' with a stable merge sort, moving the position of each key in 'index' along
+	 * with it. Two halves already in order are not merged, so a batch already sorted costs a comparison per key.
+	 *
+	 * @param index       The position of each key, or null
+	 * @param keyBuffer   Room for the keys while merging, as long as the keys
+	 * @param indexBuffer Room for the positions while merging, or null without positions
+	 * @param count       true to count the comparisons in the metrics
 	 */
-	public void inOrder() {
-		if (!isEmpty()) inOrder(root);    // Immersion
-		else System.out.print("The tree is empty");
-		System.out.println();
+	private void sort(T[] keys, int[] index, T[] keyBuffer, int[] indexBuffer, int from, int to, boolean count) {
+		if(to - from <= INSERTION_SORT) {
+			for(int i = from + 1; i < to; i++) {
+				T key = keys[i];
+				int position = index == null ? 0 : index[i], j = i;
+
+				for(; j > from && (count ? compare(keys[j - 1], key) : keys[j - 1].compareTo(key)) > 0; j--) {
+					keys[j] = keys[j - 1];
+					if(index != null) index[j] = index[j - 1];
+				}
+				keys[j] = key;
+				if(index != null) index[j] = position;
+			}
+			return;
+		}
 
+		int middle = (from + to) >>> 1;
+		sort(keys, index, keyBuffer, indexBuffer, from, middle, count);
+		sort(keys, index, keyBuffer, indexBuffer, middle, to, count);
+		merge(keys, index, keyBuffer, indexBuffer, from, middle, to, count);
 	}
 
-	private void inOrder( Node23<T> current) {
-		if(current != null) {
-			if(current.isLeaf()) {
-				System.out.print(current.getLeftElement() + " ");
-				if(current.getRightElement() != null)
-					System.out.print(current.getRightElement() + " ");
-			}
-			else {
-				inOrder(current.getLeft());
-				System.out.print(current.getLeftElement() + " ");
-				inOrder(current.getMid());
-				if(current.getRightElement() != null) {
-					if(!current.isLeaf())
-						System.out.print(current.getRightElement() + " ");
-					inOrder(current.getRight());
-				}
-			}
+	// Merges the sorted keys of [from, middle) and [middle, to), copying the first half aside
+	private void merge(T[] keys, int[] index, T[] keyBuffer, int[] indexBuffer, int from, int middle, int to, boolean count) {
+		if((count ? compare(keys[middle - 1], keys[middle]) : keys[middle - 1].compareTo(keys[middle])) <= 0) return;
+
+		System.arraycopy(keys, from, keyBuffer, from, middle - from);
+		if(index != null) System.arraycopy(index, from, indexBuffer, from, middle - from);
+
+		int i = from, j = middle, k = from;
+		while(i < middle && j < to) {
+			// Takes the one of the second half only if lower, to keep the equal keys in their order
+			boolean second = (count ? compare(keys[j], keyBuffer[i]) : keys[j].compareTo(keyBuffer[i])) < 0;
+			int source = second ? j++ : i++;
+
+			keys[k] = second ? keys[source] : keyBuffer[source];
+			if(index != null) index[k] = second ? index[source] : indexBuffer[source];
+			k++;
 		}
+
+		// The keys left in the second half are already in place
+		System.arraycopy(keyBuffer, i, keys, k, middle - i);
+		if(index != null) System.arraycopy(indexBuffer, i, index, k, middle - i);
 	}
 
 	/**
-	 * Prints the elements of the tree in order if they accomplish a condition.
-	 *
-	 * @param predicate The condition that an element must accomplish to be printed
+	 * Sorts a large range of keys like {@link #sort} forking a task per half, and a small one in the current thread.
+	 */
+	@SuppressWarnings("serial")
+	private final class Sort extends RecursiveAction {
+		private final T[] keys, keyBuffer;
+		private final int[] index, indexBuffer;
+		private final int from, to;
+
+		Sort(T[] keys, int[] index, T[] keyBuffer, int[] indexBuffer, int from, int to) {
+			this.keys = keys;
+			this.index = index;
+			this.keyBuffer = keyBuffer;
+			this.indexBuffer = indexBuffer;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from < PARALLEL_PROBES) {
+				sort(keys, index, keyBuffer, indexBuffer, from, to, false);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new Sort(keys, index, keyBuffer, indexBuffer, from, middle),
+					new Sort(keys, index, keyBuffer, indexBuffer, middle, to));
+			merge(keys, index, keyBuffer, indexBuffer, from, middle, to, false);
+		}
+	}
+
+	/**
+	 * Finds the sorted keys between 'from' and 'to' in a subtree.
+	 *
+	 * @param index The position in the result of each key, or null to only check if they are all in the subtree
+	 * @param found The elements found, by the position of their key
+	 * @param count true to count the comparisons in the metrics
+	 *
+	 * @return true if all the keys are in the subtree. If only checking, false as soon as one is missing
+	 */
+	private boolean findAll(Node23<T> current, T[] keys, int from, int to, int[] index, T[] found, boolean count) {
+		if(from == to) return true;
+		if(current == null) return false;	// Under a leaf: the keys left are not in the tree
+
+		int[] bounds = partition(current, keys, from, to, index, found, count);
+
+		// Only checking, the first key missing is enough
+		if(index == null) {
+			return findAll(current.getLeft(), keys, from, bounds[0], null, null, count)
+					&& findAll(current.getMid(), keys, bounds[1], bounds[2], null, null, count)
+					&& findAll(current.getRight(), keys, bounds[3], to, null, null, count);
+		}
+
+		boolean all = findAll(current.getLeft(), keys, from, bounds[0], index, found, count);
+		all &= findAll(current.getMid(), keys, bounds[1], bounds[2], index, found, count);
+		return findAll(current.getRight(), keys, bounds[3], to, index, found, count) && all;
+	}
+
+	/**
+	 * Partitions the sorted keys between 'from' and 'to' among the children of a node with a binary search by each
+	 * element of the node, and takes the keys equal to the elements as found.
+	 *
+	 * @return The bounds of the keys of each child: [from, b0) on the left, [b1, b2) in the mid and [b3, to) on the
+	 *         right, empty for the right child of a 2-node
+	 */
+	private int[] partition(Node23<T> current, T[] keys, int from, int to, int[] index, T[] found, boolean count) {
+		T left = current.getLeftElement(), right = current.getRightElement();
+
+		int b0 = bound(keys, from, to, left, count), b1 = equal(keys, b0, to, left, index, found, count);
+		int b2 = to, b3 = to;
+
+		if(right != null) {
+			b2 = bound(keys, b1, to, right, count);
+			b3 = equal(keys, b2, to, right, index, found, count);
+		}
+
+		return new int[]{ b0, b1, b2, b3 };
+	}
+
+	// The first key from 'from' that is not lower than the element
+	private int bound(T[] keys, int from, int to, T element, boolean count) {
+		while(from < to) {
+			int middle = (from + to) >>> 1;
+			if((count ? compare(keys[middle], element) : keys[middle].compareTo(element)) < 0) from = middle + 1;
+			else to = middle;
+		}
+		return from;
+	}
+
+	// Takes as found the keys equal to the element from 'from', returning the first one greater
+	private int equal(T[] keys, int from, int to, T element, int[] index, T[] found, boolean count) {
+		while(from < to && (count ? compare(keys[from], element) : keys[from].compareTo(element)) == 0) {
+			if(index != null) found[index[from]] = element;
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * Finds a large range of sorted keys in a subtree forking a task per child, and a small one in the current thread.
+	 */
+	@SuppressWarnings("serial")
+	private final class FindAll extends RecursiveAction {
+		private final Node23<T> current;
+		private final T[] keys;
+		private final int from, to;
+		private final int[] index;
+		private final T[] found;
+
+		FindAll(Node23<T> current, T[] keys, int from, int to, int[] index, T[] found) {
+			this.current = current;
+			this.keys = keys;
+			this.from = from;
+			this.to = to;
+			this.index = index;
+			this.found = found;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from < PARALLEL_PROBES || current.isLeaf()) {
+				findAll(current, keys, from, to, index, found, false);
+				return;
+			}
+
+			int[] bounds = partition(current, keys, from, to, index, found, false);
+
+			List<FindAll> tasks = new ArrayList<>(3);
+			if(bounds[0] > from) tasks.add(new FindAll(current.getLeft(), keys, from, bounds[0], index, found));
+			if(bounds[2] > bounds[1]) tasks.add(new FindAll(current.getMid(), keys, bounds[1], bounds[2], index, found));
+			if(to > bounds[3]) tasks.add(new FindAll(current.getRight(), keys, bounds[3], to, index, found));
+			invokeAll(tasks);
+		}
+	}
+
+	/**
+	 * @param element The element to look for
+	 *
+	 * @return The greatest element less than or equal to the one given, or null if there isn't any
+	 */
+	public T floor(T element) {
+		return nearest(element, true, true);
+	}
+
+	/**
+	 * @param element The element to look for
+	 *
+	 * @return The greatest element strictly less than the one given, or null if there isn't any
+	 */
+	public T lower(T element) {
+		return nearest(element, true, false);
+	}
+
+	/**
+	 * @param element The element to look for
+	 *
+	 * @return The least element greater than or equal to the one given, or null if there isn't any
+	 */
+	public T ceiling(T element) {
+		return nearest(element, false, true);
+	}
+
+	/**
+	 * @param element The element to look for
+	 *
+	 * @return The least element strictly greater than the one given, or null if there isn't any
+	 */
+	public T higher(T element) {
+		return nearest(element, false, false);
+	}
+
+	/**
+	 * A single descent from the root, like the one of find, remembering the best candidate seen on the way down. Every
+	 * time we go right of an element (for floor and lower) or left of it (for ceiling and higher), that element is
+	 * closer to the one given than any candidate seen before.
+	 *
+	 * @param element   The element to look for
+	 * @param below     true to look for the nearest element below, false for the nearest above
+	 * @param inclusive true if the element itself is a valid answer
+	 */
+	private T nearest(T element, boolean below, boolean inclusive) {
+		Node23<T> current = root;
+		T best = null;
+
+		while(current != null && current.getLeftElement() != null) {
+
+			int left = compare(element, current.getLeftElement());
+
+			if(left == 0 && inclusive) return current.getLeftElement();
+
+			// The element is on the left of the left element (or it is the left element and it doesn't count)
+			if(below ? left <= 0 : left < 0) {
+
+				if(!below) best = current.getLeftElement();
+				current = current.getLeft();
+			}
+			else {
+
+				if(below) best = current.getLeftElement();
+
+				if(current.getRightElement() == null) {
+
+					current = current.getMid();
+					continue;
+				}
+
+				int right = compare(element, current.getRightElement());
+
+				if(right == 0 && inclusive) return current.getRightElement();
+
+				if(below ? right <= 0 : right < 0) {
+
+					if(!below) best = current.getRightElement();
+					current = current.getMid();
+				}
+				else {
+
+					if(below) best = current.getRightElement();
+					current = current.getRight();
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * @return The min element of the tree, or null if it is empty. It is cached, so this is O(1)
+	 */
+	public T findMin() {
+		return min;
+	}
+
+	/**
+	 * @return The min element of the tree, in O(1)
+	 *
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public T first() {
+		if(min == null) throw new NoSuchElementException("The tree is empty");
+		return min;
+	}
+
+	// Immersion
+	private T findMin(Node23<T> current) {
+		if(current.getLeft() == null) return current.getLeftElement();	// trivial case
+		else return findMin(current.getLeft());						// recursive case
+	}
+
+	/**
+	 * @return The max element of the tree, or null if it is empty. It is cached, so this is O(1)
+	 */
+	public T findMax() {
+		return max;
+	}
+
+	/**
+	 * @return The max element of the tree, in O(1)
+	 *
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public T last() {
+		if(max == null) throw new NoSuchElementException("The tree is empty");
+		return max;
+	}
+
+	// Immersion
+	private T findMax(Node23<T> current) {
+		// Recursive case
+		if(current.getRightElement() != null && current.getRight() != null)
+			return findMax(current.getRight());
+		else if(current.getMid() != null) return findMax(current.getMid());
+
+		// Trivial case
+		if(current.getRightElement() != null) return current.getRightElement();
+		else return current.getLeftElement();
+	}
+
+    /**
+     * @return the number of levels of the tree (max deep)
+     */
+	public long getLevel() {
+		Node23<T> aux = root;
+        int level = 0;
+
+        while(aux != null) {
+            aux = aux.getLeft();
+            level++;
+        }
+
+        return level;
+	}
+
+	/**
+	 * Prints the elements of the tree in order.
+	 */
+	public void inOrder() {
+		if (!isEmpty()) inOrder(root);    // Immersion
+		else System.out.print("The tree is empty");
+		System.out.println();
+
+	}
+
+	private void inOrder( Node23<T> current) {
+		if(current != null) {
+			if(current.isLeaf()) {
+				System.out.print(current.getLeftElement() + " ");
+				if(current.getRightElement() != null)
+					System.out.print(current.getRightElement() + " ");
+			}
+			else {
+				inOrder(current.getLeft());
+				System.out.print(current.getLeftElement() + " ");
+				inOrder(current.getMid());
+				if(current.getRightElement() != null) {
+					if(!current.isLeaf())
+						System.out.print(current.getRightElement() + " ");
+					inOrder(current.getRight());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Performs an action for each element of the tree, in order.
+	 *
+	 * @param action The action to perform
+	 */
+	public void forEach(Consumer<? super T> action) {
+		if(!isEmpty()) forEach(root, action);	// Immersion
+	}
+
+	private void forEach(Node23<T> current, Consumer<? super T> action) {
+		if(current.isLeaf()) {
+			action.accept(current.getLeftElement());
+			if(current.getRightElement() != null) action.accept(current.getRightElement());
+		}
+		else {
+			forEach(current.getLeft(), action);
+			action.accept(current.getLeftElement());
+			forEach(current.getMid(), action);
+			if(current.getRightElement() != null) {
+				action.accept(current.getRightElement());
+				forEach(current.getRight(), action);
+			}
+		}
+	}
+
+	/**
+	 * @return An iterator over the elements of the tree, in order. It only keeps the path to the next element, and the
+	 *         tree must not change while it is used
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Tree23Iterator<>(root);
+	}
+
+	/**
+	 * @param from      The element to start from, it doesn't need to be in the tree
+	 * @param inclusive true to start at 'from' if it is in the tree, false to start after it
+	 *
+	 * @return An iterator over the elements of the tree from the one given, in order. Getting to the start costs a
+	 *         single descent
+	 */
+	public Iterator<T> iterator(T from, boolean inclusive) {
+		return new Tree23Iterator<>(root, from, inclusive);
+	}
+
+	/**
+	 * @return An iterator over the elements of the tree in reverse order, from the max one. It only keeps the path to
+	 *         the next element, so the last k elements cost O(log n + k)
+	 */
+	public Iterator<T> descendingIterator() {
+		return new Tree23Iterator<>(root, true);
+	}
+
+	/**
+	 * @param from      The element to start from, it doesn't need to be in the tree
+	 * @param inclusive true to start at 'from' if it is in the tree, false to start before it
+	 *
+	 * @return An iterator over the elements of the tree from the one given down to the min one
+	 */
+	public Iterator<T> descendingIterator(T from, boolean inclusive) {
+		return new Tree23Iterator<>(root, from, inclusive, true);
+	}
+
+	/**
+	 * @return A view of the elements of the tree in reverse order, without copying them. Every iteration starts again
+	 *         from the current max element
+	 */
+	public Iterable<T> descending() {
+		return this::descendingIterator;
+	}
+
+	/**
+	 * Prints the elements of the tree in order if they accomplish a condition.
+	 *
+	 * @param predicate The condition that an element must accomplish to be printed
 	 */
 	public void inOrder(Predicate<T> predicate) {
 
@@ -529,8 +1440,19 @@ public class Tree23<T extends Comparable<T>> {
 
 			modified = true;
 
-			remove(which);
-			add(update);
+			// Published as a single change, not as the removal and the addition
+			Tree23ChangeFeed<T> changes = this.changes;
+			this.changes = null;
+
+			try {
+				remove(which);
+				add(update);
+			}
+			finally {
+				this.changes = changes;
+			}
+
+			if(changes != null) changes.publish(Tree23Change.Type.MODIFY, update, which);
 		}
 
 		return modified;
@@ -681,193 +1603,814 @@ public class Tree23<T extends Comparable<T>> {
 	 * @return True if the element has been deleted, false if not (the element was not in the tree)
 	 */
 	public boolean remove(T element) {
-		boolean deleted;
+		if(isEmpty()) return false;
 
-        // We decrease the number of levels at the start, if the element is not deleted, we increase the value at the end
-        this.size--;
+		if(metrics != null) metrics.begin();
 
-		deleted = remove(root, element); // Immersion
-		
-		root.rebalance();
-		
-		if(root.getLeftElement() == null) root = null; // We have deleted the last element of the tree
+		boolean deleted = remove(root, element); // Immersion
+
+		if(deleted) {
+
+			this.size--;
+
+			removed(compare(element, min) == 0, compare(element, max) == 0);
+
+			if(changes != null) changes.publish(Tree23Change.Type.REMOVE, element, null);
+
+			compactIfSparse();
+		}
 
-        if(!deleted) this.size++;
+		if(metrics != null) metrics.end(Tree23Metrics.Operation.REMOVE);
 
 		return deleted;
 	}
 
 	/**
-	 * In a recursive way, the algorithm tries to find the element to delete from the tree.
-	 *
-	 * When it finds the element, we can have one of this two situations:
-	 *
-	 *
-	 * 		A. The element we have to delete was in the deepest level of the tree, where we know all the rebalance patterns
-	 * 			(see the method "rebalance" below implemented in the private class Node) so we will not have many troubles in
-	 * 			this case because there are not more levels below of the current one.
-	 *
-	 * 		B. The element to delete is not in the deepest level of the tree. In this situation we must force a swap.
-	 * 		   What we have to do is:
-	 *
-	 * 		   	- If we are deleting an element in the mid side, we are gonna replace it with the min value of the branch causing
-	 * 		   	  an unbalanced case but in the deepest level.
-	 *
-	 * 		   	- If the element to delete is in the right side of the tree, we replace that element with the max value of
-	 * 		   	  the branch. Then, we have a unbalanced case but in the deepest level.
+	 * Removes every element between two bounds, both included. Instead of removing the elements one by one, the tree is
+	 * split in three parts along the paths to both bounds, and the parts outside of the range are joined again, so the
+	 * subtrees inside of the range are detached whole: O(log n), plus O(k) to count the k elements removed.
 	 *
-	 * 			These processes achieves easy rebalance cases, excepting the critical case (full explained in the "rebalance" method):
+	 * @param from The lower bound, included
+	 * @param to   The upper bound, included
 	 *
-	 * 				- If after the deletion of the element a node has been empty and we don't have enough elements in the deepest level
-	 * 				  of the tree to rebalance it, the tree will be reorganized from a higher level which increases the cost.
-	 *
-	 *
-	 * @param current The current node where we are
-	 * @param element The element to delete
-	 * 
-	 * @return True if the element has been deleted or false if not
+	 * @return The number of elements removed
 	 */
-	private boolean remove(Node23<T> current, T element) {
-		boolean deleted = true;
+	public int removeRange(T from, T to) {
+		if(isEmpty() || compare(from, to) > 0) return 0;
 
-		// Trivial case, we are in the deepest level of the tree but we have not found the element (it does not exist)
-		if(current == null) deleted = false;
+		Subtree<T> left = split(new Subtree<>(root, (int) getLevel()), from, false);
+		Subtree<T> inside = split(splitRight, to, true);
+		Subtree<T> right = splitRight;
+		splitRight = null;
 
-		else {
-			// Recursive case, we are still finding the element to delete
-			if(!current.getLeftElement().equals(element)) {
-
-				// If there is no element in the right (2 Node) or the element to delete is less than the right element
-				if(current.getRightElement() == null || current.getRightElement().compareTo(element) > 0) {
-					
-					// The left element is bigger than the element to delete, so we go through the left child
-					if(current.getLeftElement().compareTo(element) > 0) {
-						
-						deleted = remove(current.getLeft(), element);
-					}
-					else { // If not, we go through the mid child
-						
-						deleted = remove(current.getMid(), element);
-					}
-				}
-				else {
+		int removed = detach(inside.root);
 
-					// If the element to delete does not equals the right element, we go through the right child
-					if(!current.getRightElement().equals(element)) {
-						
-						deleted = remove(current.getRight(), element);
-					}
-					else { // If not, we have found the element
+		Subtree<T> joined = join(left, right);
 
-						// Situation A, the element equals the right element of a leaf so we just have to delete it
-						if(current.isLeaf()) current.setRightElement(null);
+		root = joined.root;
+		size -= removed;
 
-						else { // We found the element but it is not in the leaf, this is the situation B
+		if(metrics != null) metrics.height = joined.height;
 
-							// We get the min element of the right branch, remove it from its current position and put it
-							// where we found the element to delete
-							T replacement = current.getRight().replaceMin();
+		if(root == null) {
 
-							current.setRightElement(replacement);
-						}
-					}
-				}
-			}
-			// The left element equals the element to delete
-			else {
-				
-				if(current.isLeaf()) { // Situation A
-
-					// The left element, the element to remove, is replaced by the right element
-					if(current.getRightElement() != null) { 
-						
-						current.setLeftElement(current.getRightElement());
-						
-						current.setRightElement(null);
-					}
-					else { // If there is no element in the right, a rebalance will be necessary
+			min = null;
+			max = null;
+		}
+		else {
 
-						current.setLeftElement(null); // We let the node empty
+			if(compare(min, from) >= 0) min = findMin(root);
+			if(compare(max, to) <= 0) max = findMax(root);
+		}
 
-						// We warn on the bottom up that a node has been deleted (is empty) and a rebalance is necessary
-						// in THAT level of the tree
-						return true;
-					}
-				}
-				else { // Situation B
+		return removed;
+	}
 
-					// We move the max element of the left branch where we have found the element
-					T replacement = current.getLeft().replaceMax();
-					
-					current.setLeftElement(replacement);
-				}
-			}
+	// Counts the elements of a detached subtree, publishing their removal
+	private int detach(Node23<T> current) {
+		if(current == null) return 0;
+
+		int count = detach(current.getLeft()) + detach(current.getMid()) + detach(current.getRight());
+
+		nodes--;
+		if(current.isLeaf()) leaves--;
+
+		if(changes != null) {
+
+			changes.publish(Tree23Change.Type.REMOVE, current.getLeftElement(), null);
+			if(current.getRightElement() != null) changes.publish(Tree23Change.Type.REMOVE, current.getRightElement(), null);
 		}
-			
-		if(current != null && !current.isBalanced()) {
-						
-			current.rebalance();  // The bottom level have to be rebalanced
+
+		return count + (current.getRightElement() != null ? 2 : 1);
+	}
+
+	/**
+	 * Removes all the elements of a collection. A few elements are removed one by one, but once they are a large part
+	 * of the tree, the elements left are taken in a single merge of the sorted collection with the tree, and the tree is
+	 * built again from them in linear time: O(n + m log m) instead of O(m log n).
+	 *
+	 * @param elements The elements to remove
+	 *
+	 * @return true if the tree has changed
+	 */
+	public boolean removeAll(Collection<? extends T> elements) {
+		if(isEmpty() || elements.isEmpty()) return false;
+
+		if(elements.size() < size / BULK_DIVISOR) {
+
+			boolean changed = false;
+			for(T element : elements) changed |= remove(element);
+			return changed;
 		}
-		else if(current != null && !current.isLeaf()) {
-			
-			boolean balanced = false;
-			
-			while(!balanced) {
-				
-				if(current.getRight() == null) {
 
-					// Critical case of the situation B at the left child
-					if(current.getLeft().isLeaf() && !current.getMid().isLeaf()) {
+		return retain(elements, false);
+	}
 
-						T replacement = current.getMid().replaceMin();
+	/**
+	 * Removes all the elements that aren't in a collection, taking the ones to keep in a single merge of the sorted
+	 * collection with the tree and building the tree again from them in linear time.
+	 *
+	 * @param elements The elements to keep
+	 *
+	 * @return true if the tree has changed
+	 */
+	public boolean retainAll(Collection<? extends T> elements) {
+		if(isEmpty()) return false;
 
-						T readdition = current.getLeftElement();
+		return retain(elements, true);
+	}
 
-						current.setLeftElement(replacement);
-						
-						add(readdition);
+	/**
+	 * Merges the tree with the sorted elements given, keeping the elements of the tree that are (or aren't) among
+	 * them, and builds the tree again with them if any has been dropped.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean retain(Collection<? extends T> elements, boolean inside) {
+		Object[] batch = elements.toArray();
+		Arrays.sort(batch);
 
-						// Critical case of hte situation B at the right child
-					} else if(!current.getLeft().isLeaf() && current.getMid().isLeaf()) {
+		T[] kept = (T[]) new Comparable<?>[size];
+		int count = 0, i = 0;
 
-						if(current.getRightElement() == null) {
+		for(T element : this) {
 
-							T replacement = current.getLeft().replaceMax();
+			while(i < batch.length && compare((T) batch[i], element) < 0) i++;
 
-							T readdition = current.getLeftElement();
+			boolean found = i < batch.length && compare((T) batch[i], element) == 0;
 
-							current.setLeftElement(replacement);
-							
-							add(readdition);
-						}
-					}
-				}
-				// It is important to note that we can't use the 'else' sentence because the situation could have changed in the if above
-				if(current.getRight() != null) {
-									
-					if(current.getMid().isLeaf() && !current.getRight().isLeaf()) {
+			if(found == inside) kept[count++] = element;
+			else if(changes != null) changes.publish(Tree23Change.Type.REMOVE, element, null);
+		}
 
-						current.getRight().rebalance();
-					}
-					if(current.getMid().isLeaf() && !current.getRight().isLeaf()) {
+		if(count == size) return false;
 
-						T replacement = current.getRight().replaceMin();
+		rebuild(kept, count, false);
 
-						T readdition = current.getRightElement();
+		return true;
+	}
 
-						current.setRightElement(replacement);
-						
-						add(readdition);
-					}
-					else balanced = true;
-				}
-				if(current.isBalanced()) balanced = true;
+	/**
+	 * Builds the tree again with its nodes as full as possible and the lowest height, in linear time. After many
+	 * removes the tree is left with plenty of 2-nodes, so it takes more nodes and levels than it needs; a compacted tree
+	 * is mostly 3-nodes, but its first adds split nodes again.
+	 */
+	@SuppressWarnings("unchecked")
+	public void compact() {
+		if(isEmpty()) return;
+
+		T[] sorted = (T[]) new Comparable<?>[size];
+		int count = 0;
+		for(T element : this) sorted[count++] = element;
+
+		rebuild(sorted, count, true);
+
+		compacted = null;
+	}
+
+	/**
+	 * Compacts the tree a few elements at a time, so a sparse tree gets dense without a long pause. From now on, while
+	 * the fill factor of the tree (see {@link Tree23Stats#getFillFactor()}) is under the one given, each add and remove
+	 * also repacks the next elements of the tree, going through it in order and starting again at the end.
+	 *
+	 * @param elements The number of elements repacked by each change, the work added to each one is O(elements + log n)
+	 * @param minFill  The fill factor under which the tree is repacked, from 0.5 (never) to 1 (always)
+	 */
+	public void enableCompaction(int elements, double minFill) {
+		if(elements < 1) throw new IllegalArgumentException("The number of elements must be positive: " + elements);
+
+		this.compaction = elements;
+		this.compactionFill = minFill;
+	}
+
+	/**
+	 * Stops compacting the tree on each change.
+	 */
+	public void disableCompaction() {
+		this.compaction = 0;
+		this.compacted = null;
+	}
+
+	// Repacks the next elements if the incremental compaction is enabled and the tree is sparse
+	private void compactIfSparse() {
+		if(compaction > 0 && size > 0 && size < compactionFill * 2 * nodes) compact(compaction);
+	}
+
+	/**
+	 * Repacks the next elements after the last ones repacked: the tree is split along the paths to the first and last
+	 * of them, the subtree between both paths is built again as packed as possible, and the three parts are joined,
+	 * so the work is O(elements + log n) whatever the size of the tree. Only as many elements as fill a subtree of
+	 * 3-nodes are taken (28, 82, 244...), a larger chunk would have to leave its nodes half empty.
+	 *
+	 * @param elements The max number of elements to repack, better a few hundred than a few
+	 *
+	 * @return true if the last element of the tree has been reached, the next call starts again from the first one
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean compact(int elements) {
+		if(elements < 1) throw new IllegalArgumentException("The number of elements must be positive: " + elements);
+
+		if(isEmpty()) return true;
+
+		// As many elements as fill a subtree of 3-nodes (3^h - 1), plus the two that go between the parts
+		int limit = elements;
+		if(elements >= 4) for(long full = 2; full + 2 <= elements; full = full * 3 + 2) limit = (int) full + 2;
+
+		T[] chunk = (T[]) new Comparable<?>[limit];
+		int count = 0;
+
+		Tree23Iterator<T> iterator = compacted == null ? new Tree23Iterator<>(root) : new Tree23Iterator<>(root, compacted, false);
+		while(count < chunk.length && iterator.hasNext()) chunk[count++] = iterator.next();
+
+		boolean end = !iterator.hasNext();
+		compacted = end ? null : chunk[count - 1];
+
+		if(count == 0) return true;
+
+		Subtree<T> left = split(new Subtree<>(root, (int) getLevel()), chunk[0], false);
+		Subtree<T> inside = split(splitRight, chunk[count - 1], true);
+		Subtree<T> right = splitRight;
+		splitRight = null;
+
+		uncount(inside.root);
+
+		// The first and last elements go between the parts, the ones between them are the new subtree
+		int height = heightFor(count - 2);
+		Subtree<T> packed = new Subtree<>(count > 2 ? build(chunk, 1, count - 2, height, true) : null, height);
+
+		Subtree<T> joined = join(left, chunk[0], packed);
+		if(count > 1) joined = join(joined, chunk[count - 1], right);
+		else joined = join(joined, right);
+
+		root = joined.root;
+
+		if(metrics != null) metrics.height = joined.height;
+
+		return end;
+	}
+
+	// Takes the nodes of a subtree out of the node counts
+	private void uncount(Node23<T> current) {
+		if(current == null) return;
+
+		nodes--;
+
+		if(current.isLeaf()) leaves--;
+		else {
+
+			uncount(current.getLeft());
+			uncount(current.getMid());
+			uncount(current.getRight());
+		}
+	}
+
+	/**
+	 * Removes the min element of the tree. It goes straight down the leftmost path of the tree and repairs it on the
+	 * way up, without any search.
+	 *
+	 * @return The min element, or null if the tree is empty
+	 */
+	public T pollFirst() {
+		if(isEmpty()) return null;
+
+		if(metrics != null) metrics.begin();
+
+		T first = removeMin(root);
+
+		this.size--;
+
+		removed(true, compare(first, max) == 0);
+
+		if(changes != null) changes.publish(Tree23Change.Type.REMOVE, first, null);
+
+		compactIfSparse();
+
+		if(metrics != null) metrics.end(Tree23Metrics.Operation.REMOVE);
+
+		return first;
+	}
+
+	/**
+	 * Removes the max element of the tree. It goes straight down the rightmost path of the tree and repairs it on the
+	 * way up, without any search.
+	 *
+	 * @return The max element, or null if the tree is empty
+	 */
+	public T pollLast() {
+		if(isEmpty()) return null;
+
+		if(metrics != null) metrics.begin();
+
+		T last = removeMax(root);
+
+		this.size--;
+
+		removed(compare(last, min) == 0, true);
+
+		if(changes != null) changes.publish(Tree23Change.Type.REMOVE, last, null);
+
+		compactIfSparse();
+
+		if(metrics != null) metrics.end(Tree23Metrics.Operation.REMOVE);
+
+		return last;
+	}
+
+	/**
+	 * Finishes a removal: if the root has been left empty, its only child (if any) is the new root and the tree loses
+	 * a level. Then the cached min and max are updated if one of them was the element removed.
+	 */
+	private void removed(boolean wasMin, boolean wasMax) {
+		if(root.getLeftElement() == null) {
+
+			root = root.getLeft();
+
+			nodes--;
+			if(root == null) leaves--;
+
+			if(metrics != null) metrics.height--;
+		}
+
+		if(root == null) {
+
+			min = null;
+			max = null;
+		}
+		else {
+
+			if(wasMin) min = findMin(root);
+			if(wasMax) max = findMax(root);
+		}
+	}
+
+	/**
+	 * In a recursive way, the algorithm tries to find the element to delete from the tree.
+	 *
+	 * When it finds the element, we can have one of this two situations:
+	 *
+	 *
+	 * 		A. The element we have to delete is in the deepest level of the tree. We just take it out of the leaf, which
+	 * 			can be left empty if it was a 2-node.
+	 *
+	 * 		B. The element to delete is not in the deepest level of the tree. In this situation we replace it with
+	 * 			the max element of the branch on its left, which is always in a leaf, so we are in the case A again.
+	 *
+	 * During the bottom up, when a child has been left empty the node repairs it (see the method "rebalance" in the
+	 * class Node23) borrowing an element from a sibling or merging two children. A merge can leave the current node
+	 * empty too, so the repair may go on up to the root, where the tree loses a level.
+	 *
+	 * @param current The current node where we are
+	 * @param element The element to delete
+	 * 
+	 * @return True if the element has been deleted or false if not
+	 */
+	private boolean remove(Node23<T> current, T element) {
+		boolean deleted;
+		Node23<T> child;
+
+		int left = compare(element, current.getLeftElement());
+		int right = current.getRightElement() == null ? -1 : compare(element, current.getRightElement());
+
+		if(current.isLeaf()) { // Situation A, or the element doesn't exist
+
+			if(left == 0) {
+
+				current.setLeftElement(current.getRightElement());
+				current.setRightElement(null);
 			}
+			else if(right == 0) current.setRightElement(null);
+
+			if(summary != null) update(current);
+
+			return left == 0 || right == 0;
 		}
-		
+
+		if(left == 0) { // Situation B at the left element
+
+			child = current.getLeft();
+			current.setLeftElement(removeMax(child));
+			deleted = true;
+		}
+		else if(right == 0) { // Situation B at the right element
+
+			child = current.getMid();
+			current.setRightElement(removeMax(child));
+			deleted = true;
+		}
+		else { // Recursive case, we are still finding the element to delete
+
+			if(left < 0) child = current.getLeft();
+			else if(right < 0) child = current.getMid();
+			else child = current.getRight();
+
+			deleted = remove(child, element);
+		}
+
+		if(child.getLeftElement() == null) rebalance(current);
+
+		if(summary != null) update(current);
+
 		return deleted;
 	}
 
+	// Removes and returns the min element of a subtree, repairing the nodes left empty on the way up
+	private T removeMin(Node23<T> current) {
+		T min;
+
+		if(current.isLeaf()) {
+
+			min = current.getLeftElement();
+			current.setLeftElement(current.getRightElement());
+			current.setRightElement(null);
+		}
+		else {
+
+			min = removeMin(current.getLeft());
+
+			if(current.getLeft().getLeftElement() == null) rebalance(current);
+		}
+
+		if(summary != null) update(current);
+
+		return min;
+	}
+
+	/**
+	 * Splits a subtree in two along the path to an element: the elements before it (and the element itself if
+	 * inclusive) on the left, returned, and the rest on the right, left in 'splitRight'. On the bottom up, the children
+	 * on each side of the path are joined to the part of their side, so the nodes of the path are the only ones
+	 * dismantled: O(log n).
+	 */
+	private Subtree<T> split(Subtree<T> subtree, T element, boolean inclusive) {
+		Node23<T> current = subtree.root;
+
+		if(current == null) {
+
+			splitRight = subtree;
+			return subtree;
+		}
+
+		T leftElement = current.getLeftElement(), rightElement = current.getRightElement();
+
+		// Number of elements of the node that go to the left part
+		int goLeft = 0;
+		if(goesLeft(leftElement, element, inclusive)) goLeft = rightElement != null && goesLeft(rightElement, element, inclusive) ? 2 : 1;
+
+		// The node is dropped, its elements go to new nodes or to the joins of both parts
+		nodes--;
+
+		if(current.isLeaf()) {
+
+			leaves--;
+
+			Node23<T> left = goLeft == 0 ? null : newNode(leftElement);
+			if(goLeft == 2) left.setRightElement(rightElement);
+
+			Node23<T> right = goLeft == 2 || (goLeft == 1 && rightElement == null) ? null : newNode(goLeft == 0 ? leftElement : rightElement);
+			if(goLeft == 0 && rightElement != null) right.setRightElement(rightElement);
+
+			int created = (left != null ? 1 : 0) + (right != null ? 1 : 0);
+			nodes += created;
+			leaves += created;
+
+			if(summary != null) {
+
+				if(left != null) update(left);
+				if(right != null) update(right);
+			}
+
+			splitRight = new Subtree<>(right, right == null ? 0 : 1);
+			return new Subtree<>(left, left == null ? 0 : 1);
+		}
+
+		int height = subtree.height - 1;
+		Subtree<T> leftChild = new Subtree<>(current.getLeft(), height);
+		Subtree<T> midChild = new Subtree<>(current.getMid(), height);
+		Subtree<T> rightChild = new Subtree<>(current.getRight(), rightElement == null ? 0 : height);
+
+		Subtree<T> left, right;
+
+		if(goLeft == 0) {
+
+			left = split(leftChild, element, inclusive);
+			right = join(splitRight, leftElement, midChild);
+			if(rightElement != null) right = join(right, rightElement, rightChild);
+		}
+		else if(goLeft == 1) {
+
+			Subtree<T> inner = split(midChild, element, inclusive);
+			right = splitRight;
+			left = join(leftChild, leftElement, inner);
+			if(rightElement != null) right = join(right, rightElement, rightChild);
+		}
+		else {
+
+			Subtree<T> inner = split(rightChild, element, inclusive);
+			right = splitRight;
+			left = join(join(leftChild, leftElement, midChild), rightElement, inner);
+		}
+
+		splitRight = right;
+		return left;
+	}
+
+	private boolean goesLeft(T element, T splitter, boolean inclusive) {
+		int cmp = compare(element, splitter);
+		return cmp < 0 || (inclusive && cmp == 0);
+	}
+
+	/**
+	 * Joins two subtrees, every element of the left one before the ones of the right one, taking the min element of the
+	 * right one to put it between them.
+	 */
+	private Subtree<T> join(Subtree<T> left, Subtree<T> right) {
+		if(left.root == null) return right;
+		if(right.root == null) return left;
+
+		T first = removeMin(right.root);
+
+		// The root of the right subtree has been left empty, its only child (if any) is the new root
+		if(right.root.getLeftElement() == null) {
+
+			nodes--;
+			if(right.height == 1) leaves--;
+
+			right = new Subtree<>(right.root.getLeft(), right.height - 1);
+		}
+
+		return join(left, first, right);
+	}
+
+	/**
+	 * Joins two subtrees with an element between them, every element of the left one before it and every element of
+	 * the right one after it. The lower subtree is hung from the side of the taller one at its level, splitting the
+	 * nodes that overflow on the way up like an add does: O(difference of heights).
+	 */
+	private Subtree<T> join(Subtree<T> left, T element, Subtree<T> right) {
+		if(left.height == right.height) {
+
+			Node23<T> node = left.height == 0 ? newNode(element) : newNode(element, left.root, right.root);
+			if(summary != null) update(node);
+
+			nodes++;
+			if(left.height == 0) leaves++;
+
+			return new Subtree<>(node, left.height + 1);
+		}
+
+		boolean split = left.height > right.height
+				? joinRight(left.root, left.height, element, right.root, right.height)
+				: joinLeft(right.root, right.height, element, left.root, left.height);
+
+		Node23<T> taller = left.height > right.height ? left.root : right.root;
+		int height = Math.max(left.height, right.height);
+
+		if(!split) return new Subtree<>(taller, height);
+
+		// The root has been split, the subtree grows one level
+		Node23<T> root = left.height > right.height ? newNode(promoted, taller, promotedNode) : newNode(promoted, promotedNode, taller);
+		if(summary != null) update(root);
+
+		nodes++;
+
+		promoted = null;
+		promotedNode = null;
+
+		return new Subtree<>(root, height + 1);
+	}
+
+	/**
+	 * Adds an element and a lower subtree after the last element and child of the node of the right spine at the level
+	 * above the subtree.
+	 *
+	 * @return true if the current node has been split: the element going up is in 'promoted' and the new node on its
+	 *         right in 'promotedNode'
+	 */
+	private boolean joinRight(Node23<T> current, int height, T element, Node23<T> subtree, int subtreeHeight) {
+		if(height > subtreeHeight + 1) {
+
+			Node23<T> last = current.getRightElement() != null ? current.getRight() : current.getMid();
+
+			if(!joinRight(last, height - 1, element, subtree, subtreeHeight)) {
+
+				if(summary != null) update(current);
+				return false;
+			}
+
+			element = promoted;
+			subtree = promotedNode;
+		}
+
+		if(current.getRightElement() == null) {
+
+			current.setRightElement(element);
+			current.setRight(subtree);
+
+			if(summary != null) update(current);
+			return false;
+		}
+
+		// Full: the node keeps its first element, the new one goes with the last child and the element in the middle goes up
+		Node23<T> right = newNode(element, current.getRight(), subtree);
+
+		promoted = current.getRightElement();
+		promotedNode = right;
+
+		nodes++;
+		if(subtree == null) leaves++;
+
+		current.setRightElement(null);
+		current.setRight(null);
+
+		if(metrics != null) metrics.splits++;
+
+		if(summary != null) {
+
+			update(current);
+			update(right);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Adds a lower subtree and an element before the first child and element of the node of the left spine at the level
+	 * above the subtree.
+	 *
+	 * @return true if the current node has been split: the element going up is in 'promoted' and the new node on its
+	 *         left in 'promotedNode'
+	 */
+	private boolean joinLeft(Node23<T> current, int height, T element, Node23<T> subtree, int subtreeHeight) {
+		if(height > subtreeHeight + 1) {
+
+			if(!joinLeft(current.getLeft(), height - 1, element, subtree, subtreeHeight)) {
+
+				if(summary != null) update(current);
+				return false;
+			}
+
+			element = promoted;
+			subtree = promotedNode;
+		}
+
+		if(current.getRightElement() == null) {
+
+			current.setRightElement(current.getLeftElement());
+			current.setRight(current.getMid());
+			current.setMid(current.getLeft());
+			current.setLeftElement(element);
+			current.setLeft(subtree);
+
+			if(summary != null) update(current);
+			return false;
+		}
+
+		// Full: the new element goes with the first child, the element in the middle goes up and the node keeps the last
+		Node23<T> left = newNode(element, subtree, current.getLeft());
+
+		promoted = current.getLeftElement();
+		promotedNode = left;
+
+		nodes++;
+		if(subtree == null) leaves++;
+
+		current.setLeftElement(current.getRightElement());
+		current.setRightElement(null);
+		current.setLeft(current.getMid());
+		current.setMid(current.getRight());
+		current.setRight(null);
+
+		if(metrics != null) metrics.splits++;
+
+		if(summary != null) {
+
+			update(current);
+			update(left);
+		}
+
+		return true;
+	}
+
+	// Removes and returns the max element of a subtree, repairing the nodes left empty on the way up
+	private T removeMax(Node23<T> current) {
+		T max;
+
+		if(current.isLeaf()) {
+
+			if(current.getRightElement() != null) {
+
+				max = current.getRightElement();
+				current.setRightElement(null);
+			}
+			else {
+
+				max = current.getLeftElement();
+				current.setLeftElement(null);
+			}
+		}
+		else {
+
+			Node23<T> child = current.is3Node() ? current.getRight() : current.getMid();
+
+			max = removeMax(child);
+
+			if(child.getLeftElement() == null) rebalance(current);
+		}
+
+		if(summary != null) update(current);
+
+		return max;
+	}
+
+	// Repairs the empty child of a node
+	private void rebalance(Node23<T> current) {
+		boolean merged = current.rebalance();
+
+		// A merge leaves one node less
+		if(merged) {
+
+			nodes--;
+			if(current.getLeft().isLeaf()) leaves--;
+		}
+
+		// The children of the node have exchanged elements and subtrees, their summaries are computed again
+		if(summary != null) {
+
+			update(current.getLeft());
+			if(current.getMid() != null) update(current.getMid());
+			if(current.getRight() != null) update(current.getRight());
+		}
+
+		if(metrics != null) {
+
+			metrics.rebalances++;
+			if(merged) metrics.merges++;
+		}
+	}
+
+	/**
+	 * Starts collecting metrics about the internal work done by the tree. If they were already enabled, the current
+	 * ones are kept.
+	 *
+	 * @return The metrics of the tree, updated by every operation from now on
+	 */
+	public Tree23Metrics enableMetrics() {
+		if(metrics == null) metrics = new Tree23Metrics(getLevel());
+		return metrics;
+	}
+
+	/**
+	 * Stops collecting metrics. The tree doesn't pay for them anymore.
+	 */
+	public void disableMetrics() {
+		metrics = null;
+	}
+
+	/**
+	 * @return The metrics of the tree, or null if they are disabled
+	 */
+	public Tree23Metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Starts publishing the changes made to the tree: every add, remove, modify and clear from now on. If the feed was
+	 * already enabled, the current one is kept.
+	 *
+	 * @return The change feed of the tree, to subscribe to it
+	 */
+	public Tree23ChangeFeed<T> enableChanges() {
+		if(changes == null) changes = new Tree23ChangeFeed<>();
+		return changes;
+	}
+
+	/**
+	 * Stops publishing the changes. The changes waiting are published and every subscription is completed.
+	 */
+	public void disableChanges() {
+		if(changes != null) changes.close();
+		changes = null;
+	}
+
+	/**
+	 * @return The change feed of the tree, or null if it is disabled
+	 */
+	public Tree23ChangeFeed<T> getChanges() {
+		return changes;
+	}
+
+	/**
+	 * Returns the shape of the tree. The node counts are kept by every change, so it only costs a descent to measure
+	 * the height.
+	 *
+	 * @return The number of nodes, leaves and levels of the tree, how full its nodes are and the memory they take
+	 */
+	public Tree23Stats getStats() {
+		int height = 0;
+		if(size > 0) for(Node23<T> node = root; node != null; node = node.getLeft()) height++;
+
+		return new Tree23Stats(size, nodes, leaves, height, summary == null ? Tree23Stats.NODE_BYTES : Tree23Stats.AUGMENTED_NODE_BYTES);
+	}
+
 	/**
 	 * @return The number of elements inside of the tree
 	 * */
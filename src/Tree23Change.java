@@ -0,0 +1,55 @@
+/**
+ * A change made to a {@link Tree23}, as published by its {@link Tree23ChangeFeed}.
+ *
+ * @param <T> Generic element
+ */
+public final class Tree23Change<T> {
+
+    public enum Type {
+        /** The element has been added */
+        ADD,
+        /** The element has been removed */
+        REMOVE,
+        /** The previous element has been replaced by the element */
+        MODIFY,
+        /** Every element has been removed */
+        CLEAR
+    }
+
+    private final Type type;
+    private final T element;
+    private final T previous;
+
+    Tree23Change( Type type, T element, T previous ) {
+        this.type = type;
+        this.element = element;
+        this.previous = previous;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The element added, removed or the new version of a modified one, null for a clear
+     */
+    public T getElement() {
+        return element;
+    }
+
+    /**
+     * @return The element replaced by a modification, null for any other change
+     */
+    public T getPrevious() {
+        return previous;
+    }
+
+    @Override
+    public String toString() {
+        switch ( type ) {
+            case MODIFY: return "MODIFY " + previous + " -> " + element;
+            case CLEAR: return "CLEAR";
+            default: return type + " " + element;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The changes made to a {@link Tree23}, published to any number of subscribers, so caches and views that mirror the
+ * tree can be updated change by change instead of comparing copies of it. See {@link Tree23#enableChanges()}.
+ * <p>
+ * The changes are published in batches, in the order they were made: a batch is sent when it is full, {@code maxDelay}
+ * after its first change and on {@link #flush()}. Each subscriber has its own buffer of batches and gets them on its
+ * own thread as it requests them; when the buffer of a slow subscriber is full, the next full batch blocks the thread
+ * changing the tree until there is room again (backpressure), so no change is ever lost. The timed flushes, shared by
+ * every feed, never wait: while a buffer is full they try again after another delay.
+ * <p>
+ * While there are no subscribers the changes are dropped without being created, nothing is scheduled, and a tree
+ * whose feed hasn't been enabled doesn't pay anything for it.
+ *
+ * @param <T> Generic element
+ */
+public class Tree23ChangeFeed<T> implements Flow.Publisher<List<Tree23Change<T>>>, AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(10);
+
+    // Flushes the batches of every feed after their max delay
+    private static final ScheduledExecutorService flusher = newFlusher();
+
+    private final SubmissionPublisher<List<Tree23Change<T>>> publisher;
+    private final int batchSize;
+    private final long maxDelay;             // In nanoseconds, 0 if the batches are only published full or flushed
+
+    // Guards the batch. Not a monitor, so the timed flushes can skip a feed that is busy publishing
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private List<Tree23Change<T>> batch;     // The changes waiting to be published, null if there are none
+    private volatile boolean subscribed;     // false once a batch has found no subscribers, until the next one comes
+
+    public Tree23ChangeFeed() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param batchSize  The max number of changes per batch
+     * @param maxDelay   The max time a change waits to be published, or null to wait until the batch is full or flushed
+     * @param executor   The executor where the subscribers get their batches
+     * @param bufferSize The max number of batches buffered per subscriber before blocking the changes to the tree
+     */
+    public Tree23ChangeFeed( int batchSize, Duration maxDelay, Executor executor, int bufferSize ) {
+        if ( batchSize < 1 ) throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+
+        this.batchSize = batchSize;
+        this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+
+        this.maxDelay = maxDelay == null ? 0 : Math.max(0, maxDelay.toNanos());
+    }
+
+    private static ScheduledExecutorService newFlusher() {
+        ScheduledThreadPoolExecutor flusher = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "Tree23ChangeFeed-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.setRemoveOnCancelPolicy(true);
+        return flusher;
+    }
+
+    @Override
+    public void subscribe( Flow.Subscriber<? super List<Tree23Change<T>>> subscriber ) {
+        lock.lock();
+        try {
+            subscribed = true;
+            publisher.subscribe(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of current subscribers
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Adds a change to the current batch, publishing it if it gets full. The subscribers are only looked up at the
+     * start of a batch, and once there are none left this is a single field read per change.
+     */
+    void publish( Tree23Change.Type type, T element, T previous ) {
+        if ( !subscribed ) return;
+
+        lock.lock();
+        try {
+            if ( batch == null ) {
+                if ( !publisher.hasSubscribers() ) {
+                    subscribed = false;
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, 16));
+                if ( maxDelay > 0 ) flushLater(batch);
+            }
+
+            batch.add(new Tree23Change<>(type, element, previous));
+
+            if ( batch.size() >= batchSize ) flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the changes waiting in the current batch. It blocks while the buffer of a subscriber is full.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if ( batch == null ) return;
+
+            List<Tree23Change<T>> full = batch;
+            batch = null;
+
+            if ( !publisher.isClosed() ) publisher.submit(full);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Schedules the timed flush of a batch, it does nothing if the batch has been published by then
+    private void flushLater( List<Tree23Change<T>> late ) {
+        flusher.schedule(() -> flushLate(late), maxDelay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The timed flush of a batch, on the thread shared by every feed, so it never blocks: if the feed is busy, or the
+     * buffer of a subscriber is full, the batch waits one more delay. A full buffer is never passed, since the lag of
+     * every subscriber only goes down while the lock is held.
+     */
+    private void flushLate( List<Tree23Change<T>> late ) {
+        if ( !lock.tryLock() ) {
+            flushLater(late);
+            return;
+        }
+        try {
+            if ( batch != late || publisher.isClosed() ) return;
+
+            if ( publisher.estimateMaximumLag() >= publisher.getMaxBufferCapacity() ) {
+                flushLater(late);
+                return;
+            }
+
+            batch = null;
+            publisher.submit(late);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the changes waiting and completes every subscription. The changes made from now on are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            flush();
+            publisher.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * A client of a {@link Tree23Server}, for a single thread.
+ * <p>
+ * The plain methods ({@link #add}, {@link #find}...) send a request and wait for its response. To pipeline a batch,
+ * send all the requests with the {@code send} methods, then read their responses in the same order with the
+ * {@code receive} methods; the first receive flushes the requests:
+ * <pre>
+ *     for ( long key : keys ) client.sendFind(key);
+ *     for ( long key : keys ) Long found = client.receiveKey();
+ * </pre>
+ * The responses wait in the socket buffers until they are received, so keep the batches to a few thousand requests:
+ * a client that sends without ever receiving ends up blocking itself and its connection in the server.
+ */
+public class Tree23Client implements Closeable {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private int pending;     // Requests sent whose response hasn't been read yet
+
+    /**
+     * Connects to a server on the loopback interface.
+     */
+    public Tree23Client( int port ) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), Tree23Server.BUFFER_SIZE));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Tree23Server.BUFFER_SIZE));
+    }
+
+    public boolean add( long key ) throws IOException {
+        sendAdd(key);
+        return receiveBoolean();
+    }
+
+    public boolean remove( long key ) throws IOException {
+        sendRemove(key);
+        return receiveBoolean();
+    }
+
+    /**
+     * @return The key if it is in the tree, or null if not
+     */
+    public Long find( long key ) throws IOException {
+        sendFind(key);
+        return receiveKey();
+    }
+
+    /**
+     * @return The min key, or null if the tree is empty
+     */
+    public Long findMin() throws IOException {
+        send(Tree23Server.MIN);
+        return receiveKey();
+    }
+
+    /**
+     * @return The max key, or null if the tree is empty
+     */
+    public Long findMax() throws IOException {
+        send(Tree23Server.MAX);
+        return receiveKey();
+    }
+
+    /**
+     * @param from  The lower bound, included
+     * @param to    The upper bound, included
+     * @param limit The max number of keys to return
+     *
+     * @return The first keys between both bounds, in ascending order
+     */
+    public long[] range( long from, long to, int limit ) throws IOException {
+        sendRange(from, to, limit);
+        return receiveKeys();
+    }
+
+    public int size() throws IOException {
+        send(Tree23Server.SIZE);
+        receiveStatus();
+        return in.readInt();
+    }
+
+    public void sendAdd( long key ) throws IOException {
+        send(Tree23Server.ADD);
+        out.writeLong(key);
+    }
+
+    public void sendRemove( long key ) throws IOException {
+        send(Tree23Server.REMOVE);
+        out.writeLong(key);
+    }
+
+    public void sendFind( long key ) throws IOException {
+        send(Tree23Server.FIND);
+        out.writeLong(key);
+    }
+
+    public void sendRange( long from, long to, int limit ) throws IOException {
+        if ( limit < 0 ) throw new IllegalArgumentException("The limit must not be negative: " + limit);
+
+        send(Tree23Server.RANGE);
+        out.writeLong(from);
+        out.writeLong(to);
+        out.writeInt(limit);
+    }
+
+    private void send( byte op ) throws IOException {
+        out.writeByte(op);
+        pending++;
+    }
+
+    /**
+     * @return The response of the next add or remove: true if the tree has changed
+     */
+    public boolean receiveBoolean() throws IOException {
+        return receiveStatus() == Tree23Server.TRUE;
+    }
+
+    /**
+     * @return The response of the next find, min or max: the key, or null if there wasn't any
+     */
+    public Long receiveKey() throws IOException {
+        return receiveStatus() == Tree23Server.TRUE ? in.readLong() : null;
+    }
+
+    /**
+     * @return The response of the next range
+     */
+    public long[] receiveKeys() throws IOException {
+        receiveStatus();
+
+        long[] keys = new long[in.readInt()];
+        for ( int i = 0; i < keys.length; i++ ) keys[i] = in.readLong();
+        return keys;
+    }
+
+    private byte receiveStatus() throws IOException {
+        if ( pending == 0 ) throw new IllegalStateException("There are no requests waiting for a response");
+
+        out.flush();
+        pending--;
+
+        byte status = in.readByte();
+        if ( status == Tree23Server.ERROR ) throw new IOException("The server has rejected the request");
+        return status;
+    }
+
+    /**
+     * @return The number of requests sent whose response hasn't been received yet
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the elements of a {@link Tree23} in order, or in reverse order, keeping only the path from the root to the
+ * next element: a stack of nodes, each one with the element of the node that comes next. Starting at any element costs
+ * a descent, O(log n), and each step O(1) amortized, so the last k elements cost O(log n + k).
+ * <p>
+ * The tree must not change while iterating.
+ */
+final class Tree23Iterator<T extends Comparable<T>> implements Iterator<T> {
+
+    private Node23<T>[] nodes;
+    private byte[] elements;     // The element of each node that comes next: 0 the left one, 1 the right one
+    private int depth;           // Number of nodes in the stack, the top one holds the next element
+
+    private final boolean descending;
+
+    /**
+     * Starts at the first element.
+     */
+    Tree23Iterator( Node23<T> root ) {
+        this(root, false);
+    }
+
+    /**
+     * Starts at the first element, or at the last one if descending.
+     */
+    Tree23Iterator( Node23<T> root, boolean descending ) {
+        this.descending = descending;
+        init();
+
+        if ( root != null && root.getLeftElement() != null ) {
+            if ( descending ) pushLast(root);
+            else pushFirst(root);
+        }
+    }
+
+    /**
+     * Starts at the first element after a given one.
+     *
+     * @param from      The element to start from, it doesn't need to be in the tree
+     * @param inclusive true to start at 'from' if it is in the tree, false to start after it
+     */
+    Tree23Iterator( Node23<T> root, T from, boolean inclusive ) {
+        this(root, from, inclusive, false);
+    }
+
+    /**
+     * Starts at the first element after a given one, or before it if descending.
+     *
+     * @param from       The element to start from, it doesn't need to be in the tree
+     * @param inclusive  true to start at 'from' if it is in the tree, false to start next to it
+     * @param descending true to go from the greater elements to the lower ones
+     */
+    Tree23Iterator( Node23<T> root, T from, boolean inclusive, boolean descending ) {
+        this.descending = descending;
+        init();
+
+        if ( root != null && root.getLeftElement() != null ) {
+            if ( descending ) seekDescending(root, from, inclusive);
+            else seek(root, from, inclusive);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void init() {
+        nodes = (Node23<T>[]) new Node23<?>[16];
+        elements = new byte[16];
+    }
+
+    private void push( Node23<T> node, int element ) {
+        if ( depth == nodes.length ) {
+            nodes = Arrays.copyOf(nodes, depth * 2);
+            elements = Arrays.copyOf(elements, depth * 2);
+        }
+        nodes[depth] = node;
+        elements[depth++] = (byte) element;
+    }
+
+    // Goes down to the min element of the subtree, stacking the nodes of the path
+    private void pushFirst( Node23<T> node ) {
+        for ( ; node != null; node = node.getLeft() ) push(node, 0);
+    }
+
+    // Goes down to the max element of the subtree, stacking the nodes of the path
+    private void pushLast( Node23<T> node ) {
+        while ( node != null ) {
+            boolean full = node.getRightElement() != null;
+            push(node, full ? 1 : 0);
+            node = full ? node.getRight() : node.getMid();
+        }
+    }
+
+    /**
+     * Goes down to the first element after 'from'. Only the nodes with an element after it are stacked, each one with
+     * its first element after it, so the top of the stack holds the min of them.
+     */
+    private void seek( Node23<T> node, T from, boolean inclusive ) {
+        while ( node != null ) {
+            int left = from.compareTo(node.getLeftElement());
+
+            if ( left < 0 || (left == 0 && inclusive) ) {
+                push(node, 0);
+                if ( left == 0 ) return;
+                node = node.getLeft();
+                continue;
+            }
+
+            T rightElement = node.getRightElement();
+            int right = rightElement == null ? 1 : from.compareTo(rightElement);
+
+            if ( rightElement != null && (right < 0 || (right == 0 && inclusive)) ) {
+                push(node, 1);
+                if ( right == 0 ) return;
+                node = node.getMid();
+            }
+            else node = rightElement == null ? node.getMid() : node.getRight();
+        }
+    }
+
+    // Like seek, but looking for the first element before 'from' from the right
+    private void seekDescending( Node23<T> node, T from, boolean inclusive ) {
+        while ( node != null ) {
+            T rightElement = node.getRightElement();
+
+            if ( rightElement != null ) {
+                int right = from.compareTo(rightElement);
+
+                if ( right > 0 || (right == 0 && inclusive) ) {
+                    push(node, 1);
+                    if ( right == 0 ) return;
+                    node = node.getRight();
+                    continue;
+                }
+            }
+
+            int left = from.compareTo(node.getLeftElement());
+
+            if ( left > 0 || (left == 0 && inclusive) ) {
+                push(node, 0);
+                if ( left == 0 ) return;
+                node = node.getMid();
+            }
+            else node = node.getLeft();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0;
+    }
+
+    /**
+     * @return The next element without moving to the one after it, or null if there are no more
+     */
+    T peek() {
+        if ( depth == 0 ) return null;
+
+        Node23<T> node = nodes[depth - 1];
+        return elements[depth - 1] == 0 ? node.getLeftElement() : node.getRightElement();
+    }
+
+    @Override
+    public T next() {
+        if ( depth == 0 ) throw new NoSuchElementException();
+
+        Node23<T> node = nodes[--depth];
+        nodes[depth] = null;
+
+        if ( descending ) {
+            if ( elements[depth] == 1 ) {
+                push(node, 0);                          // After the mid subtree
+                pushLast(node.getMid());
+                return node.getRightElement();
+            }
+
+            pushLast(node.getLeft());
+            return node.getLeftElement();
+        }
+
+        if ( elements[depth] == 0 ) {
+            if ( node.getRightElement() != null ) push(node, 1);  // After the mid subtree
+            pushFirst(node.getMid());
+            return node.getLeftElement();
+        }
+
+        pushFirst(node.getRight());
+        return node.getRightElement();
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the elements of several {@link Tree23} in a single order, as if they were one tree, without copying them.
+ * <p>
+ * Each tree is walked with its own iterator, and the iterators are kept in a binary heap ordered by their next
+ * element: the next element of the merge is always the one of the iterator at the top of the heap. Getting each
+ * element costs O(log k) for k trees, so a whole scan of n elements costs O(n log k), and the elements are only taken
+ * from the trees as they are asked for. With bounds, each tree starts at the lower one with a single descent, and
+ * the merge ends as soon as the next element goes over the upper one.
+ * <p>
+ * Equal elements of different trees come in the order of their trees. The trees must not change while iterating.
+ *
+ * @param <T> Generic element
+ */
+public final class Tree23Merge<T extends Comparable<T>> implements Iterator<T> {
+
+    private final Tree23Iterator<T>[] heap;   // The iterators with elements left, the one with the min next element first
+    private final int[] order;               // Position of the tree of each iterator, to break the ties
+    private int size;
+
+    private final T to;                      // The upper bound, null if there is none
+    private final boolean distinct;
+
+    private T last;                          // The last element returned
+    private boolean started;
+
+    /**
+     * @param trees The trees to merge
+     *
+     * @return The elements of every tree in order, including the ones repeated in several trees
+     */
+    public static <T extends Comparable<T>> Tree23Merge<T> merge( Iterable<? extends Tree23<T>> trees ) {
+        return new Tree23Merge<>(trees, null, null, false);
+    }
+
+    /**
+     * @param trees    The trees to merge
+     * @param distinct true to return only once the elements repeated in several trees (the first one of them)
+     *
+     * @return The elements of every tree in order
+     */
+    public static <T extends Comparable<T>> Tree23Merge<T> merge( Iterable<? extends Tree23<T>> trees, boolean distinct ) {
+        return new Tree23Merge<>(trees, null, null, distinct);
+    }
+
+    /**
+     * @param trees    The trees to merge
+     * @param from     The lower bound, included, or null for no lower bound
+     * @param to       The upper bound, included, or null for no upper bound
+     * @param distinct true to return only once the elements repeated in several trees (the first one of them)
+     *
+     * @return The elements of every tree between both bounds, in order
+     */
+    public static <T extends Comparable<T>> Tree23Merge<T> merge( Iterable<? extends Tree23<T>> trees, T from, T to,
+                                                                 boolean distinct ) {
+        return new Tree23Merge<>(trees, from, to, distinct);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tree23Merge( Iterable<? extends Tree23<T>> trees, T from, T to, boolean distinct ) {
+        this.to = to;
+        this.distinct = distinct;
+
+        List<Tree23Iterator<T>> iterators = new ArrayList<>();
+        for ( Tree23<T> tree : trees ) {
+            Node23<T> root = tree.getRoot();
+            iterators.add(from == null ? new Tree23Iterator<>(root) : new Tree23Iterator<>(root, from, true));
+        }
+
+        heap = (Tree23Iterator<T>[]) new Tree23Iterator<?>[iterators.size()];
+        order = new int[iterators.size()];
+
+        for ( int i = 0; i < iterators.size(); i++ ) {
+            if ( !iterators.get(i).hasNext() ) continue;
+
+            heap[size] = iterators.get(i);
+            order[size] = i;
+            up(size++);
+        }
+    }
+
+    // true if the iterator at i goes before the one at j
+    private boolean before( int i, int j ) {
+        int cmp = heap[i].peek().compareTo(heap[j].peek());
+        return cmp < 0 || (cmp == 0 && order[i] < order[j]);
+    }
+
+    private void swap( int i, int j ) {
+        Tree23Iterator<T> iterator = heap[i];
+        heap[i] = heap[j];
+        heap[j] = iterator;
+
+        int position = order[i];
+        order[i] = order[j];
+        order[j] = position;
+    }
+
+    private void up( int i ) {
+        while ( i > 0 && before(i, (i - 1) / 2) ) {
+            swap(i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private void down( int i ) {
+        while ( true ) {
+            int min = i, left = 2 * i + 1, right = left + 1;
+
+            if ( left < size && before(left, min) ) min = left;
+            if ( right < size && before(right, min) ) min = right;
+            if ( min == i ) return;
+
+            swap(i, min);
+            i = min;
+        }
+    }
+
+    // Takes the next element of the iterator at the top and puts it back in its place, or drops it if it has ended
+    private T pop() {
+        T element = heap[0].next();
+
+        if ( !heap[0].hasNext() ) {
+            heap[0] = heap[--size];
+            order[0] = order[size];
+            heap[size] = null;
+        }
+        if ( size > 0 ) down(0);
+
+        return element;
+    }
+
+    // Skips the elements equal to the last one returned
+    private void skipRepeated() {
+        while ( size > 0 && heap[0].peek().compareTo(last) == 0 ) pop();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ( distinct && started ) skipRepeated();
+
+        return size > 0 && (to == null || heap[0].peek().compareTo(to) <= 0);
+    }
+
+    @Override
+    public T next() {
+        if ( !hasNext() ) throw new NoSuchElementException();
+
+        last = pop();
+        started = true;
+        return last;
+    }
+}
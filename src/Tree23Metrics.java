@@ -0,0 +1,143 @@
+/**
+ * Counters and latency histograms of the internal work done by a {@link Tree23}.
+ * <p>
+ * The metrics are off by default. Call {@link Tree23#enableMetrics()} to start collecting them; while they are
+ * disabled the tree only pays a null check per operation and per comparison.
+ * <p>
+ * Each add, find and remove is also reported as a {@code Tree23.Operation} JFR event when a recording has the event
+ * enabled.
+ * <p>
+ * Like {@link Tree23}, this class is not thread safe.
+ */
+public class Tree23Metrics {
+
+    /**
+     * The operations with their own latency histogram.
+     */
+    public enum Operation { ADD, FIND, REMOVE }
+
+    long comparisons;       // Calls to compareTo
+    long nodeAllocations;   // Nodes created by addElement and split
+    long splits;            // 3-nodes split because an element was added into them
+    long rebalances;        // Empty nodes repaired during a remove
+    long merges;            // Repairs that merged two nodes and left the parent with one element less
+    long height;            // Current number of levels of the tree
+
+    private final LatencyHistogram addLatency = new LatencyHistogram();
+    private final LatencyHistogram findLatency = new LatencyHistogram();
+    private final LatencyHistogram removeLatency = new LatencyHistogram();
+
+    // Values of the counters when the current operation started
+    private long start;
+    private long startComparisons;
+    private long startNodeAllocations;
+    private long startRebalances;
+    private long startMerges;
+
+    Tree23Metrics( long height ) {
+        this.height = height;
+    }
+
+    void begin() {
+        startComparisons = comparisons;
+        startNodeAllocations = nodeAllocations;
+        startRebalances = rebalances;
+        startMerges = merges;
+        start = System.nanoTime();
+    }
+
+    void end( Operation operation ) {
+        long latency = System.nanoTime() - start;
+
+        getLatency(operation).record(latency);
+
+        Tree23OperationEvent event = new Tree23OperationEvent();
+        if ( event.isEnabled() ) {
+            event.operation = operation.name();
+            event.latency = latency;
+            event.comparisons = comparisons - startComparisons;
+            event.nodeAllocations = nodeAllocations - startNodeAllocations;
+            event.rebalances = rebalances - startRebalances;
+            event.merges = merges - startMerges;
+            event.height = height;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return The number of calls to compareTo done by the tree
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return The number of nodes created while adding elements
+     */
+    public long getNodeAllocations() {
+        return nodeAllocations;
+    }
+
+    /**
+     * @return The number of full nodes (3-nodes) split while adding elements
+     */
+    public long getSplits() {
+        return splits;
+    }
+
+    /**
+     * @return The number of empty nodes repaired while removing elements
+     */
+    public long getRebalances() {
+        return rebalances;
+    }
+
+    /**
+     * @return The number of repairs that had to merge two nodes. These are the expensive ones, they can go on up
+     *         to the root and reduce the height of the tree
+     */
+    public long getMerges() {
+        return merges;
+    }
+
+    /**
+     * @return The current number of levels of the tree, the same value returned by {@link Tree23#getLevel()}
+     */
+    public long getHeight() {
+        return height;
+    }
+
+    /**
+     * @param operation The operation
+     *
+     * @return The latencies recorded for the operation given
+     */
+    public LatencyHistogram getLatency( Operation operation ) {
+        switch ( operation ) {
+            case ADD:  return addLatency;
+            case FIND: return findLatency;
+            default:   return removeLatency;
+        }
+    }
+
+    /**
+     * Sets all the counters and histograms to zero. The height is kept.
+     */
+    public void reset() {
+        comparisons = 0;
+        nodeAllocations = 0;
+        splits = 0;
+        rebalances = 0;
+        merges = 0;
+        addLatency.reset();
+        findLatency.reset();
+        removeLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "comparisons=" + comparisons + ", nodeAllocations=" + nodeAllocations + ", splits=" + splits +
+               ", rebalances=" + rebalances + ", merges=" + merges + ", height=" + height +
+               "\nadd: " + addLatency + "\nfind: " + findLatency + "\nremove: " + removeLatency;
+    }
+}
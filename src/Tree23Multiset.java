@@ -0,0 +1,222 @@
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A 2-3 Tree that allows duplicates, keeping a count of occurrences per element.
+ * <p>
+ * Each distinct element is stored once in a {@link Tree23} together with its count. Adding an element that already
+ * exists only increments its count, in place, and removing it decrements the count; the tree only changes when an
+ * element is added for the first time or its count goes down to zero.
+ * <p>
+ * Like {@link Tree23}, this class is not thread safe.
+ *
+ * @param <T> Generic element
+ */
+public class Tree23Multiset<T extends Comparable<T>> {
+
+    /**
+     * An element and its number of occurrences. The tree orders and finds the entries by their element.
+     */
+    static final class Entry<T extends Comparable<T>> implements Comparable<Entry<T>> {
+        T element;
+        int count;
+
+        Entry( T element, int count ) {
+            this.element = element;
+            this.count = count;
+        }
+
+        @Override
+        public int compareTo( Entry<T> other ) {
+            return element.compareTo(other.element);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean equals( Object other ) {
+            return other instanceof Entry && element.compareTo(((Entry<T>) other).element) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return element.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return count == 1 ? String.valueOf(element) : element + " x" + count;
+        }
+    }
+
+    private final Tree23<Entry<T>> tree = new Tree23<>();
+    private final Entry<T> probe = new Entry<>(null, 0);   // Reused to search, so lookups don't allocate
+
+    private long size;   // Number of elements counting the duplicates
+
+    // The entry of an element, or null if the element isn't in the multiset
+    private Entry<T> entry( T element ) {
+        probe.element = element;
+        Entry<T> entry = tree.find(probe);
+        probe.element = null;
+        return entry;
+    }
+
+    /**
+     * Adds an occurrence of an element.
+     *
+     * @param element The element to add
+     *
+     * @return The number of occurrences of the element after adding it
+     */
+    public int add( T element ) {
+        return add(element, 1);
+    }
+
+    /**
+     * Adds several occurrences of an element.
+     *
+     * @param element     The element to add
+     * @param occurrences The number of occurrences to add, greater than 0
+     *
+     * @return The number of occurrences of the element after adding them
+     */
+    public int add( T element, int occurrences ) {
+        if ( occurrences <= 0 ) throw new IllegalArgumentException("The occurrences must be positive: " + occurrences);
+
+        Entry<T> entry = entry(element);
+
+        if ( entry == null ) {
+            entry = new Entry<>(element, occurrences);
+            tree.add(entry);
+        } else {
+            if ( entry.count > Integer.MAX_VALUE - occurrences ) throw new IllegalArgumentException("Too many occurrences of " + element);
+            entry.count += occurrences;
+        }
+
+        size += occurrences;
+
+        return entry.count;
+    }
+
+    /**
+     * Removes an occurrence of an element.
+     *
+     * @param element The element to remove
+     *
+     * @return true if an occurrence has been removed, false if the element wasn't in the multiset
+     */
+    public boolean remove( T element ) {
+        return remove(element, 1) > 0;
+    }
+
+    /**
+     * Removes several occurrences of an element. The element is removed from the tree when it has no occurrences left.
+     *
+     * @param element     The element to remove
+     * @param occurrences The max number of occurrences to remove, greater than 0
+     *
+     * @return The number of occurrences removed, which may be less than the ones asked if there weren't enough
+     */
+    public int remove( T element, int occurrences ) {
+        if ( occurrences <= 0 ) throw new IllegalArgumentException("The occurrences must be positive: " + occurrences);
+
+        Entry<T> entry = entry(element);
+
+        if ( entry == null ) return 0;
+
+        int removed = Math.min(occurrences, entry.count);
+
+        entry.count -= removed;
+        if ( entry.count == 0 ) tree.remove(entry);
+
+        size -= removed;
+
+        return removed;
+    }
+
+    /**
+     * @param element The element to count
+     *
+     * @return The number of occurrences of the element, 0 if it isn't in the multiset
+     */
+    public int count( T element ) {
+        Entry<T> entry = entry(element);
+        return entry == null ? 0 : entry.count;
+    }
+
+    /**
+     * @param element The element to find
+     *
+     * @return true if the element has at least one occurrence, false if not
+     */
+    public boolean contains( T element ) {
+        return entry(element) != null;
+    }
+
+    /**
+     * @return The min element, or null if the multiset is empty
+     */
+    public T findMin() {
+        Entry<T> min = tree.findMin();
+        return min == null ? null : min.element;
+    }
+
+    /**
+     * @return The max element, or null if the multiset is empty
+     */
+    public T findMax() {
+        Entry<T> max = tree.findMax();
+        return max == null ? null : max.element;
+    }
+
+    /**
+     * @return The number of elements counting all their occurrences
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return The number of distinct elements
+     */
+    public int distinctSize() {
+        return tree.size();
+    }
+
+    /**
+     * @return the number of levels of the tree (max deep)
+     */
+    public long getLevel() {
+        return tree.getLevel();
+    }
+
+    /**
+     * @return True if the multiset is empty, false if not
+     */
+    public boolean isEmpty() {
+        return tree.isEmpty();
+    }
+
+    /**
+     * Removes all of the elements.
+     */
+    public void clear() {
+        tree.clear();
+        size = 0;
+    }
+
+    /**
+     * Performs an action for each distinct element with its number of occurrences, in order.
+     *
+     * @param action The action to perform
+     */
+    public void forEach( ObjIntConsumer<? super T> action ) {
+        tree.forEach(entry -> action.accept(entry.element, entry.count));
+    }
+
+    /**
+     * Prints the elements in order, with their number of occurrences when there is more than one.
+     */
+    public void inOrder() {
+        tree.inOrder();
+    }
+}
@@ -0,0 +1,44 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed for every add, find and remove of a {@link Tree23} with the metrics enabled.
+ * <p>
+ * The counters are the work done by that single operation, so a recording shows which operations went through the
+ * expensive rebalancing paths. It is disabled by default, enable it in the recording settings with the name
+ * {@code Tree23.Operation}.
+ */
+@Name("Tree23.Operation")
+@Label("Tree23 Operation")
+@Category("Tree23")
+@Description("An add, find or remove on a Tree23 with the metrics enabled")
+@StackTrace(false)
+class Tree23OperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Comparisons")
+    long comparisons;
+
+    @Label("Node Allocations")
+    long nodeAllocations;
+
+    @Label("Rebalances")
+    long rebalances;
+
+    @Label("Merges")
+    @Description("Rebalances that merged two nodes, the ones that can propagate up to the root")
+    long merges;
+
+    @Label("Height")
+    long height;
+}
@@ -0,0 +1,295 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves a {@code Tree23<Long>} to other processes of the same host over a local socket, so they can share one tree
+ * instead of each holding its own copy. {@link Tree23Client} is its client.
+ * <p>
+ * The protocol is binary, big endian, with one request after another on the connection and one response per request
+ * in the same order:
+ * <pre>
+ *   request                                    response
+ *   ADD    key:long                             status
+ *   FIND   key:long                             status [key:long]
+ *   REMOVE key:long                             status
+ *   RANGE  from:long to:long limit:int          status count:int key:long... (ascending, both bounds included)
+ *   MIN                                         status [key:long]
+ *   MAX                                         status [key:long]
+ *   SIZE                                        status size:int
+ * </pre>
+ * The status is a byte: 1 if the element was added, found or removed, 0 if not, and -1 if the request was wrong, in
+ * which case the server closes the connection. The key of FIND, MIN and MAX is only sent with a status 1.
+ * <p>
+ * A client doesn't need to wait for a response to send the next request (pipelining): the server reads the requests
+ * as they come and only flushes its responses when there are no more requests waiting, so a batch of requests costs
+ * a few writes and reads instead of a round trip each.
+ * <p>
+ * Each connection is handled by its own thread, a virtual thread when the JVM has them (Java 21 and later) or one of
+ * a cached pool if not. The tree is not thread safe, so they share it through a read-write lock: finds, ranges, min,
+ * max and size run in parallel, adds and removes take the lock alone. If the tree has metrics enabled, the searches
+ * update its counters and take the lock alone too.
+ * <p>
+ * Usage: {@code java Tree23Server [port]} or {@code java Main --serve[=port]}, by default on port
+ * {@value #DEFAULT_PORT} of the loopback interface.
+ */
+public class Tree23Server implements Closeable {
+
+    public static final int DEFAULT_PORT = 2323;
+
+    static final byte ADD = 1, FIND = 2, REMOVE = 3, RANGE = 4, MIN = 5, MAX = 6, SIZE = 7;
+    static final byte FALSE = 0, TRUE = 1, ERROR = -1;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final Tree23<Long> tree;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ServerSocket server;
+    private final ExecutorService executor = newExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private volatile boolean running = true;
+
+    /**
+     * Starts serving an empty tree on the loopback interface.
+     *
+     * @param port The port, or 0 for any free port (see {@link #getPort()})
+     */
+    public Tree23Server( int port ) throws IOException {
+        this(new Tree23<>(), port);
+    }
+
+    /**
+     * Starts serving a tree on the loopback interface. The tree must not be used but through the server from now on.
+     *
+     * @param tree The tree to serve
+     * @param port The port, or 0 for any free port (see {@link #getPort()})
+     */
+    public Tree23Server( Tree23<Long> tree, int port ) throws IOException {
+        this.tree = tree;
+        this.server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+
+        acceptor = new Thread(this::accept, "Tree23Server-" + getPort());
+        acceptor.start();
+    }
+
+    public static void main( String[] args ) throws IOException {
+        int port = args.length > 0 ? parsePort(args[0]) : DEFAULT_PORT;
+        if ( port < 0 ) {
+            System.err.println("Invalid port " + args[0]);
+            System.err.println("Usage: java Tree23Server [port]");
+            System.exit(1);
+        }
+        serve(port);
+    }
+
+    /**
+     * @return The port given, from 0 to 65535, or -1 if it isn't a valid one
+     */
+    static int parsePort( String port ) {
+        try {
+            int value = Integer.parseInt(port);
+            return value >= 0 && value <= 0xFFFF ? value : -1;
+        } catch ( NumberFormatException e ) {
+            return -1;
+        }
+    }
+
+    /**
+     * Serves an empty tree until the process is stopped.
+     */
+    static void serve( int port ) throws IOException {
+        Tree23Server server = new Tree23Server(port);
+        System.out.println("Serving a Tree23 on " + server.server.getLocalSocketAddress()
+                + (isVirtual(server.executor) ? " with virtual threads" : " with platform threads"));
+    }
+
+    // A virtual thread per task if the JVM has them, looked up by reflection so this compiles with Java 17
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch ( ReflectiveOperationException e ) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "Tree23Server-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static boolean isVirtual( ExecutorService executor ) {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    /**
+     * @return The port where the server is listening
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    private void accept() {
+        while ( running ) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                executor.execute(() -> handle(socket));
+            } catch ( IOException e ) {
+                if ( running ) System.err.println("Tree23Server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle( Socket socket ) {
+        try ( socket;
+              DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+              DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE)) ) {
+
+            int op;
+            while ( (op = in.read()) != -1 ) {
+                boolean valid = handle(op, in, out);
+
+                // Flush only once the pipelined requests already received have been answered
+                if ( !valid || in.available() == 0 ) out.flush();
+                if ( !valid ) break;
+            }
+        } catch ( EOFException | SocketException e ) {
+            // The client has gone away, or the server is closing
+        } catch ( IOException e ) {
+            if ( running ) System.err.println("Tree23Server: " + e.getMessage());
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Reads the arguments of a request, runs it and writes its response.
+     *
+     * @return false if the request was wrong
+     */
+    private boolean handle( int op, DataInputStream in, DataOutputStream out ) throws IOException {
+        switch ( op ) {
+            case ADD:
+            case REMOVE: {
+                long key = in.readLong();
+                boolean changed;
+
+                lock.writeLock().lock();
+                try {
+                    changed = op == ADD ? tree.add(key) : tree.remove(key);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                out.writeByte(changed ? TRUE : FALSE);
+                return true;
+            }
+            case FIND:
+            case MIN:
+            case MAX: {
+                long key = op == FIND ? in.readLong() : 0;
+                Long found;
+
+                Lock read = readLock();
+                read.lock();
+                try {
+                    found = op == FIND ? tree.find(key) : op == MIN ? tree.findMin() : tree.findMax();
+                } finally {
+                    read.unlock();
+                }
+                writeKey(out, found);
+                return true;
+            }
+            case RANGE: {
+                long from = in.readLong(), to = in.readLong();
+                int limit = in.readInt();
+
+                if ( limit < 0 ) break;
+
+                long[] keys = new long[Math.min(limit, 1024)];
+                int count = 0;
+
+                Lock read = readLock();
+                read.lock();
+                try {
+                    for ( Long key = tree.ceiling(from); key != null && key <= to && count < limit; key = tree.higher(key) ) {
+                        if ( count == keys.length ) keys = Arrays.copyOf(keys, Math.min(limit, count * 2));
+                        keys[count++] = key;
+                    }
+                } finally {
+                    read.unlock();
+                }
+
+                out.writeByte(TRUE);
+                out.writeInt(count);
+                for ( int i = 0; i < count; i++ ) out.writeLong(keys[i]);
+                return true;
+            }
+            case SIZE: {
+                int size;
+
+                lock.readLock().lock();
+                try {
+                    size = tree.size();
+                } finally {
+                    lock.readLock().unlock();
+                }
+                out.writeByte(TRUE);
+                out.writeInt(size);
+                return true;
+            }
+        }
+
+        out.writeByte(ERROR);
+        return false;
+    }
+
+    // The searches of a tree with metrics count their comparisons, so they can't run in parallel
+    private Lock readLock() {
+        return tree.getMetrics() == null ? lock.readLock() : lock.writeLock();
+    }
+
+    private static void writeKey( DataOutputStream out, Long key ) throws IOException {
+        if ( key == null ) out.writeByte(FALSE);
+        else {
+            out.writeByte(TRUE);
+            out.writeLong(key);
+        }
+    }
+
+    /**
+     * Stops listening and closes every connection.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+
+        for ( Socket socket : connections ) socket.close();
+        executor.shutdown();
+
+        try {
+            acceptor.join();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,408 @@
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * A {@link NavigableSet} backed by a {@link Tree23}, so a tree can be used wherever a {@code TreeSet} is, without
+ * copying it into one.
+ * <p>
+ * The operations go straight to the tree: {@code contains}, {@code add} and {@code remove} are a single search, the
+ * navigation methods ({@code floor}, {@code ceiling}...) a single descent, {@code first} and {@code last} are O(1),
+ * {@code pollFirst} and {@code pollLast} remove without searching, and the iterators keep only the path to the next
+ * element. The views ({@code subSet}, {@code headSet}, {@code tailSet}, {@code descendingSet}) are backed by the same
+ * tree, with their bounds checked on each operation; clearing one removes its range from the tree at once.
+ * <p>
+ * The elements are ordered by their natural order and can't be null. Like {@link Tree23}, this class is not thread
+ * safe, and its iterators are not fail-fast: the set must not change while iterating but through the iterator itself.
+ *
+ * @param <T> Generic element
+ */
+public class Tree23Set<T extends Comparable<T>> extends AbstractSet<T> implements NavigableSet<T> {
+
+    private final Tree23<T> tree;
+
+    // The bounds of a view, null if it has none
+    private final T low, high;
+    private final boolean lowInclusive, highInclusive;
+
+    private final boolean descending;
+
+    public Tree23Set() {
+        this(new Tree23<>());
+    }
+
+    public Tree23Set( Collection<? extends T> elements ) {
+        this(new Tree23<>());
+        addAll(elements);
+    }
+
+    /**
+     * Creates a set backed by a tree: the changes to the set are made to the tree, and the other way round.
+     *
+     * @param tree The tree
+     */
+    public Tree23Set( Tree23<T> tree ) {
+        this(tree, null, false, null, false, false);
+    }
+
+    private Tree23Set( Tree23<T> tree, T low, boolean lowInclusive, T high, boolean highInclusive, boolean descending ) {
+        this.tree = tree;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.high = high;
+        this.highInclusive = highInclusive;
+        this.descending = descending;
+    }
+
+    /**
+     * @return The tree behind the set
+     */
+    public Tree23<T> getTree() {
+        return tree;
+    }
+
+    // Bounds
+
+    private boolean isView() {
+        return low != null || high != null;
+    }
+
+    private boolean tooLow( T element ) {
+        if ( low == null ) return false;
+        int cmp = element.compareTo(low);
+        return cmp < 0 || (cmp == 0 && !lowInclusive);
+    }
+
+    private boolean tooHigh( T element ) {
+        if ( high == null ) return false;
+        int cmp = element.compareTo(high);
+        return cmp > 0 || (cmp == 0 && !highInclusive);
+    }
+
+    private boolean inRange( T element ) {
+        return !tooLow(element) && !tooHigh(element);
+    }
+
+    // true if a bound of a new view would be outside of this one
+    private boolean outOfRange( T element, boolean inclusive ) {
+        if ( low != null ) {
+            int cmp = element.compareTo(low);
+            if ( cmp < 0 || (cmp == 0 && !lowInclusive && inclusive) ) return true;
+        }
+        if ( high != null ) {
+            int cmp = element.compareTo(high);
+            if ( cmp > 0 || (cmp == 0 && !highInclusive && inclusive) ) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast( Object element ) {
+        if ( element == null ) throw new NullPointerException();
+        return (T) element;
+    }
+
+    // Navigation in ascending order, whatever the order of the view
+
+    private T lowest() {
+        T element = low == null ? tree.findMin() : lowInclusive ? tree.ceiling(low) : tree.higher(low);
+        return element == null || tooHigh(element) ? null : element;
+    }
+
+    private T highest() {
+        T element = high == null ? tree.findMax() : highInclusive ? tree.floor(high) : tree.lower(high);
+        return element == null || tooLow(element) ? null : element;
+    }
+
+    private T ceilingOf( T element, boolean inclusive ) {
+        if ( tooLow(element) ) return lowest();
+        T found = inclusive ? tree.ceiling(element) : tree.higher(element);
+        return found == null || tooHigh(found) ? null : found;
+    }
+
+    private T floorOf( T element, boolean inclusive ) {
+        if ( tooHigh(element) ) return highest();
+        T found = inclusive ? tree.floor(element) : tree.lower(element);
+        return found == null || tooLow(found) ? null : found;
+    }
+
+    // Set
+
+    @Override
+    public int size() {
+        if ( !isView() ) return tree.size();
+
+        int size = 0;
+        for ( Iterator<T> iterator = iterator(); iterator.hasNext(); iterator.next() ) size++;
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return isView() ? lowest() == null : tree.isEmpty();
+    }
+
+    @Override
+    public boolean contains( Object o ) {
+        T element = cast(o);
+        return inRange(element) && tree.contains(element);
+    }
+
+    @Override
+    public boolean add( T element ) {
+        if ( element == null ) throw new NullPointerException();
+        if ( !inRange(element) ) throw new IllegalArgumentException("Element out of the range of the view: " + element);
+
+        return tree.add(element);
+    }
+
+    @Override
+    public boolean remove( Object o ) {
+        T element = cast(o);
+        return inRange(element) && tree.remove(element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeAll( Collection<?> elements ) {
+        if ( isView() ) return super.removeAll(elements);
+        return tree.removeAll((Collection<? extends T>) elements);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean retainAll( Collection<?> elements ) {
+        if ( isView() ) return super.retainAll(elements);
+        return tree.retainAll((Collection<? extends T>) elements);
+    }
+
+    @Override
+    public void clear() {
+        if ( !isView() ) {
+            tree.clear();
+            return;
+        }
+
+        T first = lowest();
+        if ( first != null ) tree.removeRange(first, highest());
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size()];
+        int i = 0;
+
+        if ( !isView() && !descending ) {
+            for ( T element : tree ) array[i++] = element;
+        } else {
+            for ( T element : this ) array[i++] = element;
+        }
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray( E[] array ) {
+        int size = size();
+        E[] result = array.length >= size ? array : Arrays.copyOf(array, size);
+
+        int i = 0;
+        for ( T element : this ) result[i++] = (E) element;
+        if ( result.length > size ) result[size] = null;
+
+        return result;
+    }
+
+    // Iterators
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor(descending);
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new Cursor(!descending);
+    }
+
+    /**
+     * Iterates the elements of the view in ascending or descending order, stopping at its bound.
+     */
+    private final class Cursor implements Iterator<T> {
+        private final boolean reverse;
+        private Tree23Iterator<T> iterator;
+        private T next, last;
+
+        Cursor( boolean reverse ) {
+            this.reverse = reverse;
+
+            T from = reverse ? high : low;
+            boolean inclusive = reverse ? highInclusive : lowInclusive;
+            iterator = from == null ? new Tree23Iterator<>(tree.getRoot(), reverse)
+                    : new Tree23Iterator<>(tree.getRoot(), from, inclusive, reverse);
+
+            advance();
+        }
+
+        private void advance() {
+            next = iterator.hasNext() ? iterator.next() : null;
+            if ( next != null && (reverse ? tooLow(next) : tooHigh(next)) ) next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if ( next == null ) throw new NoSuchElementException();
+
+            last = next;
+            advance();
+            return last;
+        }
+
+        /**
+         * Removes the last element returned. The tree may have been rebalanced, so the iterator starts again from the
+         * next element, with a new descent.
+         */
+        @Override
+        public void remove() {
+            if ( last == null ) throw new IllegalStateException();
+
+            tree.remove(last);
+            if ( next != null ) {
+                iterator = new Tree23Iterator<>(tree.getRoot(), next, true, reverse);
+                advance();
+            }
+            last = null;
+        }
+    }
+
+    // NavigableSet
+
+    @Override
+    public T lower( T element ) {
+        return descending ? ceilingOf(element, false) : floorOf(element, false);
+    }
+
+    @Override
+    public T floor( T element ) {
+        return descending ? ceilingOf(element, true) : floorOf(element, true);
+    }
+
+    @Override
+    public T ceiling( T element ) {
+        return descending ? floorOf(element, true) : ceilingOf(element, true);
+    }
+
+    @Override
+    public T higher( T element ) {
+        return descending ? floorOf(element, false) : ceilingOf(element, false);
+    }
+
+    @Override
+    public T pollFirst() {
+        if ( !isView() ) return descending ? tree.pollLast() : tree.pollFirst();
+
+        T first = descending ? highest() : lowest();
+        if ( first != null ) tree.remove(first);
+        return first;
+    }
+
+    @Override
+    public T pollLast() {
+        if ( !isView() ) return descending ? tree.pollFirst() : tree.pollLast();
+
+        T last = descending ? lowest() : highest();
+        if ( last != null ) tree.remove(last);
+        return last;
+    }
+
+    @Override
+    public T first() {
+        T first = descending ? highest() : lowest();
+        if ( first == null ) throw new NoSuchElementException();
+        return first;
+    }
+
+    @Override
+    public T last() {
+        T last = descending ? lowest() : highest();
+        if ( last == null ) throw new NoSuchElementException();
+        return last;
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return descending ? Comparator.reverseOrder() : null;
+    }
+
+    // Views
+
+    @Override
+    public NavigableSet<T> descendingSet() {
+        return new Tree23Set<>(tree, low, lowInclusive, high, highInclusive, !descending);
+    }
+
+    /**
+     * A view of this one with new bounds, in ascending order. A null bound keeps the current one.
+     */
+    private NavigableSet<T> view( T from, boolean fromInclusive, T to, boolean toInclusive ) {
+        if ( from != null && outOfRange(from, fromInclusive) ) throw new IllegalArgumentException("From out of range: " + from);
+        if ( to != null && outOfRange(to, toInclusive) ) throw new IllegalArgumentException("To out of range: " + to);
+
+        if ( from == null ) {
+            from = low;
+            fromInclusive = lowInclusive;
+        }
+        if ( to == null ) {
+            to = high;
+            toInclusive = highInclusive;
+        }
+        return new Tree23Set<>(tree, from, fromInclusive, to, toInclusive, descending);
+    }
+
+    @Override
+    public NavigableSet<T> subSet( T from, boolean fromInclusive, T to, boolean toInclusive ) {
+        if ( from == null || to == null ) throw new NullPointerException();
+
+        int cmp = from.compareTo(to);
+        if ( descending ? cmp < 0 : cmp > 0 ) throw new IllegalArgumentException("From is after to: " + from + ", " + to);
+
+        return descending ? view(to, toInclusive, from, fromInclusive) : view(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<T> headSet( T to, boolean inclusive ) {
+        if ( to == null ) throw new NullPointerException();
+        return descending ? view(to, inclusive, null, false) : view(null, false, to, inclusive);
+    }
+
+    @Override
+    public NavigableSet<T> tailSet( T from, boolean inclusive ) {
+        if ( from == null ) throw new NullPointerException();
+        return descending ? view(null, false, from, inclusive) : view(from, inclusive, null, false);
+    }
+
+    @Override
+    public SortedSet<T> subSet( T from, T to ) {
+        return subSet(from, true, to, false);
+    }
+
+    @Override
+    public SortedSet<T> headSet( T to ) {
+        return headSet(to, false);
+    }
+
+    @Override
+    public SortedSet<T> tailSet( T from ) {
+        return tailSet(from, true);
+    }
+}
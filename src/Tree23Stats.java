@@ -0,0 +1,100 @@
+import java.util.Locale;
+
+/**
+ * The shape of a {@link Tree23} at a point in time: how many nodes it has, how full they are and an estimate of the
+ * memory they take, returned by {@link Tree23#getStats()}.
+ * <p>
+ * Each node holds one element (2-node) or two (3-node), so the fill factor, the elements per node over the two they
+ * could hold, goes from 0.5 to 1: a tree at 0.6 takes a fifth more nodes than the same elements repacked at 0.75.
+ */
+public final class Tree23Stats {
+
+    // Object header plus five references (and the summary of an augmented node), assuming compressed references
+    static final int NODE_BYTES = 32;
+    static final int AUGMENTED_NODE_BYTES = 40;
+
+    private final int elements;
+    private final int nodes;
+    private final int leaves;
+    private final int height;
+    private final int nodeBytes;
+
+    Tree23Stats( int elements, int nodes, int leaves, int height, int nodeBytes ) {
+        this.elements = elements;
+        this.nodes = nodes;
+        this.leaves = leaves;
+        this.height = height;
+        this.nodeBytes = nodeBytes;
+    }
+
+    /**
+     * @return The number of elements
+     */
+    public int getElements() {
+        return elements;
+    }
+
+    /**
+     * @return The number of nodes
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The number of nodes with a single element
+     */
+    public int getTwoNodes() {
+        return nodes - getThreeNodes();
+    }
+
+    /**
+     * @return The number of nodes with two elements
+     */
+    public int getThreeNodes() {
+        return elements - nodes;
+    }
+
+    /**
+     * @return The fraction of the nodes that are 3-nodes, from 0 to 1
+     */
+    public double getThreeNodeRatio() {
+        return nodes == 0 ? 0 : (double) getThreeNodes() / nodes;
+    }
+
+    /**
+     * @return The number of nodes in the deepest level
+     */
+    public int getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * @return The number of levels, 0 if the tree is empty
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return The elements per node over the two a node can hold, from 0.5 to 1, or 0 if the tree is empty
+     */
+    public double getFillFactor() {
+        return nodes == 0 ? 0 : elements / (2.0 * nodes);
+    }
+
+    /**
+     * @return An estimate of the heap taken by the nodes, in bytes, without the elements themselves. It assumes a
+     *         64-bit JVM with compressed references, the default for heaps under 32 GB
+     */
+    public long getEstimatedBytes() {
+        return (long) nodes * nodeBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "elements=%d, nodes=%d (2-nodes=%d, 3-nodes=%d), leaves=%d, height=%d, " +
+                "fill=%.3f, bytes=%d", elements, nodes, getTwoNodes(), getThreeNodes(), leaves, height, getFillFactor(),
+                getEstimatedBytes());
+    }
+}
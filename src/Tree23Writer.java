@@ -0,0 +1,294 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * An asynchronous front-end that lets many threads change the same {@link Tree23} without fighting over a lock.
+ * <p>
+ * The producers put their adds and removes in a lock-free queue and get a {@link CompletableFuture} with the result
+ * the operation would have returned. A single owner thread, the only one that touches the tree, takes the queued
+ * operations in batches, sorts each batch by element (so consecutive operations walk the same paths of the tree) and
+ * combines the operations on the same element: whatever their number, they cost at most one search and one change, and
+ * an add followed by a remove of the same element doesn't touch the tree at all. Each future still gets the result of
+ * its own operation, as if they had been run one by one in the order they were queued.
+ * <p>
+ * The operations of a batch are applied in element order, not in arrival order: the final tree and every result are
+ * the same, but another thread may see them in a different order. Reads go through {@link #query(Function)}, which
+ * runs on the owner thread after every operation queued before it.
+ * <p>
+ * The futures are completed on the owner thread, so their callbacks should be short or use an async variant.
+ *
+ * @param <T> Generic element
+ */
+public class Tree23Writer<T extends Comparable<T>> implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 1024;
+
+    private static final int ADD = 0, REMOVE = 1, QUERY = 2, STOP = 3;
+
+    /**
+     * A queued operation, also the node of the queue.
+     */
+    private static final class Operation<T> {
+        final int type;
+        final T element;
+        final Function<Object, Object> query;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile Operation<T> next;
+
+        Operation( int type, T element, Function<Object, Object> query ) {
+            this.type = type;
+            this.element = element;
+            this.query = query;
+        }
+    }
+
+    private final Tree23<T> tree;
+    private final int maxBatch;
+    private final Thread owner;
+
+    // Multiple producer, single consumer queue: the producers swap the tail, the owner follows the links from the head
+    private final AtomicReference<Operation<T>> tail;
+    private Operation<T> head;                         // The last operation taken, only read by the owner
+
+    private volatile boolean sleeping;                 // The owner is parked waiting for operations
+    private volatile boolean closed;                   // No more operations are accepted
+    private volatile boolean terminated;               // The owner has stopped taking operations
+
+    private long batches, operations, applied;         // Statistics, only written by the owner
+
+    public Tree23Writer( Tree23<T> tree ) {
+        this(tree, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Starts the owner thread of a tree. The tree must not be used but through this writer from now on.
+     *
+     * @param tree     The tree
+     * @param maxBatch The max number of operations of a batch
+     */
+    public Tree23Writer( Tree23<T> tree, int maxBatch ) {
+        if ( maxBatch < 1 ) throw new IllegalArgumentException("The max batch must be positive: " + maxBatch);
+
+        this.tree = tree;
+        this.maxBatch = maxBatch;
+
+        head = new Operation<>(STOP, null, null);
+        tail = new AtomicReference<>(head);
+
+        owner = new Thread(this::run, "Tree23Writer");
+        owner.setDaemon(true);
+        owner.start();
+    }
+
+    /**
+     * @return A future completed with true if the element has been added, false if it already existed
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> add( T element ) {
+        return (CompletableFuture<Boolean>) (CompletableFuture<?>) enqueue(new Operation<>(ADD, Objects.requireNonNull(element), null));
+    }
+
+    /**
+     * @return A future completed with true if the element has been removed, false if it wasn't in the tree
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> remove( T element ) {
+        return (CompletableFuture<Boolean>) (CompletableFuture<?>) enqueue(new Operation<>(REMOVE, Objects.requireNonNull(element), null));
+    }
+
+    /**
+     * Runs a read on the owner thread, once every operation queued before it has been applied.
+     *
+     * @param query The read, which must not change the tree
+     *
+     * @return A future completed with the result of the read
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> query( Function<? super Tree23<T>, R> query ) {
+        Function<Object, Object> read = t -> query.apply((Tree23<T>) t);
+        return (CompletableFuture<R>) enqueue(new Operation<>(QUERY, null, read));
+    }
+
+    private CompletableFuture<Object> enqueue( Operation<T> operation ) {
+        if ( closed ) return reject(operation);
+
+        link(operation);
+
+        // Too late if the owner has already stopped, but it may have taken it before: the first completion counts
+        if ( terminated ) reject(operation);
+
+        return operation.result;
+    }
+
+    private void link( Operation<T> operation ) {
+        tail.getAndSet(operation).next = operation;
+
+        if ( sleeping ) LockSupport.unpark(owner);
+    }
+
+    private static CompletableFuture<Object> reject( Operation<?> operation ) {
+        operation.result.completeExceptionally(new IllegalStateException("The writer is closed"));
+        return operation.result;
+    }
+
+    // The loop of the owner thread
+    @SuppressWarnings("unchecked")
+    private void run() {
+        Operation<T>[] batch = (Operation<T>[]) new Operation<?>[maxBatch];
+
+        while ( true ) {
+            int count = 0;
+            Operation<T> next;
+
+            // Takes the next operations, up to the first query or stop
+            while ( count < maxBatch && (next = head.next) != null ) {
+                if ( next.type >= QUERY && count > 0 ) break;
+
+                head = next;
+                if ( next.type == STOP ) {
+                    stop();
+                    return;
+                }
+                if ( next.type == QUERY ) {
+                    query(next);
+                    continue;
+                }
+                batch[count++] = next;
+            }
+
+            if ( count > 0 ) {
+                apply(batch, count);
+                Arrays.fill(batch, 0, count, null);
+            }
+            else if ( head.next == null ) {
+                sleeping = true;
+                if ( head.next == null ) LockSupport.park(this);
+                sleeping = false;
+            }
+        }
+    }
+
+    // Rejects the operations queued after the stop, waiting for the ones being linked right now
+    private void stop() {
+        terminated = true;
+
+        while ( head != tail.get() ) {
+            Operation<T> next = head.next;
+
+            if ( next == null ) Thread.onSpinWait();
+            else reject(head = next);
+        }
+    }
+
+    // Sorts the batch and applies the operations on each element together
+    private void apply( Operation<T>[] batch, int count ) {
+        batches++;
+        operations += count;
+
+        // Stable, so the operations on the same element keep their order
+        Arrays.sort(batch, 0, count, (a, b) -> a.element.compareTo(b.element));
+
+        for ( int from = 0, to; from < count; from = to ) {
+            to = from + 1;
+            while ( to < count && batch[to].element.compareTo(batch[from].element) == 0 ) to++;
+
+            try {
+                if ( to - from == 1 ) {
+                    Operation<T> operation = batch[from];
+                    operation.result.complete(operation.type == ADD ? tree.add(operation.element) : tree.remove(operation.element));
+                    applied++;
+                }
+                else combine(batch, from, to);
+            } catch ( RuntimeException e ) {
+                for ( int i = from; i < to; i++ ) batch[i].result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Applies the operations on the same element with one search and one change at most. Each operation gets the
+     * result it would have had alone, following the presence of the element from one to the next.
+     */
+    private void combine( Operation<T>[] batch, int from, int to ) {
+        boolean initially = tree.contains(batch[from].element);
+        boolean present = initially, replaced = false;
+        T current = null;
+
+        Object[] results = new Object[to - from];
+
+        for ( int i = from; i < to; i++ ) {
+            Operation<T> operation = batch[i];
+
+            if ( operation.type == ADD ) {
+                results[i - from] = !present;
+                if ( !present ) {
+                    present = true;
+                    current = operation.element;
+                    replaced = initially;
+                }
+            }
+            else {
+                results[i - from] = present;
+                present = false;
+            }
+        }
+
+        if ( present && (!initially || replaced) ) {
+            if ( initially ) tree.remove(current);
+            tree.add(current);
+            applied++;
+        }
+        else if ( !present && initially ) {
+            tree.remove(batch[from].element);
+            applied++;
+        }
+
+        for ( int i = from; i < to; i++ ) batch[i].result.complete(results[i - from]);
+    }
+
+    private void query( Operation<T> operation ) {
+        try {
+            operation.result.complete(operation.query.apply(tree));
+        } catch ( RuntimeException e ) {
+            operation.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return The number of operations applied to the tree for every operation queued, 1 at most: the lower, the more
+     *         operations have been combined. Only meant for the owner thread or after closing.
+     */
+    public double getAppliedRatio() {
+        return operations == 0 ? 1 : (double) applied / operations;
+    }
+
+    /**
+     * @return The mean number of operations per batch. Only meant for the owner thread or after closing.
+     */
+    public double getMeanBatch() {
+        return batches == 0 ? 0 : (double) operations / batches;
+    }
+
+    /**
+     * Applies the operations already queued and stops the owner thread. The operations queued from now on fail with an
+     * {@link IllegalStateException}. If the calling thread is interrupted while waiting, it returns with the interrupt
+     * flag set and the owner thread finishes the queued operations on its own.
+     */
+    @Override
+    public void close() {
+        if ( closed ) return;
+
+        closed = true;
+        link(new Operation<>(STOP, null, null));
+
+        try {
+            owner.join();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.function.UnaryOperator;
+
+/**
+ * A node of a {@link VersionedTree23}.
+ * <p>
+ * Same layout as {@link Node23}, plus the epoch in which the node was created. A node created before the last epoch
+ * pinned by a snapshot may be seen by that snapshot, so the writer doesn't change it: it changes a copy made in the
+ * current epoch, and the parent of the copy in turn.
+ */
+final class VersionedNode23<T> {
+
+    final long version;
+
+    T left, right;                  // right is null in a 2-node, and left in an empty node
+    VersionedNode23<T> leftChild, mid, rightChild;
+
+    VersionedNode23( long version, T left ) {
+        this.version = version;
+        this.left = left;
+    }
+
+    VersionedNode23( long version, T left, VersionedNode23<T> leftChild, VersionedNode23<T> mid ) {
+        this(version, left);
+        this.leftChild = leftChild;
+        this.mid = mid;
+    }
+
+    boolean isLeaf() {
+        return leftChild == null;
+    }
+
+    /**
+     * @param version The current epoch of the writer
+     * @param pinned  The last epoch pinned by an open snapshot, 0 if none
+     *
+     * @return This node if no snapshot can see it, or a copy of it in the current epoch
+     */
+    VersionedNode23<T> writable( long version, long pinned ) {
+        if ( this.version > pinned ) return this;
+
+        VersionedNode23<T> copy = new VersionedNode23<>(version, left, leftChild, mid);
+        copy.right = right;
+        copy.rightChild = rightChild;
+        return copy;
+    }
+
+    /**
+     * Repairs the empty child of this node like {@link Node23#rebalance()}, copying first the sibling that gives or
+     * takes the elements if a snapshot can see it. This node and its empty child must be writable already.
+     *
+     * @param writable Returns the node given if it can be changed, or a copy of it like {@link #writable(long, long)}
+     *
+     * @return true if two children have been merged, this node has one element less and may be left empty too
+     */
+    boolean rebalance( UnaryOperator<VersionedNode23<T>> writable ) {
+        int empty = 0;
+        while ( child(empty).left != null ) empty++;
+
+        VersionedNode23<T> current = child(empty);
+
+        if ( empty > 0 && child(empty - 1).right != null ) {
+            VersionedNode23<T> sibling = writable.apply(child(empty - 1));
+            setChild(empty - 1, sibling);
+
+            current.left = element(empty - 1);
+            current.mid = current.leftChild;
+            current.leftChild = sibling.rightChild;
+
+            setElement(empty - 1, sibling.right);
+
+            sibling.right = null;
+            sibling.rightChild = null;
+            return false;
+        }
+
+        if ( empty < 2 && child(empty + 1) != null && child(empty + 1).right != null ) {
+            VersionedNode23<T> sibling = writable.apply(child(empty + 1));
+            setChild(empty + 1, sibling);
+
+            current.left = element(empty);
+            current.mid = sibling.leftChild;
+
+            setElement(empty, sibling.left);
+
+            sibling.left = sibling.right;
+            sibling.right = null;
+            sibling.leftChild = sibling.mid;
+            sibling.mid = sibling.rightChild;
+            sibling.rightChild = null;
+            return false;
+        }
+
+        // Every sibling is a 2-node, so the empty child is merged with one of them
+        if ( empty > 0 ) {
+            VersionedNode23<T> sibling = writable.apply(child(empty - 1));
+
+            sibling.right = element(empty - 1);
+            sibling.rightChild = current.leftChild;
+
+            setChild(empty - 1, sibling);
+            removeChild(empty, empty - 1);
+        }
+        else {
+            VersionedNode23<T> sibling = writable.apply(child(1));
+
+            sibling.right = sibling.left;
+            sibling.left = left;
+            sibling.rightChild = sibling.mid;
+            sibling.mid = sibling.leftChild;
+            sibling.leftChild = current.leftChild;
+
+            setChild(1, sibling);
+            removeChild(0, 0);
+        }
+        return true;
+    }
+
+    // Removes the child at the position given and one of the elements of the node, shifting the rest to the left
+    private void removeChild( int child, int element ) {
+        for ( int i = child; i < 2; i++ ) setChild(i, child(i + 1));
+        setChild(2, null);
+
+        if ( element == 0 ) left = right;
+        right = null;
+    }
+
+    VersionedNode23<T> child( int i ) {
+        return i == 0 ? leftChild : i == 1 ? mid : rightChild;
+    }
+
+    void setChild( int i, VersionedNode23<T> child ) {
+        if ( i == 0 ) leftChild = child;
+        else if ( i == 1 ) mid = child;
+        else rightChild = child;
+    }
+
+    private T element( int i ) {
+        return i == 0 ? left : right;
+    }
+
+    private void setElement( int i, T element ) {
+        if ( i == 0 ) left = element;
+        else right = element;
+    }
+}
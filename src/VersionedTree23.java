@@ -0,0 +1,520 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * A 2-3 Tree with snapshot isolation: readers on other threads take a {@link Snapshot}, a consistent version of the
+ * tree that they can scan for as long as they need while the writer keeps adding and removing elements.
+ * <p>
+ * Taking a snapshot pins the current epoch of the writer and starts a new one. The writer changes in place the nodes
+ * created after the last pinned epoch, which no snapshot can see, and copies the others before changing them, with
+ * the path from them to the root (copy on write). Closing a snapshot unpins its epoch: once no snapshot pins an epoch,
+ * its nodes are the writer's again and are changed in place, and the versions only that snapshot could see are left
+ * to the garbage collector. Without open snapshots the tree works like {@link Tree23}, without copies.
+ * <p>
+ * Scans never stop the writer, and the writer never changes what a scan sees: taking and closing a snapshot only
+ * waits for the add or remove running at the time. The writes can come from any thread; the reads straight on the
+ * tree ({@link #find}, {@link #iterator()}...) must come from the thread writing, other threads read a snapshot.
+ *
+ * @param <T> Generic element
+ */
+public class VersionedTree23<T extends Comparable<T>> implements SortedTree<T>, Iterable<T> {
+
+    private VersionedNode23<T> root;
+    private int size;
+
+    private long epoch = 1;         // The version of the nodes created or copied by the writer
+    private long pinned;            // The last epoch pinned by an open snapshot, 0 if none
+    private final TreeMap<Long, Integer> pins = new TreeMap<>();   // The number of open snapshots of each epoch
+    private long copies;
+
+    private boolean changed;        // A flag to know if the last add or remove has changed the tree
+    private T promoted;             // The element going up after a split
+    private VersionedNode23<T> promotedNode; // The node split off on its right
+    private T max;                  // The element taken by removeMax
+
+    /**
+     * Pins the current version of the tree.
+     *
+     * @return A snapshot that must be closed once read, so the writer stops copying the nodes it can see
+     */
+    public synchronized Snapshot snapshot() {
+        long epoch = this.epoch++;
+
+        pins.merge(epoch, 1, Integer::sum);
+        pinned = epoch;
+        return new Snapshot(epoch, root, size);
+    }
+
+    /**
+     * Runs a read on a snapshot of the tree, closing it afterwards.
+     *
+     * @return The result of the read
+     */
+    public <R> R read( Function<? super Snapshot, R> read ) {
+        try ( Snapshot snapshot = snapshot() ) {
+            return read.apply(snapshot);
+        }
+    }
+
+    private synchronized void unpin( long epoch ) {
+        pins.computeIfPresent(epoch, ( e, count ) -> count == 1 ? null : count - 1);
+        pinned = pins.isEmpty() ? 0 : pins.lastKey();
+    }
+
+    /**
+     * @return The number of snapshots not closed yet
+     */
+    public synchronized int getOpenSnapshots() {
+        int open = 0;
+        for ( int count : pins.values() ) open += count;
+        return open;
+    }
+
+    /**
+     * @return The number of nodes the writer has copied because an open snapshot could see them
+     */
+    public synchronized long getCopies() {
+        return copies;
+    }
+
+    private VersionedNode23<T> writable( VersionedNode23<T> node ) {
+        VersionedNode23<T> writable = node.writable(epoch, pinned);
+        if ( writable != node ) copies++;
+        return writable;
+    }
+
+    /**
+     * Adds a new element to the tree keeping it balanced.
+     *
+     * @param element The element to add
+     *
+     * @return If the element has been added (true) or not because it already exists (false)
+     */
+    @Override
+    public synchronized boolean add( T element ) {
+        if ( root == null ) {
+            root = new VersionedNode23<>(epoch, element);
+            size = 1;
+            return true;
+        }
+
+        changed = false;
+        VersionedNode23<T> node = add(root, element);
+
+        if ( promotedNode != null ) {
+            // The root has been split, the tree grows one level
+            node = new VersionedNode23<>(epoch, promoted, node, promotedNode);
+            promoted = null;
+            promotedNode = null;
+        }
+        root = node;
+
+        if ( changed ) size++;
+        return changed;
+    }
+
+    /**
+     * Goes down to the leaf where the element belongs and splits the full nodes on the way up, copying the ones that
+     * change if a snapshot can see them.
+     *
+     * @return The node to hang in place of the one given, itself if it hasn't been copied. If it has been split, the
+     *         element going up is in 'promoted' and the new node in 'promotedNode'
+     */
+    private VersionedNode23<T> add( VersionedNode23<T> node, T element ) {
+        int left = element.compareTo(node.left);
+        int right = node.right == null ? -1 : element.compareTo(node.right);
+
+        if ( left == 0 || right == 0 ) return node;
+
+        int position = left < 0 ? 0 : right < 0 ? 1 : 2;
+        VersionedNode23<T> subtree = null;
+
+        if ( node.isLeaf() ) changed = true;
+        else {
+            VersionedNode23<T> child = node.child(position), updated = add(child, element);
+            if ( updated == child && promotedNode == null ) return node;
+
+            node = writable(node);
+            node.setChild(position, updated);
+            if ( promotedNode == null ) return node;
+
+            element = promoted;
+            subtree = promotedNode;
+            promoted = null;
+            promotedNode = null;
+        }
+        node = writable(node);
+
+        if ( node.right == null ) {
+            if ( position == 0 ) {
+                node.right = node.left;
+                node.left = element;
+                node.rightChild = node.mid;
+                node.mid = subtree;
+            }
+            else {
+                node.right = element;
+                node.rightChild = subtree;
+            }
+            return node;
+        }
+
+        // Full: the node keeps the first element, the last one goes to a new node on its right and the middle one up
+        T first, middle, last;
+        VersionedNode23<T> c0 = node.leftChild, c1 = node.mid, c2 = node.rightChild, c3 = subtree;
+
+        if ( position == 0 ) {
+            first = element; middle = node.left; last = node.right;
+            c3 = c2; c2 = c1; c1 = subtree;
+        }
+        else if ( position == 1 ) {
+            first = node.left; middle = element; last = node.right;
+            c3 = c2; c2 = subtree;
+        }
+        else {
+            first = node.left; middle = node.right; last = element;
+        }
+
+        node.left = first;
+        node.right = null;
+        node.leftChild = c0;
+        node.mid = c1;
+        node.rightChild = null;
+
+        promoted = middle;
+        promotedNode = new VersionedNode23<>(epoch, last, c2, c3);
+        return node;
+    }
+
+    /**
+     * Deletes an element from the tree.
+     *
+     * @param element The element to delete
+     *
+     * @return True if the element has been deleted, false if not (the element was not in the tree)
+     */
+    @Override
+    public synchronized boolean remove( T element ) {
+        if ( root == null ) return false;
+
+        changed = false;
+        VersionedNode23<T> node = remove(root, element);
+        if ( !changed ) return false;
+
+        size--;
+
+        // A root left empty is replaced by its only child, if any
+        root = node.left == null ? node.leftChild : node;
+        return true;
+    }
+
+    /**
+     * @return The node to hang in place of the one given, itself if it hasn't been copied. It is left empty if it has
+     *         lost its only element
+     */
+    private VersionedNode23<T> remove( VersionedNode23<T> node, T element ) {
+        int left = element.compareTo(node.left);
+        int right = node.right == null ? -1 : element.compareTo(node.right);
+
+        if ( node.isLeaf() ) {
+            if ( left != 0 && right != 0 ) return node;
+
+            node = writable(node);
+            if ( left == 0 ) node.left = node.right;
+            node.right = null;
+            changed = true;
+            return node;
+        }
+
+        int position;
+        VersionedNode23<T> updated;
+
+        if ( left == 0 || right == 0 ) {
+            // An element of an inner node is replaced by the max element on its left, which is always in a leaf
+            position = left == 0 ? 0 : 1;
+            node = writable(node);
+            updated = removeMax(node.child(position));
+
+            if ( left == 0 ) node.left = max;
+            else node.right = max;
+            max = null;
+            changed = true;
+        }
+        else {
+            position = left < 0 ? 0 : right < 0 ? 1 : 2;
+            VersionedNode23<T> child = node.child(position);
+            updated = remove(child, element);
+
+            if ( !changed || updated == child && updated.left != null ) return node;
+            node = writable(node);
+        }
+
+        node.setChild(position, updated);
+        if ( updated.left == null ) node.rebalance(this::writable);
+        return node;
+    }
+
+    // Removes the max element of a subtree into 'max', repairing the nodes left empty on the way up
+    private VersionedNode23<T> removeMax( VersionedNode23<T> node ) {
+        node = writable(node);
+
+        if ( node.isLeaf() ) {
+            if ( node.right != null ) {
+                max = node.right;
+                node.right = null;
+            }
+            else {
+                max = node.left;
+                node.left = null;
+            }
+            return node;
+        }
+
+        int position = node.right != null ? 2 : 1;
+        VersionedNode23<T> child = removeMax(node.child(position));
+
+        node.setChild(position, child);
+        if ( child.left == null ) node.rebalance(this::writable);
+        return node;
+    }
+
+    private static <T extends Comparable<T>> T find( VersionedNode23<T> node, T element ) {
+        while ( node != null ) {
+            int left = element.compareTo(node.left);
+            if ( left == 0 ) return node.left;
+
+            if ( left < 0 ) node = node.leftChild;
+            else if ( node.right == null ) node = node.mid;
+            else {
+                int right = element.compareTo(node.right);
+                if ( right == 0 ) return node.right;
+                node = right < 0 ? node.mid : node.rightChild;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T findMin( VersionedNode23<T> node ) {
+        if ( node == null ) return null;
+        while ( !node.isLeaf() ) node = node.leftChild;
+        return node.left;
+    }
+
+    private static <T> T findMax( VersionedNode23<T> node ) {
+        if ( node == null ) return null;
+        while ( !node.isLeaf() ) node = node.right != null ? node.rightChild : node.mid;
+        return node.right != null ? node.right : node.left;
+    }
+
+    @Override
+    public T find( T element ) {
+        return find(root, element);
+    }
+
+    @Override
+    public T findMin() {
+        return findMin(root);
+    }
+
+    @Override
+    public T findMax() {
+        return findMax(root);
+    }
+
+    @Override
+    public long getLevel() {
+        long level = 0;
+        for ( VersionedNode23<T> node = root; node != null; node = node.leftChild ) level++;
+        return level;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all of the elements. The open snapshots keep their versions.
+     */
+    @Override
+    public synchronized void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor<>(root, null, null);
+    }
+
+    /**
+     * A version of the tree pinned by {@link #snapshot()}. It doesn't change, whatever the writer does, and can be read
+     * by any thread until it is closed. Reading a closed snapshot, or one of its iterators, throws an
+     * IllegalStateException.
+     */
+    public final class Snapshot implements AutoCloseable, Iterable<T> {
+
+        private final long epoch;
+        private final VersionedNode23<T> root;
+        private final int size;
+
+        private volatile boolean closed;
+
+        private Snapshot( long epoch, VersionedNode23<T> root, int size ) {
+            this.epoch = epoch;
+            this.root = root;
+            this.size = size;
+        }
+
+        private void check() {
+            if ( closed ) throw new IllegalStateException("The snapshot is closed");
+        }
+
+        /**
+         * @return The epoch pinned by the snapshot, greater for the newer snapshots
+         */
+        public long getEpoch() {
+            return epoch;
+        }
+
+        public int size() {
+            check();
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        /**
+         * @return The element if it was in the tree when the snapshot was taken, or null if not
+         */
+        public T find( T element ) {
+            check();
+            return VersionedTree23.find(root, element);
+        }
+
+        public boolean contains( T element ) {
+            return find(element) != null;
+        }
+
+        public T findMin() {
+            check();
+            return VersionedTree23.findMin(root);
+        }
+
+        public T findMax() {
+            check();
+            return VersionedTree23.findMax(root);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            check();
+            return new Cursor<>(root, null, this);
+        }
+
+        /**
+         * @param from The element to start from, it doesn't need to be in the tree
+         *
+         * @return The elements equal to or greater than the one given, in order
+         */
+        public Iterator<T> iterator( T from ) {
+            check();
+            return new Cursor<>(root, from, this);
+        }
+
+        /**
+         * Unpins the epoch of the snapshot. Closing it again does nothing.
+         */
+        @Override
+        public void close() {
+            if ( closed ) return;
+            closed = true;
+            unpin(epoch);
+        }
+    }
+
+    /**
+     * Iterates the elements in order keeping the path to the next one, like {@link Tree23Iterator}.
+     */
+    private static final class Cursor<T extends Comparable<T>> implements Iterator<T> {
+        private VersionedNode23<?>[] nodes = new VersionedNode23<?>[16];
+        private byte[] elements = new byte[16];   // The element of each node that comes next: 0 the left one, 1 the right one
+        private int depth;
+
+        private final VersionedTree23<T>.Snapshot snapshot;
+
+        Cursor( VersionedNode23<T> root, T from, VersionedTree23<T>.Snapshot snapshot ) {
+            this.snapshot = snapshot;
+
+            if ( from == null ) pushFirst(root);
+            else seek(root, from);
+        }
+
+        private void push( VersionedNode23<T> node, int element ) {
+            if ( depth == nodes.length ) {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                elements = Arrays.copyOf(elements, depth * 2);
+            }
+            nodes[depth] = node;
+            elements[depth++] = (byte) element;
+        }
+
+        private void pushFirst( VersionedNode23<T> node ) {
+            for ( ; node != null; node = node.leftChild ) push(node, 0);
+        }
+
+        // Goes down to the first element equal to or greater than 'from', stacking the nodes with an element after it
+        private void seek( VersionedNode23<T> node, T from ) {
+            while ( node != null ) {
+                int left = from.compareTo(node.left);
+                if ( left <= 0 ) {
+                    push(node, 0);
+                    if ( left == 0 ) return;
+                    node = node.leftChild;
+                    continue;
+                }
+
+                int right = node.right == null ? 1 : from.compareTo(node.right);
+                if ( right <= 0 ) {
+                    push(node, 1);
+                    if ( right == 0 ) return;
+                    node = node.mid;
+                }
+                else node = node.right == null ? node.mid : node.rightChild;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if ( snapshot != null ) snapshot.check();
+            if ( depth == 0 ) throw new NoSuchElementException();
+
+            VersionedNode23<T> node = (VersionedNode23<T>) nodes[--depth];
+            nodes[depth] = null;
+
+            if ( elements[depth] == 0 ) {
+                if ( node.right != null ) push(node, 1);
+                pushFirst(node.mid);
+                return node.left;
+            }
+            pushFirst(node.rightChild);
+            return node.right;
+        }
+    }
+}
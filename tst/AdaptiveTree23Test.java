@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveTree23Test {
+
+    @Test
+    void testThreshold() {
+        AdaptiveTree23<Integer> tree = new AdaptiveTree23<>(8);
+
+        for (int i = 0; i < 8; i++) tree.add(i);
+        assertTrue(tree.isCompact());
+        assertEquals(1, tree.getLevel());
+
+        tree.add(8);
+        assertFalse(tree.isCompact());
+        assertEquals(9, tree.size());
+
+        for (int i = 0; i < 4; i++) tree.remove(i);
+        assertFalse(tree.isCompact());
+        tree.remove(4);
+        assertTrue(tree.isCompact());
+
+        List<Integer> elements = new ArrayList<>();
+        tree.forEach(elements::add);
+        assertEquals(List.of(5, 6, 7, 8), elements);
+    }
+
+    @Test
+    void testRandomAddRemove() {
+        AdaptiveTree23<Integer> tree = new AdaptiveTree23<>(16);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(30);
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(40);
+            if (random.nextBoolean()) assertEquals(expected.add(element), tree.add(element));
+            else assertEquals(expected.remove(element), tree.remove(element));
+
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.isEmpty() ? null : expected.first(), tree.findMin());
+            assertEquals(expected.isEmpty() ? null : expected.last(), tree.findMax());
+        }
+
+        for (int i = 0; i < 40; i++) assertEquals(expected.contains(i), tree.contains(i));
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AugmentedTree23Test {
+
+    @Test
+    void testRangeSum() {
+        AugmentedTree23<Integer, Long> tree = new AugmentedTree23<>(Summary.sum(Integer::longValue));
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(35);
+
+        assertEquals(0L, tree.aggregate());
+        assertEquals(0L, tree.aggregate(1, 10));
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(1000);
+            int operation = random.nextInt(5);
+            if (operation < 3) assertEquals(expected.add(element), tree.add(element));
+            else if (operation == 3) assertEquals(expected.remove(element), tree.remove(element));
+            else assertEquals(expected.pollFirst(), tree.pollFirst());
+
+            if (i % 50 == 0) {
+                int from = random.nextInt(1100) - 50, to = from + random.nextInt(400);
+                long sum = expected.subSet(from, true, to, true).stream().mapToLong(Integer::longValue).sum();
+                assertEquals(sum, tree.aggregate(from, to));
+                assertEquals(expected.stream().mapToLong(Integer::longValue).sum(), tree.aggregate());
+            }
+        }
+    }
+
+    @Test
+    void testCountAndMax() {
+        AugmentedTree23<String, Long> count = new AugmentedTree23<>(Summary.<String>count());
+        AugmentedTree23<String, Long> longest = new AugmentedTree23<>(Summary.max(String::length));
+
+        for (String word : "the quick brown fox jumps over the lazy dog".split(" ")) {
+            count.add(word);
+            longest.add(word);
+        }
+
+        assertEquals(8L, count.aggregate());
+        assertEquals(3L, count.aggregate("dog", "jumps"));     // dog, fox, jumps
+        assertEquals(5L, longest.aggregate("brown", "lazy"));  // brown, dog, fox, jumps, lazy
+        assertEquals(4L, longest.aggregate("over", "over"));   // over
+        assertEquals(Long.MIN_VALUE, longest.aggregate("a", "b"));
+    }
+
+    @Test
+    void testCompact() {
+        AugmentedTree23<Integer, Long> tree = new AugmentedTree23<>(Summary.sum(Integer::longValue));
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(46);
+
+        // Repacked on almost every change, the summaries must follow the nodes rebuilt and joined
+        tree.enableCompaction(30, 0.9);
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(2000);
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(element), tree.remove(element));
+            else assertEquals(expected.add(element), tree.add(element));
+
+            if (i % 50 == 0) {
+                int from = random.nextInt(2100) - 50, to = from + random.nextInt(400);
+                long sum = expected.subSet(from, true, to, true).stream().mapToLong(Integer::longValue).sum();
+                assertEquals(sum, tree.aggregate(from, to));
+            }
+        }
+
+        tree.compact();
+        assertEquals(expected.stream().mapToLong(Integer::longValue).sum(), tree.aggregate());
+        assertEquals(expected.subSet(100, true, 900, true).stream().mapToLong(Integer::longValue).sum(), tree.aggregate(100, 900));
+    }
+}
@@ -0,0 +1,53 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BTreeTest {
+
+    @Test
+    void testRandomAddRemove() {
+        for (int order : List.of(3, 4, 5, 16, 33, 128)) {
+            BTree<Integer> tree = new BTree<>(order);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(order);
+
+            for (int i = 0; i < 50000; i++) {
+                int element = random.nextInt(5000);
+                if (random.nextInt(3) > 0) assertEquals(expected.add(element), tree.add(element));
+                else assertEquals(expected.remove(element), tree.remove(element));
+            }
+
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.first(), tree.findMin());
+            assertEquals(expected.last(), tree.findMax());
+            for (int i = 0; i < 5000; i++) assertEquals(expected.contains(i), tree.contains(i));
+
+            BTree<Integer> copy = tree.clone();
+            for (int element : new ArrayList<>(expected)) assertTrue(tree.remove(element));
+            assertTrue(tree.isEmpty());
+            assertNull(tree.findMin());
+            assertEquals(expected.size(), copy.size());
+        }
+    }
+
+    @Test
+    void testLevels() {
+        BTree<Integer> tree = new BTree<>(64);
+        Tree23<Integer> tree23 = new Tree23<>();
+
+        for (int i = 0; i < 100000; i++) {
+            tree.add(i);
+            tree23.add(i);
+        }
+
+        assertTrue(tree.getLevel() <= 4);
+        assertTrue(tree.getLevel() < tree23.getLevel());
+    }
+}
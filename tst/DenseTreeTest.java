@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DenseTreeTest {
+
+    @Test
+    void testCardOrdinals() {
+        for (int i = 0; i < Card.DECK_COUNT; i++) {
+            assertEquals(i, Card.DECK.fromOrdinal(i).ordinal());
+            if (i > 0) assertTrue(Card.DECK.fromOrdinal(i - 1).compareTo(Card.DECK.fromOrdinal(i)) < 0);
+        }
+    }
+
+    @Test
+    void testHand() {
+        DenseTree<Card> hand = new DenseTree<>(Card.DECK);
+        Tree23<Card> tree = new Tree23<>();
+
+        Random random = new Random(31);
+        for (int i = 0; i < 20; i++) {
+            Card card = new Card(random.nextInt(13), random.nextInt(4));
+            assertEquals(tree.add(card), hand.add(card));
+        }
+
+        assertEquals(tree.size(), hand.size());
+        assertEquals(tree.findMin(), hand.findMin());
+        assertEquals(tree.findMax(), hand.findMax());
+
+        List<Card> expected = new ArrayList<>();
+        tree.forEach(expected::add);
+        List<Card> actual = new ArrayList<>();
+        hand.forEach(actual::add);
+        assertEquals(expected, actual);
+
+        actual.clear();
+        for (Card card : hand) actual.add(card);
+        assertEquals(expected, actual);
+
+        Card first = hand.findMin();
+        assertTrue(hand.remove(first));
+        assertFalse(hand.remove(first));
+        assertFalse(hand.contains(first));
+    }
+
+    @Test
+    void testLargeDomain() {
+        OrdinalDomain<Integer> domain = new OrdinalDomain<>() {
+            public int size() { return 200; }
+            public int ordinal(Integer value) { return value; }
+            public Integer fromOrdinal(int ordinal) { return ordinal; }
+        };
+        DenseTree<Integer> set = new DenseTree<>(domain);
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(200);
+
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(200);
+            if (random.nextBoolean()) assertEquals(expected.add(value), set.add(value));
+            else assertEquals(expected.remove(value), set.remove(value));
+
+            assertEquals(expected.size(), set.size());
+            assertEquals(expected.isEmpty() ? null : expected.first(), set.findMin());
+            assertEquals(expected.isEmpty() ? null : expected.last(), set.findMax());
+        }
+
+        List<Integer> actual = new ArrayList<>();
+        set.forEach(actual::add);
+        assertEquals(new ArrayList<>(expected), actual);
+    }
+}
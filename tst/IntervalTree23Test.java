@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IntervalTree23Test {
+
+    static final class Slot implements Interval<Integer>, Comparable<Slot> {
+        final int start, end;
+
+        Slot( int start, int end ) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public Integer getStart() { return start; }
+
+        public Integer getEnd() { return end; }
+
+        @Override
+        public int compareTo( Slot other ) {
+            int cmp = Integer.compare(start, other.start);
+            return cmp != 0 ? cmp : Integer.compare(end, other.end);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+
+    @Test
+    void testOverlapping() {
+        IntervalTree23<Integer, Slot> tree = new IntervalTree23<>();
+        assertNull(tree.maxEnd());
+
+        tree.add(new Slot(0, 10));
+        tree.add(new Slot(2, 4));
+        tree.add(new Slot(5, 6));
+        tree.add(new Slot(8, 20));
+        tree.add(new Slot(12, 14));
+
+        assertEquals(20, tree.maxEnd());
+        assertEquals("[[0, 10), [2, 4)]", tree.overlapping(3).toString());
+        assertEquals("[[0, 10), [8, 20)]", tree.overlapping(9).toString());
+        assertEquals("[[8, 20)]", tree.overlapping(10).toString());        // The end is excluded
+        assertEquals("[[0, 10), [5, 6)]", tree.overlapping(4, 8).toString());
+        assertEquals("[]", tree.overlapping(20, 30).toString());
+        assertEquals("[]", tree.overlapping(6, 6).toString());
+
+        tree.remove(new Slot(8, 20));
+        assertEquals(14, tree.maxEnd());
+        assertEquals("[]", tree.overlapping(10).toString());
+    }
+
+    @Test
+    void testRandom() {
+        IntervalTree23<Integer, Slot> tree = new IntervalTree23<>();
+        List<Slot> expected = new ArrayList<>();
+        Random random = new Random(36);
+
+        for (int i = 0; i < 10000; i++) {
+            int start = random.nextInt(1000);
+            Slot slot = new Slot(start, start + 1 + random.nextInt(50));
+
+            if (random.nextInt(3) > 0) {
+                if (tree.add(slot)) expected.add(slot);
+            } else if (!expected.isEmpty()) {
+                Slot removed = expected.remove(random.nextInt(expected.size()));
+                tree.remove(removed);
+            }
+
+            if (i % 50 == 0) {
+                int point = random.nextInt(1100), to = point + 1 + random.nextInt(30);
+                expected.sort(null);
+                assertEquals(expected.stream().filter(s -> s.contains(point)).collect(Collectors.toList()), tree.overlapping(point));
+                assertEquals(expected.stream().filter(s -> s.overlaps(point, to)).collect(Collectors.toList()), tree.overlapping(point, to));
+            }
+        }
+    }
+}
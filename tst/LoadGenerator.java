@@ -0,0 +1,468 @@
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A standalone load generator for the 2-3 Tree.
+ * <p>
+ * Several threads run a mix of reads, inserts, deletes and range reads over a shared {@code Tree23<Long>} for a
+ * given time, with the keys taken from a configurable distribution. At the end it prints the throughput, the
+ * latency percentiles of each operation and the GC and allocation rates, and writes them as JSON so the results of
+ * different runs can be compared.
+ * <p>
+ * The tree is not thread safe, so the threads share it through a read-write lock: reads and range reads run in
+ * parallel, inserts and deletes take the lock alone. The latencies include the time waiting for the lock.
+ * <p>
+ * Usage: {@code java LoadGenerator [--option=value]...}
+ * <pre>
+ *   --threads=4                                   worker threads
+ *   --seconds=30                                  measured time
+ *   --warmup=5                                    seconds run before measuring
+ *   --mix=read:70,insert:15,delete:10,range:5    percentage of each operation
+ *   --distribution=uniform                        uniform, zipfian, sequential or window
+ *   --keys=1000000                                size of the key space
+ *   --preload=500000                              elements added before starting
+ *   --window=100000                               live keys of the sliding window distribution
+ *   --range=100                                   span of the keys read by each range read
+ *   --report=5                                    seconds between progress lines (0 to disable)
+ *   --seed=23                                     seed of the random generators
+ *   --output=loadgen-result.json                  file with the results
+ * </pre>
+ */
+public class LoadGenerator {
+
+    enum Op { READ, INSERT, DELETE, RANGE }
+
+    /**
+     * Gives the key of the next operation. Implementations are shared by all the threads.
+     */
+    interface KeyDistribution {
+        long next( Op op, SplittableRandom random );
+    }
+
+    private final Config config;
+    private final Tree23<Long> tree = new Tree23<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder completed = new LongAdder();
+    private final KeyDistribution distribution;
+
+    private volatile boolean running = true;
+    private volatile boolean measuring = false;
+
+    LoadGenerator( Config config ) {
+        this.config = config;
+        this.distribution = distribution(config);
+    }
+
+    public static void main( String[] args ) throws Exception {
+        Config config = Config.parse(args);
+        new LoadGenerator(config).run();
+    }
+
+    void run() throws InterruptedException, IOException {
+        preload();
+
+        Worker[] workers = new Worker[config.threads];
+        for ( int i = 0; i < workers.length; i++ ) {
+            workers[i] = new Worker(config.seed + i);
+            workers[i].start();
+        }
+
+        System.out.printf("Preloaded %d elements, warming up for %ds%n", tree.size(), config.warmup);
+        Thread.sleep(config.warmup * 1000L);
+
+        long[] threadIds = Arrays.stream(workers).mapToLong(Thread::getId).toArray();
+        long allocatedStart = allocatedBytes(threadIds);
+        long[] gcStart = gc();
+        long completedStart = completed.sum();
+        long start = System.nanoTime();
+        measuring = true;
+
+        long end = start + config.seconds * 1_000_000_000L;
+        long lastReport = start, lastCompleted = completedStart;
+        while ( System.nanoTime() < end ) {
+            long now = System.nanoTime();
+            long next = config.report > 0 ? Math.min(end, lastReport + config.report * 1_000_000_000L) : end;
+            Thread.sleep(Math.max(1, (next - now) / 1_000_000));
+
+            if ( config.report > 0 && System.nanoTime() < end ) {
+                now = System.nanoTime();
+                long done = completed.sum();
+                System.out.printf("%6.1fs %12.0f ops/s  size=%d%n", (now - start) / 1e9,
+                                  (done - lastCompleted) * 1e9 / (now - lastReport), size());
+                lastReport = now;
+                lastCompleted = done;
+            }
+        }
+
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        long operations = completed.sum() - completedStart;
+        long[] gcEnd = gc();
+        long allocated = allocatedBytes(threadIds) - allocatedStart;
+
+        running = false;
+        for ( Worker worker : workers ) worker.join();
+
+        LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+        for ( Op op : Op.values() ) {
+            latencies[op.ordinal()] = new LatencyHistogram();
+            for ( Worker worker : workers ) latencies[op.ordinal()].add(worker.latencies[op.ordinal()]);
+        }
+
+        Result result = new Result(operations, elapsed, latencies, gcEnd[0] - gcStart[0], gcEnd[1] - gcStart[1],
+                                   allocated, tree.size(), tree.getLevel());
+        result.print();
+        Files.writeString(Path.of(config.output), result.toJson(config));
+        System.out.println("Results written to " + config.output);
+    }
+
+    private void preload() {
+        SplittableRandom random = new SplittableRandom(config.seed - 1);
+
+        switch ( config.distribution ) {
+            case "sequential":
+            case "window":
+                for ( long key = 0; key < config.preload; key++ ) tree.add(key);
+                break;
+            default:
+                while ( tree.size() < config.preload ) tree.add(random.nextLong(config.keys));
+        }
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return tree.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private final class Worker extends Thread {
+
+        final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+        final SplittableRandom random;
+
+        Worker( long seed ) {
+            super("load-generator-" + seed);
+            this.random = new SplittableRandom(seed);
+            for ( int i = 0; i < latencies.length; i++ ) latencies[i] = new LatencyHistogram();
+        }
+
+        @Override
+        public void run() {
+            int[] mix = config.mix;
+
+            while ( running ) {
+                int dice = random.nextInt(100);
+                Op op = Op.RANGE;
+                for ( int i = 0; i < mix.length; i++ ) {
+                    if ( dice < mix[i] ) {
+                        op = Op.values()[i];
+                        break;
+                    }
+                }
+
+                long key = distribution.next(op, random);
+                long start = System.nanoTime();
+                execute(op, key);
+                long latency = System.nanoTime() - start;
+
+                if ( measuring ) latencies[op.ordinal()].record(latency);
+                completed.increment();
+            }
+        }
+
+        private void execute( Op op, long key ) {
+            boolean write = op == Op.INSERT || op == Op.DELETE;
+
+            if ( write ) lock.writeLock().lock();
+            else lock.readLock().lock();
+            try {
+                switch ( op ) {
+                    case READ:
+                        tree.find(key);
+                        break;
+                    case INSERT:
+                        tree.add(key);
+                        break;
+                    case DELETE:
+                        tree.remove(key);
+                        break;
+                    case RANGE: {
+                        // Walks the elements from the key up to key + range, excluded
+                        Iterator<Long> scan = tree.iterator(key, true);
+                        long end = key + config.range;
+                        while ( scan.hasNext() && scan.next() < end ) {
+                            // Only reads them
+                        }
+                        break;
+                    }
+                }
+            } finally {
+                if ( write ) lock.writeLock().unlock();
+                else lock.readLock().unlock();
+            }
+        }
+    }
+
+    private static KeyDistribution distribution( Config config ) {
+        switch ( config.distribution ) {
+            case "uniform":
+                return ( op, random ) -> random.nextLong(config.keys);
+            case "zipfian":
+                return new Zipfian(config.keys);
+            case "sequential": {
+                AtomicLong next = new AtomicLong(config.preload);
+                return ( op, random ) -> next.getAndIncrement() % config.keys;
+            }
+            case "window":
+                return new SlidingWindow(config.preload, config.window);
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + config.distribution);
+        }
+    }
+
+    /**
+     * Zipfian distribution (theta = 0.99) over the key space, as described by Gray et al. in "Quickly Generating
+     * Billion-Record Synthetic Databases". The hot keys are scattered over the key space with a hash, so they don't
+     * all sit in the same subtree.
+     */
+    static final class Zipfian implements KeyDistribution {
+
+        private static final double THETA = 0.99;
+
+        private final long items;
+        private final double alpha, eta, zetan;
+
+        Zipfian( long items ) {
+            this.items = items;
+            double zeta2 = zeta(2);
+            this.zetan = zeta(items);
+            this.alpha = 1.0 / (1.0 - THETA);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - THETA)) / (1 - zeta2 / zetan);
+        }
+
+        private static double zeta( long n ) {
+            double sum = 0;
+            for ( long i = 1; i <= n; i++ ) sum += 1 / Math.pow(i, THETA);
+            return sum;
+        }
+
+        @Override
+        public long next( Op op, SplittableRandom random ) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            long rank;
+
+            if ( uz < 1.0 ) rank = 0;
+            else if ( uz < 1.0 + Math.pow(0.5, THETA) ) rank = 1;
+            else rank = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+
+            return Math.floorMod(rank * 0x9E3779B97F4A7C15L, items);
+        }
+    }
+
+    /**
+     * Time-series like keys: inserts append at the head, deletes expire the tail and reads and range reads fall
+     * inside the window of live keys.
+     */
+    static final class SlidingWindow implements KeyDistribution {
+
+        private final AtomicLong head;
+        private final AtomicLong tail = new AtomicLong();
+        private final long window;
+
+        SlidingWindow( long preloaded, long window ) {
+            this.head = new AtomicLong(preloaded);
+            this.window = window;
+        }
+
+        @Override
+        public long next( Op op, SplittableRandom random ) {
+            switch ( op ) {
+                case INSERT:
+                    return head.getAndIncrement();
+                case DELETE:
+                    return tail.getAndIncrement();
+                default:
+                    long top = head.get();
+                    return Math.max(0, top - 1 - random.nextLong(window));
+            }
+        }
+    }
+
+    private static long allocatedBytes( long[] threadIds ) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threadIds)).filter(b -> b > 0).sum();
+    }
+
+    // Collections and milliseconds spent in GC by all the collectors
+    private static long[] gc() {
+        long[] gc = new long[2];
+        for ( GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans() ) {
+            gc[0] += Math.max(0, bean.getCollectionCount());
+            gc[1] += Math.max(0, bean.getCollectionTime());
+        }
+        return gc;
+    }
+
+    static final class Config {
+        int threads = 4;
+        long seconds = 30;
+        long warmup = 5;
+        int[] mix = { 70, 85, 95, 100 };   // cumulative percentages of read, insert, delete and range
+        String distribution = "uniform";
+        long keys = 1_000_000;
+        long preload = 500_000;
+        long window = 100_000;
+        int range = 100;
+        long report = 5;
+        long seed = 23;
+        String output = "loadgen-result.json";
+
+        static Config parse( String[] args ) {
+            Config config = new Config();
+
+            for ( String arg : args ) {
+                int equals = arg.indexOf('=');
+                if ( !arg.startsWith("--") || equals < 0 ) throw new IllegalArgumentException("Invalid option: " + arg);
+
+                String name = arg.substring(2, equals), value = arg.substring(equals + 1);
+                switch ( name ) {
+                    case "threads":      config.threads = Integer.parseInt(value); break;
+                    case "seconds":      config.seconds = Long.parseLong(value); break;
+                    case "warmup":       config.warmup = Long.parseLong(value); break;
+                    case "mix":          config.mix = parseMix(value); break;
+                    case "distribution": config.distribution = value; break;
+                    case "keys":         config.keys = Long.parseLong(value); break;
+                    case "preload":      config.preload = Long.parseLong(value); break;
+                    case "window":       config.window = Long.parseLong(value); break;
+                    case "range":        config.range = Integer.parseInt(value); break;
+                    case "report":       config.report = Long.parseLong(value); break;
+                    case "seed":         config.seed = Long.parseLong(value); break;
+                    case "output":       config.output = value; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + name);
+                }
+            }
+
+            if ( config.preload > config.keys ) throw new IllegalArgumentException("preload can't be bigger than keys");
+            if ( config.distribution.equals("window") ) config.preload = config.window;
+
+            return config;
+        }
+
+        // "read:70,insert:15,delete:10,range:5" to cumulative percentages in the order of Op
+        private static int[] parseMix( String value ) {
+            int[] percentages = new int[Op.values().length];
+
+            for ( String part : value.split(",") ) {
+                String[] pair = part.split(":");
+                percentages[Op.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(pair[1].trim());
+            }
+
+            for ( int i = 1; i < percentages.length; i++ ) percentages[i] += percentages[i - 1];
+            if ( percentages[percentages.length - 1] != 100 ) throw new IllegalArgumentException("The mix must add up to 100: " + value);
+
+            return percentages;
+        }
+
+        String mixAsString() {
+            StringBuilder mix = new StringBuilder();
+            for ( Op op : Op.values() ) {
+                int percentage = this.mix[op.ordinal()] - (op.ordinal() == 0 ? 0 : this.mix[op.ordinal() - 1]);
+                if ( mix.length() > 0 ) mix.append(',');
+                mix.append(op.name().toLowerCase(Locale.ROOT)).append(':').append(percentage);
+            }
+            return mix.toString();
+        }
+    }
+
+    static final class Result {
+        final long operations, elapsed, gcCount, gcMillis, allocated, size, height;
+        final LatencyHistogram[] latencies;
+
+        Result( long operations, long elapsed, LatencyHistogram[] latencies, long gcCount, long gcMillis,
+                long allocated, long size, long height ) {
+            this.operations = operations;
+            this.elapsed = elapsed;
+            this.latencies = latencies;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.allocated = allocated;
+            this.size = size;
+            this.height = height;
+        }
+
+        double seconds() {
+            return elapsed / 1e9;
+        }
+
+        void print() {
+            System.out.printf("%nThroughput: %.0f ops/s (%d operations in %.1fs)%n", operations / seconds(), operations, seconds());
+            for ( Op op : Op.values() ) {
+                LatencyHistogram h = latencies[op.ordinal()];
+                if ( h.getCount() == 0 ) continue;
+                System.out.printf("%-7s count=%d p50=%dns p99=%dns p99.9=%dns max=%dns%n", op, h.getCount(),
+                                  h.getPercentile(50), h.getPercentile(99), h.getPercentile(99.9), h.getMax());
+            }
+            System.out.printf("GC: %d collections, %dms (%.1f%% of the time)%n", gcCount, gcMillis, gcMillis / 10.0 / seconds());
+            System.out.printf("Allocation: %.1f MB/s%n", allocated / seconds() / (1 << 20));
+            System.out.printf("Final tree: size=%d, height=%d%n", size, height);
+        }
+
+        String toJson( Config config ) {
+            StringBuilder json = new StringBuilder();
+            json.append("{\n  \"config\": {")
+                .append("\"threads\": ").append(config.threads)
+                .append(", \"seconds\": ").append(config.seconds)
+                .append(", \"warmup\": ").append(config.warmup)
+                .append(", \"mix\": \"").append(config.mixAsString()).append('"')
+                .append(", \"distribution\": \"").append(config.distribution).append('"')
+                .append(", \"keys\": ").append(config.keys)
+                .append(", \"preload\": ").append(config.preload)
+                .append(", \"window\": ").append(config.window)
+                .append(", \"range\": ").append(config.range)
+                .append(", \"seed\": ").append(config.seed).append("},\n")
+                .append("  \"elapsedSeconds\": ").append(String.format(Locale.ROOT, "%.3f", seconds())).append(",\n")
+                .append("  \"operations\": ").append(operations).append(",\n")
+                .append("  \"throughput\": ").append(String.format(Locale.ROOT, "%.1f", operations / seconds())).append(",\n")
+                .append("  \"latencyNanos\": {");
+
+            List<Op> ops = List.of(Op.values());
+            for ( Op op : ops ) {
+                LatencyHistogram h = latencies[op.ordinal()];
+                json.append(op.ordinal() == 0 ? "\n" : ",\n")
+                    .append("    \"").append(op.name().toLowerCase(Locale.ROOT)).append("\": {")
+                    .append("\"count\": ").append(h.getCount())
+                    .append(", \"mean\": ").append(Math.round(h.getMean()))
+                    .append(", \"p50\": ").append(h.getPercentile(50))
+                    .append(", \"p99\": ").append(h.getPercentile(99))
+                    .append(", \"p999\": ").append(h.getPercentile(99.9))
+                    .append(", \"max\": ").append(h.getMax()).append('}');
+            }
+
+            json.append("\n  },\n")
+                .append("  \"gc\": {\"collections\": ").append(gcCount)
+                .append(", \"millis\": ").append(gcMillis)
+                .append(", \"collectionsPerSecond\": ").append(String.format(Locale.ROOT, "%.2f", gcCount / seconds())).append("},\n")
+                .append("  \"allocation\": {\"bytes\": ").append(allocated)
+                .append(", \"bytesPerSecond\": ").append(Math.round(allocated / seconds())).append("},\n")
+                .append("  \"tree\": {\"size\": ").append(size).append(", \"height\": ").append(height).append("}\n")
+                .append("}\n");
+
+            return json.toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongBTreeTest {
+
+    // Compares whole blocks of 16 keys, like a vector search with 16 lanes, reading the padding after the keys
+    private static final LongKeySearch WIDE = new LongKeySearch() {
+        @Override
+        public int search(long[] keys, int count, long key) {
+            int smaller = 0;
+            for (int i = 0; i < count; i += 16) {
+                int n = 0;
+                for (int j = i; j < i + 16; j++) if (keys[j] < key) n++;
+
+                smaller += n;
+                if (n < 16) break;
+            }
+            return smaller < count && keys[smaller] == key ? smaller : -(smaller + 1);
+        }
+
+        @Override
+        public int lanes() {
+            return 16;
+        }
+    };
+
+    @Test
+    void testSearches() {
+        for (LongKeySearch search : List.of(LongKeySearch.scalar(), LongKeySearch.best(), WIDE)) {
+            long[] keys = new long[(11 + search.lanes() - 1) / search.lanes() * search.lanes()];
+            java.util.Arrays.fill(keys, Long.MAX_VALUE);
+            for (int i = 0; i < 11; i++) keys[i] = i * 10L - 50;
+
+            for (long key = -70; key < 70; key++) {
+                assertEquals(LongKeySearch.scalar().search(keys, 11, key), search.search(keys, 11, key), search + " " + key);
+            }
+            assertEquals(-12, search.search(keys, 11, Long.MAX_VALUE - 1));
+            assertEquals(-1, search.search(keys, 11, Long.MIN_VALUE));
+        }
+    }
+
+    @Test
+    void testRandomAddRemove() {
+        for (LongKeySearch search : List.of(LongKeySearch.scalar(), LongKeySearch.best(), WIDE)) {
+            for (int order : List.of(3, 8, 16, 33, 64)) {
+                LongBTree tree = new LongBTree(order, search);
+                TreeSet<Long> expected = new TreeSet<>();
+                Random random = new Random(order);
+
+                for (int i = 0; i < 50000; i++) {
+                    long key = random.nextInt(5000) * 1_000_003L;
+                    if (random.nextInt(3) > 0) assertEquals(expected.add(key), tree.add(key));
+                    else assertEquals(expected.remove(key), tree.remove(key));
+                }
+
+                assertEquals(expected.size(), tree.size());
+                assertEquals(expected.first(), tree.findMin());
+                assertEquals(expected.last(), tree.findMax());
+                for (long key = 0; key < 5000; key++) {
+                    assertEquals(expected.contains(key * 1_000_003L), tree.contains(key * 1_000_003L));
+                    assertTrue(!tree.contains(key * 1_000_003L + 1));
+                }
+
+                for (long key : expected) assertTrue(tree.remove(key));
+                assertTrue(tree.isEmpty());
+                assertThrows(java.util.NoSuchElementException.class, tree::findMin);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the throughput of a {@link Tree23Server} over the loopback interface, with no other services involved.
+ * <p>
+ * The server and the clients run in this process, but they only talk through their sockets. Each client thread has
+ * its own connection and sends its finds in batches of the pipeline depths given, so the cost of a round trip per
+ * request (depth 1) can be compared with the pipelined batches.
+ * <p>
+ * Usage: {@code java ServerBenchmark [elements] [clients] [depth]...}, by default
+ * {@code java ServerBenchmark 1000000 4 1 16 256}
+ */
+public class ServerBenchmark {
+
+    private static final long SECONDS = 3;
+
+    static volatile long sink;   // Keeps the JIT from dropping the results
+
+    public static void main( String[] args ) throws Exception {
+        int elements = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int[] depths = { 1, 16, 256 };
+        if ( args.length > 2 ) {
+            depths = new int[args.length - 2];
+            for ( int i = 2; i < args.length; i++ ) depths[i - 2] = Integer.parseInt(args[i]);
+        }
+
+        Long[] sorted = new Long[elements];
+        for ( int i = 0; i < elements; i++ ) sorted[i] = 2L * i;   // Half of the finds miss
+
+        try ( Tree23Server server = new Tree23Server(Tree23.fromSorted(sorted, elements), 0) ) {
+            System.out.printf("%,d elements, %d clients, %ds per depth%n", elements, clients, SECONDS);
+
+            for ( int depth : depths ) run(server.getPort(), elements, clients, depth);  // Warm up
+            for ( int depth : depths ) {
+                double opsPerSecond = run(server.getPort(), elements, clients, depth);
+                System.out.printf(Locale.ROOT, "depth %4d: %,12.0f finds/s%n", depth, opsPerSecond);
+            }
+        }
+    }
+
+    private static double run( int port, int elements, int clients, int depth ) throws Exception {
+        long[] counts = new long[clients];
+        Thread[] threads = new Thread[clients];
+        long end = System.nanoTime() + SECONDS * 1_000_000_000L;
+
+        for ( int c = 0; c < clients; c++ ) {
+            int id = c;
+            threads[c] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(id);
+                long found = 0;
+
+                try ( Tree23Client client = new Tree23Client(port) ) {
+                    while ( System.nanoTime() < end ) {
+                        for ( int i = 0; i < depth; i++ ) client.sendFind(random.nextLong(2L * elements));
+                        for ( int i = 0; i < depth; i++ ) if ( client.receiveKey() != null ) found++;
+                        counts[id] += depth;
+                    }
+                } catch ( IOException e ) {
+                    throw new RuntimeException(e);
+                }
+                sink += found;
+            });
+            threads[c].start();
+        }
+
+        long start = System.nanoTime(), total = 0;
+        for ( int c = 0; c < clients; c++ ) {
+            threads[c].join();
+            total += counts[c];
+        }
+        return total * 1e9 / (System.nanoTime() - start);
+    }
+}
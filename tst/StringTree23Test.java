@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringTree23Test {
+
+    private static final String[] HOSTS = { "https://example.com/", "https://example.com/api/v2/", "https://example.org/",
+                                            "http://ex.net/", "https://example.com/api/v1/users/" };
+
+    // URLs sharing long prefixes, with a few non ASCII characters
+    private static String url( Random random ) {
+        StringBuilder url = new StringBuilder(HOSTS[random.nextInt(HOSTS.length)]);
+        int parts = random.nextInt(4);
+        for ( int i = 0; i < parts; i++ ) {
+            url.append("abc\u00e9".charAt(random.nextInt(4))).append(random.nextInt(30));
+            if ( i < parts - 1 ) url.append('/');
+        }
+        return url.toString();
+    }
+
+    private static List<String> toList( Iterator<String> iterator ) {
+        List<String> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    @Test
+    void testAgainstTreeSet() {
+        StringTree23 tree = new StringTree23();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(47);
+
+        assertNull(tree.findMin());
+        assertFalse(tree.remove("x"));
+        assertFalse(tree.iterator().hasNext());
+
+        for ( int i = 0; i < 30000; i++ ) {
+            String key = url(random);
+            if ( random.nextInt(3) > 0 ) assertEquals(expected.add(key), tree.add(key));
+            else assertEquals(expected.remove(key), tree.remove(key));
+
+            if ( i % 1000 == 0 ) {
+                assertEquals(expected.size(), tree.size());
+                assertEquals(new ArrayList<>(expected), toList(tree.iterator()));
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected), toList(tree.iterator()));
+        assertEquals(expected.first(), tree.findMin());
+        assertEquals(expected.last(), tree.findMax());
+
+        for ( int i = 0; i < 2000; i++ ) {
+            String key = url(random);
+            assertEquals(expected.contains(key), tree.contains(key));
+            assertEquals(expected.contains(key) ? key : null, tree.find(key));
+
+            Iterator<String> tail = expected.tailSet(key, true).iterator(), iterator = tree.iterator(key);
+            for ( int j = 0; j < 5 && tail.hasNext(); j++ ) assertEquals(tail.next(), iterator.next());
+            assertEquals(tail.hasNext(), iterator.hasNext());
+        }
+
+        while ( !expected.isEmpty() ) assertTrue(tree.remove(expected.pollFirst()));
+        assertTrue(tree.isEmpty());
+        assertEquals(0L, tree.getLevel());
+    }
+
+    @Test
+    void testPrefix() {
+        StringTree23 tree = new StringTree23();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(48);
+
+        for ( int i = 0; i < 5000; i++ ) {
+            String key = url(random);
+            tree.add(key);
+            expected.add(key);
+        }
+
+        for ( String prefix : new String[]{ "", "h", "https://example.com/", "https://example.com/api/v", "https://example.com/api/v1/users/\u00e9",
+                                            "https://example.com/a", "https://example.org/c1", "http://", "https://z", "a" } ) {
+            List<String> keys = new ArrayList<>();
+            for ( String key : expected ) if ( key.startsWith(prefix) ) keys.add(key);
+            assertEquals(keys, tree.prefix(prefix), prefix);
+        }
+    }
+
+    @Test
+    void testCompression() {
+        StringTree23 tree = new StringTree23();
+        long utf8 = 0;
+
+        for ( int i = 0; i < 10000; i++ ) {
+            String key = "https://example.com/api/v1/users/" + i + "/profile";
+            tree.add(key);
+            utf8 += key.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        // The 33 bytes of the common start are stored a few times, not once per key
+        assertTrue(tree.getStoredBytes() < utf8 / 2, tree.getStoredBytes() + " of " + utf8);
+        assertEquals("https://example.com/api/v1/users/0/profile", tree.findMin());
+        assertEquals("https://example.com/api/v1/users/9999/profile", tree.findMax());
+    }
+
+    @Test
+    void testUnicode() {
+        StringTree23 tree = new StringTree23();
+
+        // Ordered by code point: U+1F600 after U+FFFD, unlike String.compareTo
+        tree.add("\ud83d\ude00");
+        tree.add("\ufffd");
+        tree.add("z");
+        assertEquals(List.of("z", "\ufffd", "\ud83d\ude00"), toList(tree.iterator()));
+
+        String composed = "caf\u00e9", decomposed = "cafe\u0301";
+
+        StringTree23 plain = new StringTree23();
+        assertTrue(plain.add(composed));
+        assertTrue(plain.add(decomposed));
+
+        StringTree23 normalized = new StringTree23(Normalizer.Form.NFC);
+        assertTrue(normalized.add(composed));
+        assertFalse(normalized.add(decomposed));
+        assertEquals(composed, normalized.find(decomposed));
+        assertEquals(List.of(composed), normalized.prefix("caf"));
+    }
+}
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Tree23ChangeFeedTest {
+
+    /**
+     * Keeps a copy of the tree up to date with its changes, requesting one batch at a time.
+     */
+    static class Mirror implements Flow.Subscriber<List<Tree23Change<Integer>>> {
+        final TreeSet<Integer> elements = new TreeSet<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription subscription;
+        int batches;
+
+        @Override
+        public void onSubscribe( Flow.Subscription subscription ) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext( List<Tree23Change<Integer>> batch ) {
+            for ( Tree23Change<Integer> change : batch ) {
+                switch ( change.getType() ) {
+                    case ADD: elements.add(change.getElement()); break;
+                    case REMOVE: elements.remove(change.getElement()); break;
+                    case MODIFY:
+                        elements.remove(change.getPrevious());
+                        elements.add(change.getElement());
+                        break;
+                    case CLEAR: elements.clear(); break;
+                }
+            }
+            batches++;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError( Throwable throwable ) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void testMirror() throws InterruptedException {
+        Tree23<Integer> tree = new Tree23<>();
+        Mirror mirror = new Mirror();
+        tree.enableChanges().subscribe(mirror);
+
+        Random random = new Random(39);
+        for ( int i = 0; i < 20000; i++ ) {
+            int element = random.nextInt(2000);
+            switch ( random.nextInt(10) ) {
+                case 0: tree.pollFirst(); break;
+                case 1: tree.pollLast(); break;
+                case 2: tree.modify(element, element + 2000); break;
+                case 3: if ( i % 5000 == 3 ) tree.clear(); break;
+                case 4:
+                case 5: tree.remove(element); break;
+                default: tree.add(element);
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        tree.forEach(expected::add);
+
+        tree.disableChanges();
+        assertTrue(mirror.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(expected, new ArrayList<>(mirror.elements));
+        assertTrue(mirror.batches > 1);
+    }
+
+    @Test
+    void testNoSubscribers() throws InterruptedException {
+        Tree23<Integer> tree = new Tree23<>();
+        Tree23ChangeFeed<Integer> changes = tree.enableChanges();
+
+        for ( int i = 0; i < 100; i++ ) tree.add(i);   // Dropped, nobody is listening
+
+        Mirror mirror = new Mirror();
+        changes.subscribe(mirror);
+        tree.add(100);
+        tree.remove(0);
+        tree.disableChanges();
+
+        assertTrue(mirror.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(100), new ArrayList<>(mirror.elements));
+        assertEquals(1, mirror.batches);
+    }
+
+    @Test
+    void testSlowSubscriber() throws InterruptedException {
+        // A subscriber that never requests anything fills the buffer of one batch of its feed
+        Flow.Subscription[] stuck = new Flow.Subscription[1];
+        Tree23ChangeFeed<Integer> slow = new Tree23ChangeFeed<>(256, Duration.ofMillis(10), ForkJoinPool.commonPool(), 1);
+        slow.subscribe(new Flow.Subscriber<>() {
+            public void onSubscribe( Flow.Subscription subscription ) { stuck[0] = subscription; }
+            public void onNext( List<Tree23Change<Integer>> batch ) { }
+            public void onError( Throwable throwable ) { }
+            public void onComplete() { }
+        });
+
+        slow.publish(Tree23Change.Type.ADD, 1, null);
+        slow.flush();
+        slow.publish(Tree23Change.Type.ADD, 2, null);    // Its timed flush can't be published
+
+        // The timed flushes of the other feeds go on
+        Tree23<Integer> tree = new Tree23<>();
+        Mirror mirror = new Mirror();
+        tree.enableChanges().subscribe(mirror);
+        tree.add(1);
+
+        for ( int i = 0; i < 200 && mirror.batches == 0; i++ ) Thread.sleep(10);
+        assertEquals(1, mirror.batches);
+
+        stuck[0].cancel();
+        slow.close();
+        tree.disableChanges();
+        assertTrue(mirror.completed.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class Tree23MergeTest {
+
+    private static <T> List<T> toList( Iterator<T> iterator ) {
+        List<T> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    @Test
+    void testMerge() {
+        List<Tree23<Integer>> trees = new ArrayList<>();
+        List<Integer> all = new ArrayList<>();
+        TreeSet<Integer> distinct = new TreeSet<>();
+        Random random = new Random(41);
+
+        for (int t = 0; t < 20; t++) {
+            Tree23<Integer> tree = new Tree23<>();
+            for (int i = 0; i < random.nextInt(300); i++) {
+                int element = random.nextInt(3000);
+                if (tree.add(element)) all.add(element);
+            }
+            distinct.addAll(all);
+            trees.add(tree);
+        }
+        trees.add(new Tree23<>());   // Empty trees are fine
+        all.sort(null);
+
+        assertEquals(all, toList(Tree23Merge.merge(trees)));
+        assertEquals(new ArrayList<>(distinct), toList(Tree23Merge.merge(trees, true)));
+
+        List<Integer> range = new ArrayList<>();
+        for (int element : all) if (element >= 1000 && element <= 1500) range.add(element);
+        assertEquals(range, toList(Tree23Merge.merge(trees, 1000, 1500, false)));
+        assertEquals(new ArrayList<>(distinct.subSet(1000, true, 1500, true)), toList(Tree23Merge.merge(trees, 1000, 1500, true)));
+        assertEquals(new ArrayList<>(distinct.headSet(100, true)), toList(Tree23Merge.merge(trees, null, 100, true)));
+
+        assertFalse(Tree23Merge.merge(trees, 5000, null, false).hasNext());
+        assertFalse(Tree23Merge.merge(new ArrayList<Tree23<Integer>>()).hasNext());
+    }
+}
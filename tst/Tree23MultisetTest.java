@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Tree23MultisetTest {
+
+    @Test
+    void testCounts() {
+        Tree23Multiset<String> events = new Tree23Multiset<>();
+
+        assertEquals(1, events.add("login"));
+        assertEquals(2, events.add("login"));
+        assertEquals(5, events.add("login", 3));
+        assertEquals(1, events.add("logout"));
+
+        assertEquals(5, events.count("login"));
+        assertEquals(0, events.count("error"));
+        assertEquals(6, events.size());
+        assertEquals(2, events.distinctSize());
+
+        assertEquals(4, events.remove("login", 4));
+        assertTrue(events.remove("login"));
+        assertFalse(events.contains("login"));
+        assertFalse(events.remove("login"));
+        assertEquals(1, events.size());
+        assertEquals("logout", events.findMin());
+    }
+
+    @Test
+    void testRandom() {
+        Tree23Multiset<Integer> multiset = new Tree23Multiset<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(32);
+        long size = 0;
+
+        for (int i = 0; i < 50000; i++) {
+            int element = random.nextInt(300);
+            if (random.nextInt(3) > 0) {
+                expected.merge(element, 1, Integer::sum);
+                multiset.add(element);
+                size++;
+            } else {
+                Integer count = expected.get(element);
+                assertEquals(count != null, multiset.remove(element));
+                if (count != null) {
+                    size--;
+                    if (count == 1) expected.remove(element);
+                    else expected.put(element, count - 1);
+                }
+            }
+        }
+
+        assertEquals(size, multiset.size());
+        assertEquals(expected.size(), multiset.distinctSize());
+        for (int i = 0; i < 300; i++) assertEquals(expected.getOrDefault(i, 0), multiset.count(i));
+
+        List<Integer> elements = new ArrayList<>();
+        multiset.forEach((element, count) -> {
+            elements.add(element);
+            assertEquals(expected.get(element), count);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), elements);
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Tree23ServerTest {
+
+    @Test
+    void testOperations() throws IOException {
+        try ( Tree23Server server = new Tree23Server(0);
+              Tree23Client client = new Tree23Client(server.getPort()) ) {
+
+            assertNull(client.findMin());
+            assertEquals(0, client.size());
+
+            assertTrue(client.add(5));
+            assertTrue(client.add(-3));
+            assertTrue(client.add(12));
+            assertFalse(client.add(5));
+
+            assertEquals(5L, client.find(5));
+            assertNull(client.find(6));
+            assertEquals(-3L, client.findMin());
+            assertEquals(12L, client.findMax());
+            assertArrayEquals(new long[]{ -3, 5 }, client.range(-10, 11, 100));
+            assertArrayEquals(new long[]{ -3 }, client.range(-10, 11, 1));
+
+            assertTrue(client.remove(5));
+            assertFalse(client.remove(5));
+            assertEquals(2, client.size());
+        }
+    }
+
+    @Test
+    void testPipelining() throws IOException {
+        try ( Tree23Server server = new Tree23Server(0);
+              Tree23Client writer = new Tree23Client(server.getPort());
+              Tree23Client reader = new Tree23Client(server.getPort()) ) {
+
+            TreeSet<Long> expected = new TreeSet<>();
+
+            for ( long key = 0; key < 1000; key += 3 ) {
+                writer.sendAdd(key);
+                expected.add(key);
+            }
+            assertEquals(334, writer.getPending());
+            for ( long key = 0; key < 1000; key += 3 ) assertTrue(writer.receiveBoolean());
+            assertEquals(0, writer.getPending());
+
+            for ( long key = 0; key < 1000; key++ ) reader.sendFind(key);
+            reader.sendRange(100, 200, 1000);
+            for ( long key = 0; key < 1000; key++ ) assertEquals(expected.contains(key) ? key : null, reader.receiveKey());
+            assertEquals(expected.subSet(100L, true, 200L, true).size(), reader.receiveKeys().length);
+        }
+    }
+
+    @Test
+    void testParsePort() {
+        assertEquals(0, Tree23Server.parsePort("0"));
+        assertEquals(2323, Tree23Server.parsePort("2323"));
+        assertEquals(65535, Tree23Server.parsePort("65535"));
+        assertEquals(-1, Tree23Server.parsePort("65536"));
+        assertEquals(-1, Tree23Server.parsePort("-1"));
+        assertEquals(-1, Tree23Server.parsePort("abc"));
+        assertEquals(-1, Tree23Server.parsePort(""));
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        Tree23<Long> tree = new Tree23<>();
+        for ( long key = 0; key < 10000; key++ ) tree.add(key * 2);
+        Tree23Metrics metrics = tree.enableMetrics();
+
+        // The comparisons of the finds of one client, alone
+        long[] keys = new long[5000];
+        for ( int i = 0; i < keys.length; i++ ) keys[i] = i * 3L;
+        for ( long key : keys ) tree.find(key);
+        long alone = metrics.getComparisons();
+
+        int clients = 4;
+        try ( Tree23Server server = new Tree23Server(tree, 0) ) {
+            List<Thread> threads = new ArrayList<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            for ( int c = 0; c < clients; c++ ) {
+                Thread thread = new Thread(() -> {
+                    try ( Tree23Client client = new Tree23Client(server.getPort()) ) {
+                        for ( long key : keys ) client.sendFind(key);
+                        for ( long key : keys ) assertEquals(key % 2 == 0 ? key : null, client.receiveKey());
+                    } catch ( Throwable e ) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for ( Thread thread : threads ) thread.join();
+            assertNull(failure.get());
+        }
+
+        // The finds of a tree with metrics take the lock alone, so no comparison is lost
+        assertEquals(alone * (clients + 1), metrics.getComparisons());
+    }
+}
@@ -0,0 +1,157 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Tree23SetTest {
+
+    // Checks every read of a set against the same one of a TreeSet
+    private static void check( NavigableSet<Integer> expected, NavigableSet<Integer> actual, Random random ) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertArrayEquals(expected.toArray(), actual.toArray());
+        assertArrayEquals(expected.toArray(new Integer[0]), actual.toArray(new Integer[0]));
+
+        List<Integer> descending = new ArrayList<>();
+        actual.descendingIterator().forEachRemaining(descending::add);
+        assertEquals(new ArrayList<>(expected.descendingSet()), descending);
+
+        if ( !expected.isEmpty() ) {
+            assertEquals(expected.first(), actual.first());
+            assertEquals(expected.last(), actual.last());
+        }
+
+        for ( int i = 0; i < 50; i++ ) {
+            int element = random.nextInt(1200) - 100;
+            assertEquals(expected.contains(element), actual.contains(element));
+            assertEquals(expected.lower(element), actual.lower(element));
+            assertEquals(expected.floor(element), actual.floor(element));
+            assertEquals(expected.ceiling(element), actual.ceiling(element));
+            assertEquals(expected.higher(element), actual.higher(element));
+        }
+    }
+
+    @Test
+    void testAgainstTreeSet() {
+        NavigableSet<Integer> expected = new TreeSet<>();
+        Tree23Set<Integer> actual = new Tree23Set<>();
+        Random random = new Random(44);
+
+        for ( int i = 0; i < 5000; i++ ) {
+            int element = random.nextInt(1000);
+            switch ( random.nextInt(5) ) {
+                case 0, 1 -> assertEquals(expected.add(element), actual.add(element));
+                case 2 -> assertEquals(expected.remove(element), actual.remove(element));
+                case 3 -> assertEquals(expected.pollFirst(), actual.pollFirst());
+                default -> assertEquals(expected.pollLast(), actual.pollLast());
+            }
+            if ( i % 500 == 0 ) check(expected, actual, random);
+        }
+        check(expected, actual, random);
+        check(expected.descendingSet(), actual.descendingSet(), random);
+
+        assertEquals(expected.size(), actual.getTree().size());
+    }
+
+    @Test
+    void testViews() {
+        NavigableSet<Integer> expected = new TreeSet<>();
+        Tree23Set<Integer> actual = new Tree23Set<>();
+        Random random = new Random(45);
+
+        for ( int i = 0; i < 600; i++ ) {
+            int element = random.nextInt(1000);
+            expected.add(element);
+            actual.add(element);
+        }
+
+        for ( int i = 0; i < 200; i++ ) {
+            int from = random.nextInt(1000), to = from + 2 + random.nextInt(400);
+            boolean fromInclusive = random.nextBoolean(), toInclusive = random.nextBoolean();
+
+            check(expected.subSet(from, fromInclusive, to, toInclusive), actual.subSet(from, fromInclusive, to, toInclusive), random);
+            check(expected.headSet(to, toInclusive), actual.headSet(to, toInclusive), random);
+            check(expected.tailSet(from, fromInclusive), actual.tailSet(from, fromInclusive), random);
+            check(expected.descendingSet().subSet(to, toInclusive, from, fromInclusive),
+                  actual.descendingSet().subSet(to, toInclusive, from, fromInclusive), random);
+
+            // Views of views
+            int middle = from + (to - from) / 2, quarter = (from + middle) / 2;
+            check(expected.subSet(from, true, to, true).headSet(middle, false).descendingSet().tailSet(quarter, true),
+                  actual.subSet(from, true, to, true).headSet(middle, false).descendingSet().tailSet(quarter, true), random);
+        }
+
+        // Changes through a view go to the tree, and the other way round
+        NavigableSet<Integer> view = actual.subSet(100, true, 200, false);
+        assertTrue(view.add(150) || view.contains(150));
+        assertThrows(IllegalArgumentException.class, () -> view.add(200));
+        assertThrows(IllegalArgumentException.class, () -> view.subSet(50, 150));
+        assertThrows(IllegalArgumentException.class, () -> actual.subSet(10, 5));
+        assertFalse(view.remove(250));
+
+        actual.getTree().add(199);
+        assertTrue(view.contains(199));
+        expected.add(150);
+        expected.add(199);
+
+        assertEquals(expected.subSet(100, true, 200, false).pollFirst(), view.pollFirst());
+        assertEquals(expected.subSet(100, true, 200, false).pollLast(), view.pollLast());
+
+        view.clear();
+        expected.subSet(100, true, 200, false).clear();
+        assertTrue(view.isEmpty());
+        check(expected, actual, random);
+    }
+
+    @Test
+    void testIteratorRemove() {
+        NavigableSet<Integer> expected = new TreeSet<>();
+        Tree23Set<Integer> actual = new Tree23Set<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            expected.add(i);
+            actual.add(i);
+        }
+
+        // Removes the multiples of 3 of a view, going down
+        for ( Iterator<Integer> iterator = actual.headSet(800, true).descendingIterator(); iterator.hasNext(); ) {
+            if ( iterator.next() % 3 == 0 ) iterator.remove();
+        }
+        expected.removeIf(element -> element <= 800 && element % 3 == 0);
+        check(expected, actual, new Random(46));
+
+        Iterator<Integer> iterator = actual.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        while ( iterator.hasNext() ) {
+            iterator.next();
+            iterator.remove();
+        }
+        assertTrue(actual.isEmpty());
+        assertTrue(actual.getTree().isEmpty());
+    }
+
+    @Test
+    void testBulk() {
+        Tree23Set<Integer> set = new Tree23Set<>(Arrays.asList(5, 1, 4, 2, 3, 9, 7));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 9), new ArrayList<>(set));
+
+        assertTrue(set.removeAll(Arrays.asList(2, 9, 10)));
+        assertTrue(set.retainAll(Arrays.asList(1, 3, 4, 7, 8)));
+        assertEquals(Arrays.asList(1, 3, 4, 7), new ArrayList<>(set));
+
+        assertTrue(set.tailSet(4, false).retainAll(Arrays.asList(1)));
+        assertEquals(new TreeSet<>(Arrays.asList(1, 3, 4)), set);
+        assertEquals(set, new TreeSet<>(Arrays.asList(1, 3, 4)));
+    }
+}
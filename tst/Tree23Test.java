@@ -1,8 +1,19 @@
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class Tree23Test {
 
@@ -142,4 +153,475 @@ class Tree23Test {
         tree.add(60);
         tree.levelOrder();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRandomAddRemove() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(23);
+
+        assertNull(tree.find(1));
+        assertEquals(false, tree.remove(1));
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(1000);
+            if (random.nextBoolean()) assertEquals(expected.add(element), tree.add(element));
+            else assertEquals(expected.remove(element), tree.remove(element));
+        }
+
+        assertEquals(expected.size(), tree.size());
+        for (int i = 0; i < 1000; i++) assertEquals(expected.contains(i), tree.contains(i));
+
+        for (int element : expected) assertTrue(tree.remove(element));
+        assertTrue(tree.isEmpty());
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void testMetrics() {
+        Tree23<Integer> tree = new Tree23<>();
+        Tree23Metrics metrics = tree.enableMetrics();
+
+        for (int i = 0; i < 1000; i++) tree.add(i);
+        for (int i = 0; i < 1000; i++) tree.find(i);
+        for (int i = 0; i < 1000; i += 2) tree.remove(i);
+
+        // At least one comparison per add but the first, per find and per remove, and at most two per level
+        assertTrue(metrics.getComparisons() >= 999 + 1000 + 500);
+        assertTrue(metrics.getComparisons() <= 2500L * 2 * 10);
+        assertTrue(metrics.getNodeAllocations() > metrics.getSplits());
+        assertTrue(metrics.toString().startsWith("comparisons=" + metrics.getComparisons() + ", "));
+        assertEquals(tree.getLevel(), metrics.getHeight());
+        assertEquals(1000, metrics.getLatency(Tree23Metrics.Operation.ADD).getCount());
+        assertEquals(1000, metrics.getLatency(Tree23Metrics.Operation.FIND).getCount());
+        assertEquals(500, metrics.getLatency(Tree23Metrics.Operation.REMOVE).getCount());
+        assertTrue(metrics.getSplits() > 0);
+        assertTrue(metrics.getRebalances() >= metrics.getMerges());
+
+        tree.disableMetrics();
+        tree.add(2000);
+        assertEquals(1000, metrics.getLatency(Tree23Metrics.Operation.ADD).getCount());
+    }
+
+    @Test
+    void testFromSorted() {
+        for (int n = 0; n < 300; n++) {
+            Integer[] sorted = new Integer[n];
+            for (int i = 0; i < n; i++) sorted[i] = i * 2;
+
+            Tree23<Integer> tree = Tree23.fromSorted(sorted, n);
+            assertEquals(n, tree.size());
+
+            List<Integer> elements = new ArrayList<>();
+            tree.forEach(elements::add);
+            assertEquals(List.of(sorted), elements);
+
+            // The tree keeps working after the bulk build
+            for (int i = 0; i < n; i++) assertTrue(tree.add(i * 2 + 1));
+            for (int i = 0; i < n; i++) assertTrue(tree.remove(i * 2));
+            assertEquals(n, tree.size());
+        }
+    }
+
+    @Test
+    void testPollFirstLast() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(33);
+
+        assertThrows(NoSuchElementException.class, tree::first);
+        assertNull(tree.pollFirst());
+
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(4);
+            if (operation < 2) {
+                int element = random.nextInt(2000);
+                assertEquals(expected.add(element), tree.add(element));
+            }
+            else if (operation == 2) assertEquals(expected.pollFirst(), tree.pollFirst());
+            else assertEquals(expected.pollLast(), tree.pollLast());
+
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.isEmpty() ? null : expected.first(), tree.findMin());
+            assertEquals(expected.isEmpty() ? null : expected.last(), tree.findMax());
+        }
+
+        while (!expected.isEmpty()) assertEquals(expected.pollFirst(), tree.pollFirst());
+        assertTrue(tree.isEmpty());
+        assertThrows(NoSuchElementException.class, tree::last);
+    }
+
+    @Test
+    void testNearest() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(34);
+
+        assertNull(tree.floor(1));
+        assertNull(tree.higher(1));
+
+        for (int i = 0; i < 3000; i++) {
+            int element = random.nextInt(10000) * 3;
+            tree.add(element);
+            expected.add(element);
+        }
+
+        for (int probe = -5; probe < 30005; probe++) {
+            assertEquals(expected.floor(probe), tree.floor(probe));
+            assertEquals(expected.lower(probe), tree.lower(probe));
+            assertEquals(expected.ceiling(probe), tree.ceiling(probe));
+            assertEquals(expected.higher(probe), tree.higher(probe));
+        }
+    }
+
+    @Test
+    void testIterator() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(41);
+
+        assertTrue(!tree.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> tree.iterator().next());
+
+        for (int i = 0; i < 2000; i++) {
+            int element = random.nextInt(5000) * 2;
+            tree.add(element);
+            expected.add(element);
+        }
+
+        List<Integer> all = new ArrayList<>();
+        for (Integer element : tree) all.add(element);
+        assertEquals(new ArrayList<>(expected), all);
+
+        for (int from = -3; from < 10003; from += 7) {
+            for (boolean inclusive : new boolean[]{ true, false }) {
+                Iterator<Integer> iterator = tree.iterator(from, inclusive);
+                Iterator<Integer> tail = expected.tailSet(from, inclusive).iterator();
+                for (int i = 0; i < 5 && tail.hasNext(); i++) assertEquals(tail.next(), iterator.next());
+                assertEquals(tail.hasNext(), iterator.hasNext());
+            }
+        }
+    }
+
+    @Test
+    void testRemoveRange() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 200; round++) {
+            Tree23<Integer> tree = new Tree23<>();
+            TreeSet<Integer> expected = new TreeSet<>();
+            int n = random.nextInt(1000);
+
+            for (int i = 0; i < n; i++) {
+                int element = random.nextInt(3 * n + 1);
+                tree.add(element);
+                expected.add(element);
+            }
+
+            int from = random.nextInt(3 * n + 3) - 1, to = from + random.nextInt(n + 2);
+            int removed = expected.subSet(from, true, to, true).size();
+            expected.subSet(from, true, to, true).clear();
+
+            assertEquals(removed, tree.removeRange(from, to));
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.isEmpty() ? null : expected.first(), tree.findMin());
+            assertEquals(expected.isEmpty() ? null : expected.last(), tree.findMax());
+
+            List<Integer> elements = new ArrayList<>();
+            tree.forEach(elements::add);
+            assertEquals(new ArrayList<>(expected), elements);
+
+            // Still a valid tree
+            for (int i = 0; i < 50; i++) {
+                int element = random.nextInt(3 * n + 1);
+                assertEquals(expected.add(element), tree.add(element));
+                element = random.nextInt(3 * n + 1);
+                assertEquals(expected.remove(element), tree.remove(element));
+            }
+        }
+    }
+
+    @Test
+    void testRemoveAllRetainAll() {
+        Random random = new Random(43);
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int element = random.nextInt(10000);
+            tree.add(element);
+            expected.add(element);
+        }
+
+        List<Integer> few = List.of(1, 2, 3, 5000, 20000);
+        assertEquals(expected.removeAll(few), tree.removeAll(few));
+
+        List<Integer> many = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) many.add(random.nextInt(10000));
+        assertEquals(expected.removeAll(many), tree.removeAll(many));
+        assertEquals(expected.size(), tree.size());
+
+        List<Integer> keep = new ArrayList<>();
+        for (int i = 0; i < 8000; i++) keep.add(random.nextInt(10000));
+        assertEquals(expected.retainAll(keep), tree.retainAll(keep));
+        assertEquals(false, tree.retainAll(keep));
+
+        List<Integer> elements = new ArrayList<>();
+        tree.forEach(elements::add);
+        assertEquals(new ArrayList<>(expected), elements);
+        assertEquals(expected.first(), tree.findMin());
+        assertEquals(expected.last(), tree.findMax());
+
+        assertTrue(tree.add(-1));
+        assertTrue(tree.remove(-1));
+    }
+
+    @Test
+    void testDescending() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(43);
+
+        assertTrue(!tree.descendingIterator().hasNext());
+
+        for (int i = 0; i < 2000; i++) {
+            int element = random.nextInt(5000) * 2;
+            tree.add(element);
+            expected.add(element);
+        }
+
+        List<Integer> all = new ArrayList<>();
+        for (Integer element : tree.descending()) all.add(element);
+        assertEquals(new ArrayList<>(expected.descendingSet()), all);
+
+        for (int from = -3; from < 10003; from += 7) {
+            for (boolean inclusive : new boolean[]{ true, false }) {
+                Iterator<Integer> iterator = tree.descendingIterator(from, inclusive);
+                Iterator<Integer> head = expected.headSet(from, inclusive).descendingIterator();
+                for (int i = 0; i < 5 && head.hasNext(); i++) assertEquals(head.next(), iterator.next());
+                assertEquals(head.hasNext(), iterator.hasNext());
+            }
+        }
+    }
+
+    // Counts the nodes (index 0) and leaves (index 1) of a subtree walking it
+    private static void countNodes(Node23<Integer> node, int[] counts) {
+        if (node == null || node.getLeftElement() == null) return;
+
+        counts[0]++;
+        if (node.isLeaf()) counts[1]++;
+        countNodes(node.getLeft(), counts);
+        countNodes(node.getMid(), counts);
+        countNodes(node.getRight(), counts);
+    }
+
+    private static void checkStats(Tree23<Integer> tree) {
+        int[] counts = new int[2];
+        countNodes(tree.getRoot(), counts);
+
+        Tree23Stats stats = tree.getStats();
+        assertEquals(tree.size(), stats.getElements());
+        assertEquals(counts[0], stats.getNodes());
+        assertEquals(counts[1], stats.getLeaves());
+        assertEquals(tree.isEmpty() ? 0 : tree.getLevel(), stats.getHeight());
+        assertEquals(stats.getNodes(), stats.getTwoNodes() + stats.getThreeNodes());
+    }
+
+    @Test
+    void testStats() {
+        Tree23<Integer> tree = new Tree23<>();
+        Random random = new Random(45);
+
+        Tree23Stats empty = tree.getStats();
+        assertEquals(0, empty.getNodes());
+        assertEquals(0, empty.getHeight());
+        assertEquals(0.0, empty.getFillFactor(), 0);
+
+        for (int i = 0; i < 20000; i++) {
+            int element = random.nextInt(3000);
+            switch (random.nextInt(8)) {
+                case 0, 1, 2 -> tree.add(element);
+                case 3, 4 -> tree.remove(element);
+                case 5 -> tree.pollFirst();
+                case 6 -> tree.modify(element, element + 1);
+                default -> {
+                    if (random.nextInt(50) == 0) tree.removeRange(element, element + random.nextInt(100));
+                    else tree.pollLast();
+                }
+            }
+            if (i % 100 == 0) checkStats(tree);
+        }
+
+        tree.retainAll(List.of(1, 2, 3, 5, 8, 13, 21, 34, 55, 89, 144, 233, 377, 610, 987, 1597, 2584));
+        checkStats(tree);
+
+        tree.clear();
+        checkStats(tree);
+
+        // Ascending adds split every leaf as soon as it fills, leaving it half full
+        for (int i = 0; i < 10000; i++) tree.add(i);
+        checkStats(tree);
+        Tree23Stats stats = tree.getStats();
+        assertTrue(stats.getFillFactor() >= 0.5 && stats.getFillFactor() < 0.6);
+        assertEquals(stats.getNodes() * 32L, stats.getEstimatedBytes());
+
+        Integer[] sorted = new Integer[10000];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = i;
+        Tree23<Integer> built = Tree23.fromSorted(sorted, sorted.length);
+        checkStats(built);
+        assertTrue(built.getStats().getNodes() < stats.getNodes());
+    }
+
+    @Test
+    void testCompact() {
+        Tree23<Integer> tree = new Tree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(46);
+
+        for (int i = 0; i < 50000; i++) {
+            int element = random.nextInt(1000000);
+            tree.add(element);
+            expected.add(element);
+        }
+        for (int i = 0; i < 40000; i++) {
+            int element = random.nextInt(1000000);
+            assertEquals(expected.remove(element), tree.remove(element));
+        }
+
+        Tree23Stats before = tree.getStats();
+        tree.compact();
+        Tree23Stats after = tree.getStats();
+        checkStats(tree);
+
+        assertEquals(new ArrayList<>(expected), toList(tree));
+        assertTrue(after.getFillFactor() > 0.95);
+        assertTrue(after.getHeight() <= before.getHeight());
+        assertTrue(after.getNodes() < before.getNodes());
+        assertTrue(tree.add(-1));
+        assertTrue(tree.remove(-1));
+
+        // Incrementally: a sweep of small steps, then every change repacks while the tree is sparse
+        Tree23<Integer> steps = new Tree23<>(expected);
+        for (int i = 0; i < 40000; i++) steps.add(random.nextInt(1000000));
+        for (int i = 0; i < 40000; i++) steps.remove(random.nextInt(1000000));
+        Tree23Stats sparse = steps.getStats();
+
+        int calls = 1;
+        while (!steps.compact(300)) calls++;
+        assertTrue(calls > 1);
+        assertTrue(steps.getStats().getFillFactor() > sparse.getFillFactor() + 0.1);
+        checkStats(steps);
+
+        steps.enableCompaction(300, 0.8);
+        TreeSet<Integer> elements = new TreeSet<>();
+        steps.forEach(elements::add);
+        for (int i = 0; i < 30000; i++) {
+            int element = random.nextInt(1000000);
+            if (random.nextBoolean()) assertEquals(elements.add(element), steps.add(element));
+            else assertEquals(elements.remove(element), steps.remove(element));
+        }
+        assertEquals(new ArrayList<>(elements), toList(steps));
+        assertEquals(elements.first(), steps.findMin());
+        assertEquals(elements.last(), steps.findMax());
+        assertTrue(steps.getStats().getFillFactor() > 0.75);
+        checkStats(steps);
+    }
+
+    @Test
+    void testFindAll() {
+        Tree23<Integer> tree = new Tree23<>();
+        Random random = new Random(49);
+        for (int i = 0; i < 20000; i++) tree.add(random.nextInt(100000));
+
+        assertEquals(List.of(), tree.findAll(List.of()));
+        assertTrue(tree.containsAll(List.of()));
+        assertEquals(Arrays.asList((Integer) null), new Tree23<Integer>().findAll(List.of(1)));
+        assertFalse(new Tree23<Integer>().containsAll(List.of(1)));
+
+        // Unsorted keys, repeated and missing ones, from clusters and from the whole range
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(4) == 0 ? random.nextInt(110000) - 5000 : 50000 + random.nextInt(2000);
+            keys.add(key);
+            if (random.nextInt(10) == 0) keys.add(key);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int key : keys) expected.add(tree.find(key));
+
+        assertEquals(expected, tree.findAll(keys));
+        assertEquals(expected, tree.findAllParallel(keys));
+        assertEquals(!expected.contains(null), tree.containsAll(keys));
+
+        List<Integer> present = new ArrayList<>();
+        for (Integer element : expected) if (element != null) present.add(element);
+        assertTrue(tree.containsAll(present));
+        present.add(-1);
+        assertFalse(tree.containsAll(present));
+
+        // A larger batch, split among the threads
+        List<Integer> many = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) many.add(random.nextInt(100000));
+        List<Integer> found = tree.findAllParallel(many);
+        for (int i = 0; i < many.size(); i++) assertEquals(tree.find(many.get(i)), found.get(i));
+
+        // Clustered keys share the upper levels of the tree, even counting the comparisons of the sort
+        Tree23Metrics metrics = tree.enableMetrics();
+        List<Integer> cluster = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) cluster.add(60000 + i);
+
+        for (int key : cluster) tree.find(key);
+        long single = metrics.getComparisons();
+        tree.findAll(cluster);
+        long sorted = metrics.getComparisons() - single;
+        assertTrue(sorted * 4 < single, sorted + " comparisons in order, " + single + " one by one");
+
+        Collections.shuffle(cluster, random);
+        long before = metrics.getComparisons();
+        tree.findAll(cluster);
+        long shuffled = metrics.getComparisons() - before;
+        assertTrue(shuffled < single, shuffled + " comparisons shuffled, " + single + " one by one");
+    }
+
+    @Test
+    void testBulkLoad() {
+        for (int n : new int[]{0, 1, 2, 3, 10, 1000, 100000}) {
+            Random random = new Random(n);
+            List<Integer> elements = new ArrayList<>();
+            for (int i = 0; i < n; i++) elements.add(random.nextInt(Math.max(1, n)));
+            TreeSet<Integer> expected = new TreeSet<>(elements);
+
+            Tree23<Integer> tree = new Tree23<>(elements);
+            assertEquals(expected.size(), tree.size());
+            assertEquals(new ArrayList<>(expected), toList(tree));
+            assertEquals(expected.isEmpty() ? null : expected.first(), tree.findMin());
+            assertEquals(expected.isEmpty() ? null : expected.last(), tree.findMax());
+            checkStats(tree);
+
+            // Balanced and working as if built one by one
+            int[] depths = new int[2];
+            for (Node23<Integer> node = tree.getRoot(); node != null && node.getLeftElement() != null; node = node.getLeft()) depths[0]++;
+            for (Node23<Integer> node = tree.getRoot(); node != null && node.getLeftElement() != null; node = node.getRight() != null ? node.getRight() : node.getMid()) depths[1]++;
+            assertEquals(depths[0], depths[1]);
+
+            for (int i = 0; i < 1000; i++) {
+                int element = random.nextInt(n + 10);
+                if (random.nextBoolean()) assertEquals(expected.add(element), tree.add(element));
+                else assertEquals(expected.remove(element), tree.remove(element));
+            }
+            assertEquals(new ArrayList<>(expected), toList(tree));
+            checkStats(tree);
+        }
+
+        // Of the elements repeated, the first one is kept
+        String first = new String("b"), second = new String("b");
+        Tree23<String> strings = new Tree23<>(List.of("c", first, "a", second));
+        assertTrue(strings.find("b") == first);
+    }
+
+    private static List<Integer> toList(Tree23<Integer> tree) {
+        List<Integer> list = new ArrayList<>();
+        tree.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Tree23WriterTest {
+
+    @Test
+    void testResultsInQueueOrder() throws Exception {
+        Tree23<Integer> tree = new Tree23<>();
+        tree.add(1);
+
+        try ( Tree23Writer<Integer> writer = new Tree23Writer<>(tree) ) {
+            // Queued together, so most of them are combined in the same batch
+            CompletableFuture<Boolean> add1 = writer.add(1);
+            CompletableFuture<Boolean> remove1 = writer.remove(1);
+            CompletableFuture<Boolean> add1Again = writer.add(1);
+            CompletableFuture<Boolean> add2 = writer.add(2);
+            CompletableFuture<Boolean> remove2 = writer.remove(2);
+            CompletableFuture<Boolean> remove3 = writer.remove(3);
+            CompletableFuture<Integer> size = writer.query(Tree23::size);
+
+            assertFalse(add1.get());
+            assertTrue(remove1.get());
+            assertTrue(add1Again.get());
+            assertTrue(add2.get());
+            assertTrue(remove2.get());
+            assertFalse(remove3.get());
+            assertEquals(1, size.get());
+        }
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    void testClosed() {
+        Tree23Writer<Integer> writer = new Tree23Writer<>(new Tree23<Integer>());
+        writer.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> writer.add(5).get());
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void testManyProducers() throws Exception {
+        Tree23<Integer> tree = new Tree23<>();
+        int producers = 8, operations = 20000;
+        long[] added = new long[producers], removed = new long[producers];
+
+        try ( Tree23Writer<Integer> writer = new Tree23Writer<>(tree) ) {
+            List<Thread> threads = new ArrayList<>();
+
+            for ( int p = 0; p < producers; p++ ) {
+                int id = p;
+                Thread thread = new Thread(() -> {
+                    Random random = new Random(id);
+                    List<CompletableFuture<Boolean>> adds = new ArrayList<>(), removes = new ArrayList<>();
+
+                    for ( int i = 0; i < operations; i++ ) {
+                        int element = random.nextInt(500);
+                        if ( random.nextBoolean() ) adds.add(writer.add(element));
+                        else removes.add(writer.remove(element));
+                    }
+                    added[id] = adds.stream().filter(CompletableFuture::join).count();
+                    removed[id] = removes.stream().filter(CompletableFuture::join).count();
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for ( Thread thread : threads ) thread.join();
+
+            // Every successful add is undone by a successful remove, but the elements left
+            long net = 0;
+            for ( int p = 0; p < producers; p++ ) net += added[p] - removed[p];
+
+            assertEquals(net, (long) writer.query(Tree23::size).get());
+        }
+    }
+}
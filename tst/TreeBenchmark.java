@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares the 2-3 Tree with B-Trees of several orders, to choose the fan-out for a workload.
+ * <p>
+ * For each tree it measures, in nanoseconds per operation, adding n random keys, finding all of them in another
+ * random order, finding n keys that don't exist and removing half of them.
+ * <p>
+ * The B-Trees of primitive long keys ({@link LongBTree}) are measured with the binary search and with the best search
+ * available, which is the vectorized one when {@code src-vector} is compiled and the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}.
+ * <p>
+ * Usage: {@code java TreeBenchmark [n] [order]...} (default: 1000000 elements, orders 16 32 64 128)
+ */
+public class TreeBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    static volatile long sink;    // Keeps the JIT from dropping the finds
+
+    public static void main( String[] args ) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Integer> orders = new ArrayList<>();
+        for ( int i = 1; i < args.length; i++ ) orders.add(Integer.parseInt(args[i]));
+        if ( orders.isEmpty() ) orders = List.of(16, 32, 64, 128);
+
+        Random random = new Random(23);
+        List<Integer> keys = new ArrayList<>(n);
+        for ( int i = 0; i < n; i++ ) keys.add(2 * i);          // Even keys exist, odd keys don't
+        Collections.shuffle(keys, random);
+        List<Integer> probes = new ArrayList<>(keys);
+        Collections.shuffle(probes, random);
+        List<Integer> missing = new ArrayList<>(n);
+        for ( Integer key : probes ) missing.add(key + 1);
+
+        System.out.printf("%-12s %8s %10s %10s %10s %10s%n", "tree", "levels", "add", "find", "miss", "remove");
+
+        run("Tree23", Tree23::new, keys, probes, missing);
+        for ( int order : orders ) run("BTree(" + order + ")", () -> new BTree<>(order), keys, probes, missing);
+
+        long[] longKeys = keys.stream().mapToLong(k -> 1_600_000_000_000L + k).toArray();
+        long[] longProbes = probes.stream().mapToLong(k -> 1_600_000_000_000L + k).toArray();
+        long[] longMissing = missing.stream().mapToLong(k -> 1_600_000_000_000L + k).toArray();
+
+        System.out.println("\nlong keys, search " + LongKeySearch.best());
+        for ( int order : orders ) {
+            runLong("scalar(" + order + ")", order, LongKeySearch.scalar(), longKeys, longProbes, longMissing);
+            runLong("best(" + order + ")", order, LongKeySearch.best(), longKeys, longProbes, longMissing);
+        }
+    }
+
+    private static void run( String name, Supplier<SortedTree<Integer>> factory, List<Integer> keys,
+                             List<Integer> probes, List<Integer> missing ) {
+        double add = Double.MAX_VALUE, find = Double.MAX_VALUE, miss = Double.MAX_VALUE, remove = Double.MAX_VALUE;
+        long levels = 0;
+        int n = keys.size();
+        long blackhole = 0;
+
+        // The first rounds warm up the JIT, the best time of all the rounds is reported
+        for ( int round = 0; round < ROUNDS; round++ ) {
+            SortedTree<Integer> tree = factory.get();
+
+            long start = System.nanoTime();
+            for ( Integer key : keys ) tree.add(key);
+            add = Math.min(add, (double) (System.nanoTime() - start) / n);
+
+            start = System.nanoTime();
+            for ( Integer key : probes ) blackhole += tree.find(key);
+            find = Math.min(find, (double) (System.nanoTime() - start) / n);
+
+            start = System.nanoTime();
+            for ( Integer key : missing ) if ( tree.find(key) == null ) blackhole++;
+            miss = Math.min(miss, (double) (System.nanoTime() - start) / n);
+
+            levels = tree.getLevel();
+
+            start = System.nanoTime();
+            for ( int i = 0; i < n / 2; i++ ) tree.remove(probes.get(i));
+            remove = Math.min(remove, (double) (System.nanoTime() - start) / (n / 2));
+
+            if ( tree.size() != n - n / 2 ) throw new IllegalStateException(name + " lost elements");
+        }
+
+        sink = blackhole;
+        System.out.printf("%-12s %8d %10.1f %10.1f %10.1f %10.1f%n", name, levels, add, find, miss, remove);
+    }
+
+    private static void runLong( String name, int order, LongKeySearch search, long[] keys, long[] probes, long[] missing ) {
+        double add = Double.MAX_VALUE, find = Double.MAX_VALUE, miss = Double.MAX_VALUE, remove = Double.MAX_VALUE;
+        long levels = 0;
+        int n = keys.length;
+        long blackhole = 0;
+
+        for ( int round = 0; round < ROUNDS; round++ ) {
+            LongBTree tree = new LongBTree(order, search);
+
+            long start = System.nanoTime();
+            for ( long key : keys ) tree.add(key);
+            add = Math.min(add, (double) (System.nanoTime() - start) / n);
+
+            start = System.nanoTime();
+            for ( long key : probes ) if ( tree.contains(key) ) blackhole++;
+            find = Math.min(find, (double) (System.nanoTime() - start) / n);
+
+            start = System.nanoTime();
+            for ( long key : missing ) if ( !tree.contains(key) ) blackhole++;
+            miss = Math.min(miss, (double) (System.nanoTime() - start) / n);
+
+            levels = tree.getLevel();
+
+            start = System.nanoTime();
+            for ( int i = 0; i < n / 2; i++ ) tree.remove(probes[i]);
+            remove = Math.min(remove, (double) (System.nanoTime() - start) / (n / 2));
+
+            if ( tree.size() != n - n / 2 ) throw new IllegalStateException(name + " lost keys");
+        }
+
+        sink = blackhole;
+        System.out.printf("%-12s %8d %10.1f %10.1f %10.1f %10.1f%n", name, levels, add, find, miss, remove);
+    }
+}
@@ -0,0 +1,211 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedTree23Test {
+
+    private static <T> List<T> toList( Iterable<T> iterable ) {
+        List<T> list = new ArrayList<>();
+        iterable.forEach(list::add);
+        return list;
+    }
+
+    @Test
+    void testAgainstTreeSet() {
+        VersionedTree23<Integer> tree = new VersionedTree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(48);
+
+        for ( int i = 0; i < 20000; i++ ) {
+            int element = random.nextInt(2000);
+            if ( random.nextInt(3) > 0 ) assertEquals(expected.add(element), tree.add(element));
+            else assertEquals(expected.remove(element), tree.remove(element));
+        }
+
+        assertEquals(new ArrayList<>(expected), toList(tree));
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected.first(), tree.findMin());
+        assertEquals(expected.last(), tree.findMax());
+        for ( int i = -5; i < 2005; i++ ) assertEquals(expected.contains(i) ? i : null, tree.find(i));
+
+        // Without snapshots nothing is copied
+        assertEquals(0, tree.getCopies());
+
+        while ( !expected.isEmpty() ) assertTrue(tree.remove(expected.pollFirst()));
+        assertTrue(tree.isEmpty());
+        assertEquals(0, tree.getLevel());
+    }
+
+    @Test
+    void testSnapshots() {
+        VersionedTree23<Integer> tree = new VersionedTree23<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        List<VersionedTree23<Integer>.Snapshot> snapshots = new ArrayList<>();
+        List<List<Integer>> versions = new ArrayList<>();
+        Random random = new Random(49);
+
+        for ( int i = 0; i < 20000; i++ ) {
+            int element = random.nextInt(1000);
+            if ( random.nextInt(3) > 0 ) assertEquals(expected.add(element), tree.add(element));
+            else assertEquals(expected.remove(element), tree.remove(element));
+
+            if ( i % 500 == 0 ) {
+                snapshots.add(tree.snapshot());
+                versions.add(new ArrayList<>(expected));
+            }
+
+            // Closes a random snapshot from time to time, after checking it hasn't changed
+            if ( i % 700 == 0 && !snapshots.isEmpty() ) {
+                int which = random.nextInt(snapshots.size());
+                VersionedTree23<Integer>.Snapshot snapshot = snapshots.remove(which);
+                List<Integer> version = versions.remove(which);
+
+                assertEquals(version, toList(snapshot));
+                assertEquals(version.size(), snapshot.size());
+                snapshot.close();
+            }
+        }
+        assertEquals(snapshots.size(), tree.getOpenSnapshots());
+        assertTrue(tree.getCopies() > 0);
+
+        for ( int i = 0; i < snapshots.size(); i++ ) {
+            VersionedTree23<Integer>.Snapshot snapshot = snapshots.get(i);
+            TreeSet<Integer> version = new TreeSet<>(versions.get(i));
+
+            assertEquals(versions.get(i), toList(snapshot));
+            assertEquals(version.isEmpty() ? null : version.first(), snapshot.findMin());
+            assertEquals(version.isEmpty() ? null : version.last(), snapshot.findMax());
+
+            for ( int j = 0; j < 50; j++ ) {
+                int element = random.nextInt(1000);
+                assertEquals(version.contains(element), snapshot.contains(element));
+
+                Iterator<Integer> tail = version.tailSet(element, true).iterator(), iterator = snapshot.iterator(element);
+                for ( int k = 0; k < 5 && tail.hasNext(); k++ ) assertEquals(tail.next(), iterator.next());
+                assertEquals(tail.hasNext(), iterator.hasNext());
+            }
+            snapshot.close();
+        }
+        assertEquals(0, tree.getOpenSnapshots());
+
+        // Once every snapshot is closed the writer changes the nodes in place again
+        long copies = tree.getCopies();
+        for ( int i = 0; i < 1000; i++ ) {
+            assertEquals(expected.add(i), tree.add(i));
+            assertEquals(expected.remove(999 - i), tree.remove(999 - i));
+        }
+        assertTrue(tree.getCopies() - copies < 100, (tree.getCopies() - copies) + " copies");
+        assertEquals(new ArrayList<>(expected), toList(tree));
+    }
+
+    @Test
+    void testCopiesOfSiblings() {
+        // The root [2] over the leaves [1] and [3 4]: removing 1 takes 3 from its sibling
+        VersionedTree23<Integer> rotated = new VersionedTree23<>();
+        for ( int i = 1; i <= 4; i++ ) rotated.add(i);
+
+        try ( VersionedTree23<Integer>.Snapshot snapshot = rotated.snapshot() ) {
+            assertTrue(rotated.remove(1));
+            // The root, the leaf of 1 and the sibling, since the snapshot can see all of them
+            assertEquals(3, rotated.getCopies());
+            assertEquals(List.of(1, 2, 3, 4), toList(snapshot));
+        }
+        assertEquals(List.of(2, 3, 4), toList(rotated));
+
+        // The root [2] over the leaves [1] and [3]: removing 1 merges the leaves
+        VersionedTree23<Integer> merged = new VersionedTree23<>();
+        for ( int i = 1; i <= 3; i++ ) merged.add(i);
+
+        try ( VersionedTree23<Integer>.Snapshot snapshot = merged.snapshot() ) {
+            assertTrue(merged.remove(1));
+            assertEquals(3, merged.getCopies());
+            assertEquals(List.of(1, 2, 3), toList(snapshot));
+        }
+        assertEquals(List.of(2, 3), toList(merged));
+        assertEquals(1, merged.getLevel());
+    }
+
+    @Test
+    void testClose() {
+        VersionedTree23<String> tree = new VersionedTree23<>();
+        tree.add("a");
+
+        VersionedTree23<String>.Snapshot snapshot = tree.snapshot();
+        Iterator<String> iterator = snapshot.iterator();
+        tree.clear();
+        tree.add("b");
+
+        assertEquals(1, tree.getOpenSnapshots());
+        assertEquals("a", snapshot.find("a"));
+        assertNull(snapshot.find("b"));
+
+        snapshot.close();
+        snapshot.close();
+        assertEquals(0, tree.getOpenSnapshots());
+        assertThrows(IllegalStateException.class, () -> snapshot.find("a"));
+        assertThrows(IllegalStateException.class, iterator::next);
+
+        assertEquals(List.of("b"), tree.read(VersionedTree23Test::toList));
+        assertEquals(0, tree.getOpenSnapshots());
+        assertFalse(tree.read(read -> read.contains("a")));
+    }
+
+    @Test
+    void testConcurrentScans() throws InterruptedException {
+        VersionedTree23<Integer> tree = new VersionedTree23<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // The writer keeps the elements a range of consecutive integers, adding on the top and removing at the bottom
+        Thread writer = new Thread(() -> {
+            int low = 0, high = 0;
+            Random random = new Random(50);
+            for ( int i = 0; i < 200000; i++ ) {
+                if ( high - low < 1000 || random.nextBoolean() ) tree.add(high++);
+                else tree.remove(low++);
+            }
+        });
+
+        Thread[] readers = new Thread[3];
+        for ( int r = 0; r < readers.length; r++ ) {
+            readers[r] = new Thread(() -> {
+                try {
+                    while ( writer.isAlive() ) {
+                        try ( VersionedTree23<Integer>.Snapshot snapshot = tree.snapshot() ) {
+                            int count = 0;
+                            Integer previous = null;
+                            for ( int element : snapshot ) {
+                                if ( previous != null && element != previous + 1 ) throw new AssertionError(previous + " then " + element);
+                                previous = element;
+                                count++;
+                            }
+                            if ( count != snapshot.size() ) throw new AssertionError(count + " of " + snapshot.size());
+                        }
+                    }
+                }
+                catch ( Throwable e ) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+
+        writer.start();
+        for ( Thread reader : readers ) reader.start();
+        writer.join();
+        for ( Thread reader : readers ) reader.join();
+
+        assertNull(failure.get());
+        assertEquals(0, tree.getOpenSnapshots());
+        assertEquals(tree.size(), toList(tree).size());
+    }
+}